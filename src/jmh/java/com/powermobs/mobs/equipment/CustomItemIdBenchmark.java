@@ -0,0 +1,114 @@
+package com.powermobs.mobs.equipment;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways {@link CustomItemEffectManager#getCustomItemId} has read the custom id:
+ * cloning the item meta through {@code getItemMeta()}, and the read-only
+ * {@code ItemStack#getPersistentDataContainer} view behind a custom item material check.
+ * <p>
+ * Run with {@code mvn -Pjmh test-compile exec:exec}, which passes {@code -prof gc}; compare
+ * {@code gc.alloc.rate.norm} (bytes per call) between the paired benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomItemIdBenchmark {
+
+    private final NamespacedKey customIdKey = new NamespacedKey("powermobs", "custom-id");
+    private final Set<Material> customItemMaterials = EnumSet.of(Material.DIAMOND_SWORD);
+
+    // A configured custom item, and a renamed vanilla item a player might be holding
+    private ItemStack customItem;
+    private ItemStack plainItem;
+
+    @Setup
+    public void setUp() {
+        MockBukkit.mock();
+
+        this.customItem = new ItemStack(Material.DIAMOND_SWORD);
+        ItemMeta meta = this.customItem.getItemMeta();
+        meta.displayName(Component.text("Blade of the Fallen"));
+        meta.lore(List.of(Component.text("Burns on hit"), Component.text("Slows on hit")));
+        meta.addEnchant(Enchantment.SHARPNESS, 5, true);
+        meta.getPersistentDataContainer().set(this.customIdKey, PersistentDataType.STRING, "fallen_blade");
+        this.customItem.setItemMeta(meta);
+
+        this.plainItem = new ItemStack(Material.IRON_AXE);
+        ItemMeta plainMeta = this.plainItem.getItemMeta();
+        plainMeta.displayName(Component.text("Axe"));
+        this.plainItem.setItemMeta(plainMeta);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Benchmark
+    public String itemMetaCustomItem() {
+        return readThroughItemMeta(this.customItem);
+    }
+
+    @Benchmark
+    public String dataViewCustomItem() {
+        return readThroughDataView(this.customItem);
+    }
+
+    @Benchmark
+    public String itemMetaPlainItem() {
+        return readThroughItemMeta(this.plainItem);
+    }
+
+    @Benchmark
+    public String dataViewPlainItem() {
+        return readThroughDataView(this.plainItem);
+    }
+
+    // getCustomItemId before: every call clones the whole item meta
+    private String readThroughItemMeta(ItemStack item) {
+        if (item == null || !item.hasItemMeta()) {
+            return null;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return null;
+        }
+        return meta.getPersistentDataContainer().get(this.customIdKey, PersistentDataType.STRING);
+    }
+
+    // getCustomItemId now
+    private String readThroughDataView(ItemStack item) {
+        if (item == null || !this.customItemMaterials.contains(item.getType()) || !item.hasItemMeta()) {
+            return null;
+        }
+        return item.getPersistentDataContainer().get(this.customIdKey, PersistentDataType.STRING);
+    }
+}
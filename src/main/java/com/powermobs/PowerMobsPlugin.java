@@ -7,6 +7,7 @@ import com.powermobs.config.PowerMobDropHandler;
 import com.powermobs.config.SpawnBlockerManager;
 import com.powermobs.config.SpawnKeyManager;
 import com.powermobs.events.*;
+import com.powermobs.mobs.MinionManager;
 import com.powermobs.mobs.PowerMobManager;
 import com.powermobs.mobs.abilities.AbilityManager;
 import com.powermobs.mobs.equipment.CustomItemEffectManager;
@@ -16,6 +17,7 @@ import com.powermobs.mobs.timing.SpawnTimerManager;
 import com.powermobs.mobs.tracking.DamageTracker;
 import com.powermobs.stats.CachedStats;
 import com.powermobs.stats.StatsManager;
+import com.powermobs.utils.ParticleEmitter;
 import lombok.Getter;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -49,6 +51,9 @@ public class PowerMobsPlugin extends JavaPlugin {
     @Getter
     private AbilityManager abilityManager;
 
+    @Getter
+    private MinionManager minionManager;
+
     @Getter
     private EquipmentManager equipmentManager;
 
@@ -70,6 +75,9 @@ public class PowerMobsPlugin extends JavaPlugin {
     @Getter
     private SpawnKeyManager spawnKeyManager;
 
+    @Getter
+    private ParticleEmitter particleEmitter;
+
 
     @Override
     public void onEnable() {
@@ -82,7 +90,9 @@ public class PowerMobsPlugin extends JavaPlugin {
         this.dropHandler = new PowerMobDropHandler(this);
 
         // Initialize managers
+        this.particleEmitter = new ParticleEmitter(this);
         this.abilityManager = new AbilityManager(this);
+        this.minionManager = new MinionManager(this);
         this.spawnBlockerManager = new SpawnBlockerManager(this);
         this.spawnKeyManager = new SpawnKeyManager(this);
         this.equipmentManager = new EquipmentManager(this);
@@ -116,6 +126,7 @@ public class PowerMobsPlugin extends JavaPlugin {
         this.equipmentManager.loadEquipment();
         this.statsManager.initDatabase();
         this.statsManager.loadGlobalMobTotalsIntoCache();
+        this.statsManager.loadLeaderboards();
         this.statsManager.startSaveTask();
 
         // Start cleanup task AFTER everything is loaded
@@ -131,6 +142,14 @@ public class PowerMobsPlugin extends JavaPlugin {
             this.powerMobManager.cleanup();
         }
 
+        if (this.abilityManager != null) {
+            this.abilityManager.unloadAbilities();
+        }
+
+        if (this.minionManager != null) {
+            this.minionManager.shutdown();
+        }
+
         if (spawnTimerManager != null) {
             spawnTimerManager.shutdown();
         }
@@ -1329,10 +1329,10 @@ public class PowerMobCommand implements CommandExecutor, TabCompleter {
                 }
 
                 sender.sendMessage(ChatColor.YELLOW + "Power Mob: " + ChatColor.WHITE + powerMobId);
-                sender.sendMessage(ChatColor.YELLOW + "Kills: " + ChatColor.WHITE + stats.kills);
-                sender.sendMessage(ChatColor.YELLOW + "Deaths: " + ChatColor.WHITE + stats.deaths);
-                sender.sendMessage(ChatColor.YELLOW + "Max Damage: " + ChatColor.WHITE + (int) stats.maxDamage);
-                sender.sendMessage(ChatColor.YELLOW + "Total Damage: " + ChatColor.WHITE + (int) stats.totalDamage);
+                sender.sendMessage(ChatColor.YELLOW + "Kills: " + ChatColor.WHITE + stats.getKills());
+                sender.sendMessage(ChatColor.YELLOW + "Deaths: " + ChatColor.WHITE + stats.getDeaths());
+                sender.sendMessage(ChatColor.YELLOW + "Max Damage: " + ChatColor.WHITE + (int) stats.getMaxDamage());
+                sender.sendMessage(ChatColor.YELLOW + "Total Damage: " + ChatColor.WHITE + (int) stats.getTotalDamage());
                 return;
             }
 
@@ -1344,10 +1344,10 @@ public class PowerMobCommand implements CommandExecutor, TabCompleter {
             for (Map.Entry<String, CachedStats.MobStats> entry : statsMap.entrySet()) {
                 CachedStats.MobStats stats = entry.getValue();
                 sender.sendMessage(ChatColor.GOLD + entry.getKey() + ChatColor.GRAY
-                        + " | Kills: " + ChatColor.WHITE + stats.kills
-                        + ChatColor.GRAY + " | Deaths: " + ChatColor.WHITE + stats.deaths
-                        + ChatColor.GRAY + " | Max Dmg: " + ChatColor.WHITE + (int) stats.maxDamage
-                        + ChatColor.GRAY + " | Total Dmg: " + ChatColor.WHITE + (int) stats.totalDamage);
+                        + " | Kills: " + ChatColor.WHITE + stats.getKills()
+                        + ChatColor.GRAY + " | Deaths: " + ChatColor.WHITE + stats.getDeaths()
+                        + ChatColor.GRAY + " | Max Dmg: " + ChatColor.WHITE + (int) stats.getMaxDamage()
+                        + ChatColor.GRAY + " | Total Dmg: " + ChatColor.WHITE + (int) stats.getTotalDamage());
             }
         });
 
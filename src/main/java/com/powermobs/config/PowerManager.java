@@ -73,6 +73,12 @@ public class PowerManager {
     @Getter
     private boolean countAllyDamage;
     @Getter
+    private int maxSummonedMinions;
+    @Getter
+    private int maxParticlesPerPlayerPerTick;
+    @Getter
+    private int damageLedgerIdleMinutes;
+    @Getter
     private RandomMobConfig randomMobConfig;
 
     private volatile boolean saveInProgress = false;
@@ -149,6 +155,9 @@ public class PowerManager {
             }
             this.playerInvolvementCount = Math.max(settings.getInt("player-involvement-count", 3), 0);
             this.playerInvolvementCountPercentage = Math.max(settings.getDouble("player-involvement-count-percentage", 0.5), 0);
+            this.maxSummonedMinions = Math.max(settings.getInt("max-summoned-minions", 60), 0);
+            this.maxParticlesPerPlayerPerTick = Math.max(settings.getInt("max-particles-per-player-per-tick", 200), 0);
+            this.damageLedgerIdleMinutes = Math.max(settings.getInt("damage-ledger-idle-minutes", 30), 1);
 
             // Load loot drop requirements
             ConfigurationSection lootSection = settings.getConfigurationSection("loot-requirements");
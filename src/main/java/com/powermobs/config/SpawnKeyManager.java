@@ -2,7 +2,6 @@ package com.powermobs.config;
 
 import com.powermobs.PowerMobsPlugin;
 import com.powermobs.mobs.SpawnContext;
-import com.powermobs.mobs.equipment.items.Shape;
 import lombok.Getter;
 import org.bukkit.*;
 import org.bukkit.configuration.ConfigurationSection;
@@ -15,8 +14,6 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
-import org.bukkit.util.Vector;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -28,7 +25,6 @@ public class SpawnKeyManager {
     private final NamespacedKey spawnKeyKey;
     private final PowerMobsPlugin plugin;
     private final Map<String, SpawnKeyConfig> keyConfigs;
-    private final Random random = new Random();
     private final Set<String> pendingSpawnKeys = ConcurrentHashMap.newKeySet();
 
 
@@ -331,99 +327,15 @@ public class SpawnKeyManager {
     private void playParticleEffect(SpawnKeyConfig key, Location location) {
         if (location == null || location.getWorld() == null) return;
 
-        final Particle particle;
         if (key.particleEffectConfig() == null) {
             plugin.getLogger().warning("[SpawnKeys] Invalid particle config for " +
                     key.id());
             return;
         }
         ParticleEffectConfig config = key.particleEffectConfig();
-        try {
-
-            particle = Particle.valueOf(config.getParticleType().toUpperCase());
-        } catch (Exception e) {
+        if (!plugin.getParticleEmitter().playEffect(config, location)) {
             plugin.getLogger().warning("[SpawnKeys] Invalid particle type '" + config.getParticleType() + "' for " +
                     key.id());
-            return;
-        }
-
-        final int perTickCount = config.getParticleCount();
-        if (perTickCount <= 0) return;
-
-        final double radius = config.getParticleRadius();
-        final Shape shape = config.getParticleShape();
-
-        Runnable burst = () -> spawnParticleBurst(location, particle, perTickCount, radius, shape);
-
-        int durationSeconds = config.getParticleDurationSeconds();
-        if (durationSeconds <= 0) {
-            burst.run();
-            return;
-        }
-
-        int interval = config.getParticleIntervalTicks();
-        int runs = Math.max(1, (durationSeconds * 20) / interval);
-
-        final int[] remaining = { runs };
-        final BukkitTask[] task = { null };
-
-        task[0] = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            if (remaining[0]-- <= 0) {
-                if (task[0] != null) task[0].cancel();
-                return;
-            }
-            burst.run();
-        }, 0L, interval);
-    }
-
-    private void spawnParticleBurst(Location base, Particle particle, int count, double radius, Shape shape) {
-        if (base.getWorld() == null) return;
-
-        Location origin = base.clone();
-
-        for (int i = 0; i < count; i++) {
-            Vector offset = switch (shape) {
-                case SQUARE -> randomPointInSquare(radius);
-                case CIRCLE ->  randomPointInCircle(radius);
-                case CUBE -> randomPointInCube(radius);
-                case ORB -> randomPointInSphere(radius);
-            };
-
-            Location at = origin.clone().add(offset);
-            origin.getWorld().spawnParticle(particle, at, 1, 0, 0, 0, 0);
-        }
-    }
-
-    private Vector randomPointInSquare(double radius){
-        if (radius <= 0) return new Vector(0, 0, 0);
-        return new Vector(random.nextDouble() * radius * 2 - radius, 0.0, random.nextDouble() * radius * 2 - radius);
-    }
-
-    private Vector randomPointInCube(double radius){
-        if (radius <= 0) return new Vector(0, 0, 0);
-        return new Vector(random.nextDouble() * radius * 2 - radius, random.nextDouble() * radius * 2 - radius, random.nextDouble() * radius * 2 - radius);
-    }
-
-    private Vector randomPointInCircle(double radius) {
-        if (radius <= 0) return new Vector(0, 0, 0);
-
-        double t = random.nextDouble() * (Math.PI * 2);
-        double r = Math.sqrt(random.nextDouble()) * radius;
-        double x = Math.cos(t) * r;
-        double z = Math.sin(t) * r;
-        return new Vector(x, 0.0, z);
-    }
-
-    private Vector randomPointInSphere(double radius) {
-        if (radius <= 0) return new Vector(0, 0, 0);
-
-        while (true) {
-            double x = (random.nextDouble() * 2 - 1) * radius;
-            double y = (random.nextDouble() * 2 - 1) * radius;
-            double z = (random.nextDouble() * 2 - 1) * radius;
-            if ((x * x + y * y + z * z) <= (radius * radius)) {
-                return new Vector(x, y, z);
-            }
         }
     }
 
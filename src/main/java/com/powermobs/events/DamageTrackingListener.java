@@ -1,15 +1,21 @@
 package com.powermobs.events;
 
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
 import com.powermobs.PowerMobsPlugin;
 import com.powermobs.mobs.PowerMob;
 import lombok.RequiredArgsConstructor;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
 
-import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Listener for damage and death events to track player damage
@@ -32,11 +38,47 @@ public class DamageTrackingListener implements Listener {
         if (powerMob == null) {
             return;
         }
-        if (Objects.equals(powerMob.getId(), "summoned-minion")){
-            return;
-        }
 
         plugin.getDamageTracker().registerDamage(powerMob, event);
     }
 
+    /**
+     * Applies the hits buffered during the tick
+     */
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        plugin.getDamageTracker().flush();
+    }
+
+    /**
+     * Keeps the damage of mobs in unloading chunks
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            plugin.getDamageTracker().suspendMob(entity.getUniqueId());
+        }
+    }
+
+    /**
+     * Resumes the damage of mobs in loaded chunks
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            plugin.getDamageTracker().resumeMob(entity.getUniqueId());
+        }
+    }
+
+    /**
+     * Releases the damage of mobs that left the world for good (despawned, removed by a command or another plugin)
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        UUID entityUuid = event.getEntity().getUniqueId();
+        if (!plugin.getDamageTracker().isSuspended(entityUuid)) {
+            plugin.getDamageTracker().cleanupMob(entityUuid);
+        }
+    }
+
 }
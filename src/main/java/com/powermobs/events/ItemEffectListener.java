@@ -1,10 +1,12 @@
 package com.powermobs.events;
 
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.destroystokyo.paper.event.player.PlayerArmorChangeEvent;
 import com.powermobs.PowerMobsPlugin;
 import com.powermobs.mobs.equipment.ItemEffect;
-import com.powermobs.mobs.equipment.items.EffectType;
-import com.powermobs.mobs.equipment.items.TargetType;
+import com.powermobs.mobs.equipment.PlayerEffectIndex;
 import com.powermobs.mobs.equipment.items.TriggerType;
+import com.powermobs.utils.TickCostSampler;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
@@ -15,8 +17,9 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.entity.*;
-import org.bukkit.event.player.PlayerInteractEvent;
-import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.*;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.persistence.PersistentDataType;
@@ -24,31 +27,134 @@ import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import org.bukkit.projectiles.ProjectileSource;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class ItemEffectListener implements Listener {
 
+    // Players are spread over this many ticks, so each one is still handled once per second
+    private static final int BUCKETS = 20;
+    // Ticks between full rescans of every player's effect slots
+    private static final int FULL_RESCAN_INTERVAL_TICKS = 200;
+    // Ticks between debug reports of the periodic pass cost
+    private static final int COST_REPORT_INTERVAL_TICKS = 1200;
+
     private final PowerMobsPlugin plugin;
     private final NamespacedKey projectileItemKey; // tag projectiles with firing item id
+    private final TickCostSampler periodicCost = new TickCostSampler(COST_REPORT_INTERVAL_TICKS);
+    private long periodicTicks = 0;
 
     public ItemEffectListener(PowerMobsPlugin plugin) {
         this.plugin = plugin;
         this.projectileItemKey = new NamespacedKey(plugin, "proj-item-id");
-        // Periodic HOLDING effects (once per second)
-        Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                applyForItems(p, TriggerType.HOLDING, p, null);
-                applyForHotbar(p);
-                applyForInventory(p);
-                applyForArmor(p, TriggerType.EQUIPPED, p, null);
-
-                // Maintain persistent immunities passively
-                if (hasPersistentFireImmunity(p)) {
-                    p.setFireTicks(0);
-                }
+        // Periodic HOLDING/HOTBAR/INVENTORY/EQUIPPED effects (once per second per player, one bucket per tick)
+        Bukkit.getScheduler().runTaskTimer(plugin, this::runPeriodicBucket, 1L, 1L);
+    }
+
+    private void runPeriodicBucket() {
+        long start = System.nanoTime();
+        PlayerEffectIndex index = plugin.getItemEffectManager().getPlayerEffectIndex();
+
+        // Items can also be moved by commands or other plugins without an event we listen to
+        if (periodicTicks % FULL_RESCAN_INTERVAL_TICKS == 0) {
+            index.markAllDirty();
+            plugin.getItemEffectManager().getImmunityCache().invalidateAll();
+        }
+
+        // A player's bucket is stable for the whole session, which keeps their one second cadence
+        int bucket = (int) (periodicTicks % BUCKETS);
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            if (Math.floorMod(p.getUniqueId().hashCode(), BUCKETS) != bucket) continue;
+
+            int[] slots = index.getEffectSlots(p);
+            if (slots.length == 0) continue;
+
+            applyForEffectSlots(p, slots);
+
+            // Maintain persistent immunities passively
+            if (p.getFireTicks() > 0 && hasPersistentFireImmunity(p)) {
+                p.setFireTicks(0);
             }
-        }, 20L, 20L);
+        }
+        periodicTicks++;
+
+        periodicCost.record(System.nanoTime() - start);
+        if (periodicCost.isWindowFull()) {
+            plugin.debug("[ItemEffects] Periodic effect pass cost per tick: " + periodicCost.summarizeAndReset(), "item_effects");
+        }
+    }
+
+    // Keep the effect slot index and immunity cache in sync with inventory changes
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onInventoryClick(InventoryClickEvent e) {
+        if (e.getWhoClicked() instanceof Player player) {
+            markItemsChanged(player);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onInventoryDrag(InventoryDragEvent e) {
+        if (e.getWhoClicked() instanceof Player player) {
+            markItemsChanged(player);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPickup(EntityPickupItemEvent e) {
+        if (e.getEntity() instanceof Player player) {
+            markItemsChanged(player);
+        } else {
+            // Mobs that pick up gear can gain or lose immunities too
+            plugin.getItemEffectManager().getImmunityCache().invalidate(e.getEntity());
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onDrop(PlayerDropItemEvent e) {
+        markItemsChanged(e.getPlayer());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onSwapHands(PlayerSwapHandItemsEvent e) {
+        markItemsChanged(e.getPlayer());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onHeldItemChange(PlayerItemHeldEvent e) {
+        // The slots do not change, only which one counts as held
+        plugin.getItemEffectManager().getImmunityCache().invalidate(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onArmorChange(PlayerArmorChangeEvent e) {
+        markItemsChanged(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onItemBreak(PlayerItemBreakEvent e) {
+        markItemsChanged(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerDeath(PlayerDeathEvent e) {
+        markItemsChanged(e.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent e) {
+        plugin.getItemEffectManager().getPlayerEffectIndex().forget(e.getPlayer().getUniqueId());
+        plugin.getItemEffectManager().getImmunityCache().forget(e.getPlayer().getUniqueId());
+        plugin.getItemEffectProcessor().getPassivePotionTracker().forget(e.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRemoveFromWorld(EntityRemoveFromWorldEvent e) {
+        // Players are kept until they quit, they leave the world on every dimension change
+        if (!(e.getEntity() instanceof Player)) {
+            plugin.getItemEffectManager().getImmunityCache().forget(e.getEntity().getUniqueId());
+        }
+    }
+
+    private void markItemsChanged(Player player) {
+        plugin.getItemEffectManager().getPlayerEffectIndex().markDirty(player);
+        plugin.getItemEffectManager().getImmunityCache().invalidate(player);
     }
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
@@ -90,7 +196,7 @@ public class ItemEffectListener implements Listener {
     private void processRightClickItem(Player player, ItemStack item) {
         if (item == null) return;
         var list = plugin.getItemEffectManager().getItemEffects(item, TriggerType.RIGHT_CLICK);
-        if (list.isEmpty()) return;
+        if (list.length == 0) return;
         for (var eff : list) {
             plugin.getItemEffectProcessor().processEffect(eff, player, null, player.getLocation());
         }
@@ -102,7 +208,7 @@ public class ItemEffectListener implements Listener {
         if (tool == null) return;
 
         var list = plugin.getItemEffectManager().getItemEffects(tool, TriggerType.BLOCK_BREAK);
-        if (list.isEmpty()) return;
+        if (list.length == 0) return;
 
         for (var eff : list) {
             plugin.getItemEffectProcessor().processEffect(eff, e.getPlayer(), null, e.getPlayer().getLocation());
@@ -175,6 +281,7 @@ public class ItemEffectListener implements Listener {
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
     public void onConsume(PlayerItemConsumeEvent e) {
+        markItemsChanged(e.getPlayer());
         applyForConsumedItem(e.getPlayer(), e.getItem());
     }
 
@@ -187,7 +294,7 @@ public class ItemEffectListener implements Listener {
 
         // Fire SHOOT_PROJECTILE for the bow/crossbow used
         var list = plugin.getItemEffectManager().getItemEffects(weapon, TriggerType.SHOOT_PROJECTILE);
-        if (!list.isEmpty()) {
+        if (list.length > 0) {
             for (ItemEffect eff : list) {
                 plugin.getItemEffectProcessor().processEffect(eff, shooter, null, shooter.getLocation());
             }
@@ -235,7 +342,7 @@ public class ItemEffectListener implements Listener {
     private boolean processShootForItem(LivingEntity shooter, Projectile proj, ItemStack item) {
         if (item == null) return false;
         var list = plugin.getItemEffectManager().getItemEffects(item, TriggerType.SHOOT_PROJECTILE);
-        if (list.isEmpty()) return false;
+        if (list.length == 0) return false;
 
         for (ItemEffect eff : list) {
             plugin.getItemEffectProcessor().processEffect(eff, shooter, null, shooter.getLocation());
@@ -257,8 +364,8 @@ public class ItemEffectListener implements Listener {
         String id = proj.getPersistentDataContainer().get(projectileItemKey, PersistentDataType.STRING);
         if (id == null) return;
 
-        var effects = plugin.getItemEffectManager().getItemEffects(id);
-        if (effects == null || effects.isEmpty()) return;
+        var effects = plugin.getItemEffectManager().getItemEffects(id, TriggerType.PROJECTILE_HIT);
+        if (effects.length == 0) return;
 
         LivingEntity hitEntity = (e.getHitEntity() instanceof LivingEntity le) ? le : null;
         Location hitLoc =
@@ -267,7 +374,6 @@ public class ItemEffectListener implements Listener {
                                 proj.getLocation();
 
         for (ItemEffect eff : effects) {
-            if (eff.getTrigger() != TriggerType.PROJECTILE_HIT) continue;
             plugin.getItemEffectProcessor().processEffect(eff, shooter, hitEntity, hitLoc);
         }
     }
@@ -282,69 +388,63 @@ public class ItemEffectListener implements Listener {
     }
 
     private void applyForItems(LivingEntity holder, TriggerType trigger, LivingEntity triggerEntity, LivingEntity target) {
-        for (ItemStack stack : getHeldItems(holder)) {
-            var list = plugin.getItemEffectManager().getItemEffects(stack, trigger);
-            if (list.isEmpty()) continue;
-            for (var eff : list) {
-                plugin.getItemEffectProcessor().processEffect(eff, triggerEntity, target, holder.getLocation());
-            }
-        }
+        var eq = holder.getEquipment();
+        if (eq == null) return;
+        applyItemEffects(eq.getItemInMainHand(), trigger, triggerEntity, target, holder);
+        applyItemEffects(eq.getItemInOffHand(), trigger, triggerEntity, target, holder);
     }
 
-    private void applyForHotbar(Player player) {
+    /**
+     * Applies the periodic effects of the indexed slots. The held slot is read live,
+     * so switching the held item does not need a rescan.
+     */
+    private void applyForEffectSlots(Player player, int[] slots) {
         var inv = player.getInventory();
-        for (int i = 0; i < 9; i++) {
-            ItemStack stack = inv.getItem(i);
+        int heldSlot = inv.getHeldItemSlot();
+        for (int slot : slots) {
+            ItemStack stack = inv.getItem(slot);
             if (stack == null) continue;
-            var list = plugin.getItemEffectManager().getItemEffects(stack, TriggerType.HOTBAR);
-            if (list.isEmpty()) continue;
-            for (var eff : list) {
-                plugin.getItemEffectProcessor().processEffect(eff, player, null, player.getLocation());
-            }
-        }
-    }
 
-    private void applyForInventory(Player player) {
-        var contents = player.getInventory().getStorageContents();
-        if (contents == null) return;
-        for (ItemStack stack : contents) {
-            if (stack == null) continue;
-            var list = plugin.getItemEffectManager().getItemEffects(stack, TriggerType.INVENTORY);
-            if (list.isEmpty()) continue;
-            for (var eff : list) {
-                plugin.getItemEffectProcessor().processEffect(eff, player, null, player.getLocation());
+            String itemId = plugin.getItemEffectManager().getCustomItemId(stack);
+            if (itemId == null) continue;
+
+            if (slot == heldSlot || slot == PlayerEffectIndex.OFF_HAND_SLOT) {
+                applySlotEffects(player, itemId, TriggerType.HOLDING);
+            }
+            if (slot < PlayerEffectIndex.HOTBAR_END) {
+                applySlotEffects(player, itemId, TriggerType.HOTBAR);
+            }
+            if (slot < PlayerEffectIndex.STORAGE_END) {
+                applySlotEffects(player, itemId, TriggerType.INVENTORY);
+            } else if (slot < PlayerEffectIndex.ARMOR_END) {
+                applySlotEffects(player, itemId, TriggerType.EQUIPPED);
             }
         }
     }
 
-    private void applyForArmor(LivingEntity holder, TriggerType trigger, LivingEntity triggerEntity, LivingEntity targetEntity) {
-        for (ItemStack stack : getArmorItems(holder)) {
-            var list = plugin.getItemEffectManager().getItemEffects(stack, trigger);
-            for (var eff : list) {
-                // Important: pass targetEntity so ATTACKER/VICTIM resolution works for ON_HIT/ON_HIT_TAKEN
-                plugin.getItemEffectProcessor().processEffect(eff, triggerEntity, targetEntity, holder.getLocation());
-            }
+    private void applySlotEffects(Player player, String itemId, TriggerType trigger) {
+        for (ItemEffect eff : plugin.getItemEffectManager().getItemEffects(itemId, trigger)) {
+            plugin.getItemEffectProcessor().processEffect(eff, player, null, player.getLocation());
         }
     }
 
-    private List<ItemStack> getArmorItems(LivingEntity le) {
-        var out = new ArrayList<ItemStack>(4);
-        if (le.getEquipment() == null) return out;
-        if (le.getEquipment().getHelmet() != null) out.add(le.getEquipment().getHelmet());
-        if (le.getEquipment().getChestplate() != null) out.add(le.getEquipment().getChestplate());
-        if (le.getEquipment().getLeggings() != null) out.add(le.getEquipment().getLeggings());
-        if (le.getEquipment().getBoots() != null) out.add(le.getEquipment().getBoots());
-        return out;
+    private void applyForArmor(LivingEntity holder, TriggerType trigger, LivingEntity triggerEntity, LivingEntity targetEntity) {
+        var eq = holder.getEquipment();
+        if (eq == null) return;
+        // Important: pass targetEntity so ATTACKER/VICTIM resolution works for ON_HIT/ON_HIT_TAKEN
+        applyItemEffects(eq.getHelmet(), trigger, triggerEntity, targetEntity, holder);
+        applyItemEffects(eq.getChestplate(), trigger, triggerEntity, targetEntity, holder);
+        applyItemEffects(eq.getLeggings(), trigger, triggerEntity, targetEntity, holder);
+        applyItemEffects(eq.getBoots(), trigger, triggerEntity, targetEntity, holder);
     }
 
-    private List<ItemStack> getHeldItems(LivingEntity le) {
-        List<ItemStack> out = new ArrayList<>();
-        if (le.getEquipment() == null) return out;
-        ItemStack main = le.getEquipment().getItemInMainHand();
-        ItemStack off = le.getEquipment().getItemInOffHand();
-        if (main != null) out.add(main);
-        if (off != null) out.add(off);
-        return out;
+    private void applyItemEffects(ItemStack stack, TriggerType trigger, LivingEntity triggerEntity, LivingEntity targetEntity, LivingEntity holder) {
+        if (stack == null) return;
+        var list = plugin.getItemEffectManager().getItemEffects(stack, trigger);
+        if (list.length == 0) return;
+        for (var eff : list) {
+            plugin.getItemEffectProcessor().processEffect(eff, triggerEntity, targetEntity, holder.getLocation());
+        }
     }
 
     private LivingEntity resolveAttacker(Entity damager) {
@@ -357,86 +457,21 @@ public class ItemEffectListener implements Listener {
     }
 
     private boolean hasPersistentPotionImmunity(LivingEntity target, PotionEffectType type, int levelOneBased) {
-        if (plugin.getItemEffectManager() == null || target == null || type == null) return false;
-
-        for (ItemEffect immunity : collectPersistentImmunities(target)) {
-            int maxImmune = immunity.getImmuneMaxLevelFor(type);
-            if (maxImmune >= 1 && levelOneBased <= maxImmune) {
-                return true;
-            }
-        }
-        return false;
+        return plugin.getItemEffectManager().getImmunityCache().isImmuneToPotion(target, type, levelOneBased);
     }
 
     private boolean hasPersistentFireImmunity(LivingEntity target) {
-        if (plugin.getItemEffectManager() == null || target == null) return false;
-
-        for (ItemEffect immunity : collectPersistentImmunities(target)) {
-            if (immunity.isClearFire()) return true;
-        }
-        return false;
-    }
-
-    private List<ItemEffect> collectPersistentImmunities(LivingEntity entity) {
-        List<ItemEffect> out = new ArrayList<>();
-        var eq = entity.getEquipment();
-        if (eq != null) {
-            // Hands -> HOLDING
-            addItemImmunities(out, eq.getItemInMainHand(), TriggerType.HOLDING);
-            addItemImmunities(out, eq.getItemInOffHand(), TriggerType.HOLDING);
-
-            // Armor -> EQUIPPED
-            addItemImmunities(out, eq.getHelmet(), TriggerType.EQUIPPED);
-            addItemImmunities(out, eq.getChestplate(), TriggerType.EQUIPPED);
-            addItemImmunities(out, eq.getLeggings(), TriggerType.EQUIPPED);
-            addItemImmunities(out, eq.getBoots(), TriggerType.EQUIPPED);
-        }
-
-        // NEW: Inventory-based persistent immunities
-        if (entity instanceof HumanEntity human) {
-            var inv = human.getInventory();
-
-            // HOTBAR immunities
-            for (int i = 0; i < 9; i++) {
-                addItemImmunities(out, inv.getItem(i), TriggerType.HOTBAR);
-            }
-
-            // INVENTORY immunities (storage contents: main inventory + hotbar)
-            var storage = inv.getStorageContents();
-            if (storage != null) {
-                for (ItemStack stack : storage) {
-                    addItemImmunities(out, stack, TriggerType.INVENTORY);
-                }
-            }
-        }
-
-        return out;
-    }
-
-    private void addItemImmunities(List<ItemEffect> out, ItemStack item, TriggerType expectedTrigger) {
-        if (item == null || plugin.getItemEffectManager() == null) return;
-
-        for (ItemEffect e : plugin.getItemEffectManager().getItemEffects(item)) {
-            if (e.getEffectType() != EffectType.IMMUNITY) continue;
-            if (e.getCooldown() != 0) continue;                 // persistent only
-            if (e.getTargetType() != TargetType.SELF) continue; // applies to holder only
-            if (e.getTrigger() != expectedTrigger) continue;    // holding/equipped scope
-            out.add(e);
-        }
+        return plugin.getItemEffectManager().getImmunityCache().isImmuneToFire(target);
     }
 
     private boolean hasPersistentFallImmunity(LivingEntity target) {
-        if (plugin.getItemEffectManager() == null || target == null) return false;
-        for (ItemEffect immunity : collectPersistentImmunities(target)) {
-            if (immunity.isNegateFallDamage()) return true;
-        }
-        return false;
+        return plugin.getItemEffectManager().getImmunityCache().isImmuneToFall(target);
     }
 
     private void applyForConsumedItem(Player player, ItemStack item) {
         if (item == null) return;
         var list = plugin.getItemEffectManager().getItemEffects(item, TriggerType.CONSUME);
-        if (list.isEmpty()) return;
+        if (list.length == 0) return;
         for (ItemEffect eff : list) {
             // triggerEntity = player, no explicit target entity for CONSUME
             plugin.getItemEffectProcessor().processEffect(eff, player, null, player.getLocation());
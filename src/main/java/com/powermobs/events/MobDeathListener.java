@@ -10,7 +10,6 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
 
-import java.util.Objects;
 import java.util.Random;
 
 /**
@@ -24,6 +23,15 @@ public class MobDeathListener implements Listener {
     @EventHandler(priority = EventPriority.NORMAL)
     public void onEntityDeath(EntityDeathEvent event) {
         LivingEntity entity = event.getEntity();
+
+        // Summoned minions drop nothing
+        if (this.plugin.getMinionManager().isMinion(entity)) {
+            event.getDrops().clear();
+            event.setDroppedExp(0);
+            this.plugin.getMinionManager().unregisterMinion(entity.getUniqueId());
+            return;
+        }
+
         PowerMob powerMob = PowerMob.getFromEntity(this.plugin, entity);
 
         if (powerMob == null) {
@@ -34,12 +42,6 @@ public class MobDeathListener implements Listener {
         event.getDrops().clear();
         event.setDroppedExp(0);
 
-        if (Objects.equals(powerMob.getId(), "summoned-minion")){
-            powerMob.remove();
-            this.plugin.getPowerMobManager().unregisterPowerMob(powerMob);
-            return;
-        }
-
         // Get the killer player (if any)
         Player killer = entity.getKiller();
         plugin.debug("Killer: " + killer, "mob_combat");
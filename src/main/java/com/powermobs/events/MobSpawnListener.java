@@ -109,9 +109,9 @@ public class MobSpawnListener implements Listener {
 
         // Show spawn effect
         if (this.plugin.getConfigManager().isSpawnEffect()) {
-            location.getWorld().spawnParticle(
-                    Particle.EXPLOSION_EMITTER,
+            this.plugin.getParticleEmitter().spawn(
                     location.clone().add(0, 1, 0),
+                    Particle.EXPLOSION_EMITTER,
                     1,
                     0,
                     0,
@@ -0,0 +1,270 @@
+package com.powermobs.mobs;
+
+import com.powermobs.PowerMobsPlugin;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * Tracks minions summoned by power mobs.
+ * Minions are kept as lightweight records indexed by their owner, spawned a few per tick
+ * under a global budget, and despawned once their owner is gone.
+ */
+public class MinionManager {
+
+    private static final int MAX_SPAWNS_PER_TICK = 4;
+    private static final int ORPHAN_SWEEP_INTERVAL_TICKS = 20;
+
+    private final PowerMobsPlugin plugin;
+    // Minion entity UUID -> record
+    private final Map<UUID, MinionRecord> minions = new HashMap<>();
+    // Owner entity UUID -> minion entity UUIDs
+    private final Map<UUID, Set<UUID>> minionsByOwner = new HashMap<>();
+    // Owner entity UUID -> owner entity, used to detect orphaned minions
+    private final Map<UUID, LivingEntity> owners = new HashMap<>();
+    private final Deque<PendingMinion> pendingSpawns = new ArrayDeque<>();
+
+    @Getter
+    private final NamespacedKey minionOwnerKey;
+
+    private BukkitTask task;
+    private long ticks = 0;
+
+    /**
+     * Creates a new minion manager
+     *
+     * @param plugin The plugin instance
+     */
+    public MinionManager(PowerMobsPlugin plugin) {
+        this.plugin = plugin;
+        this.minionOwnerKey = new NamespacedKey(plugin, "minion_owner");
+    }
+
+    /**
+     * Gets how many more minions can be summoned before the global budget is reached,
+     * counting minions that are still waiting to spawn
+     *
+     * @return The remaining minion budget
+     */
+    public int getRemainingBudget() {
+        int max = this.plugin.getConfigManager().getMaxSummonedMinions();
+        return Math.max(0, max - this.minions.size() - this.pendingSpawns.size());
+    }
+
+    /**
+     * Queues minions to be summoned in a circle around their owner.
+     * The count is capped by the remaining global budget and the minions are spawned over the next few ticks.
+     *
+     * @param owner  The summoning mob
+     * @param type   The minion entity type
+     * @param count  The number of minions requested
+     * @param health The minion health
+     * @param target The entity the minions should target, or null
+     * @return The number of minions queued
+     */
+    public int queueSummon(LivingEntity owner, EntityType type, int count, double health, LivingEntity target) {
+        int allowed = Math.min(count, getRemainingBudget());
+        if (allowed <= 0) {
+            this.plugin.debug("Minion budget reached, skipping summon for " + owner.getType(), "mob_combat");
+            return 0;
+        }
+
+        Location center = owner.getLocation();
+        for (int i = 0; i < allowed; i++) {
+            // Spread over the full requested circle so partial summons keep their spacing
+            double angle = 2 * Math.PI * i / count;
+            Location spawnLoc = new Location(center.getWorld(),
+                    center.getX() + 2 * Math.cos(angle),
+                    center.getY(),
+                    center.getZ() + 2 * Math.sin(angle));
+            this.pendingSpawns.add(new PendingMinion(owner, spawnLoc, type, health, target));
+        }
+
+        ensureTaskRunning();
+        return allowed;
+    }
+
+    /**
+     * Checks if an entity is a tracked minion
+     *
+     * @param entity The entity to check
+     * @return True if the entity is a minion
+     */
+    public boolean isMinion(Entity entity) {
+        return entity != null && this.minions.containsKey(entity.getUniqueId());
+    }
+
+    /**
+     * Gets the minions summoned by an owner
+     *
+     * @param ownerUuid The owner's entity UUID
+     * @return An unmodifiable set of minion entity UUIDs
+     */
+    public Set<UUID> getMinions(UUID ownerUuid) {
+        Set<UUID> owned = this.minionsByOwner.get(ownerUuid);
+        return owned != null ? Collections.unmodifiableSet(owned) : Collections.emptySet();
+    }
+
+    /**
+     * Gets the total number of tracked minions
+     *
+     * @return The minion count
+     */
+    public int getMinionCount() {
+        return this.minions.size();
+    }
+
+    /**
+     * Stops tracking a minion, for example after it died
+     *
+     * @param minionUuid The minion entity UUID
+     */
+    public void unregisterMinion(UUID minionUuid) {
+        MinionRecord record = this.minions.remove(minionUuid);
+        if (record == null) {
+            return;
+        }
+
+        Set<UUID> owned = this.minionsByOwner.get(record.ownerUuid());
+        if (owned != null) {
+            owned.remove(minionUuid);
+            if (owned.isEmpty()) {
+                this.minionsByOwner.remove(record.ownerUuid());
+                this.owners.remove(record.ownerUuid());
+            }
+        }
+    }
+
+    /**
+     * Despawns every minion of an owner and drops any of its queued summons
+     *
+     * @param ownerUuid The owner's entity UUID
+     */
+    public void despawnMinions(UUID ownerUuid) {
+        this.pendingSpawns.removeIf(pending -> pending.owner().getUniqueId().equals(ownerUuid));
+
+        Set<UUID> owned = this.minionsByOwner.remove(ownerUuid);
+        this.owners.remove(ownerUuid);
+        if (owned == null) {
+            return;
+        }
+
+        for (UUID minionUuid : owned) {
+            MinionRecord record = this.minions.remove(minionUuid);
+            if (record != null && record.entity().isValid()) {
+                record.entity().remove();
+            }
+        }
+        this.plugin.debug("Despawned " + owned.size() + " minions of " + ownerUuid, "cleanup");
+    }
+
+    /**
+     * Despawns all minions and stops the summon task
+     */
+    public void shutdown() {
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+        this.pendingSpawns.clear();
+        for (UUID ownerUuid : new ArrayList<>(this.minionsByOwner.keySet())) {
+            despawnMinions(ownerUuid);
+        }
+    }
+
+    private void ensureTaskRunning() {
+        if (this.task == null) {
+            this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        for (int i = 0; i < MAX_SPAWNS_PER_TICK && !this.pendingSpawns.isEmpty(); i++) {
+            spawnMinion(this.pendingSpawns.poll());
+        }
+
+        if (++this.ticks % ORPHAN_SWEEP_INTERVAL_TICKS == 0) {
+            sweepOrphans();
+        }
+
+        if (this.pendingSpawns.isEmpty() && this.minions.isEmpty()) {
+            this.task.cancel();
+            this.task = null;
+        }
+    }
+
+    private void spawnMinion(PendingMinion pending) {
+        LivingEntity owner = pending.owner();
+        Location spawnLoc = pending.location();
+        if (!owner.isValid() || owner.isDead() || spawnLoc.getWorld() == null) {
+            return;
+        }
+
+        LivingEntity minion = (LivingEntity) spawnLoc.getWorld().spawnEntity(spawnLoc, pending.type(), CreatureSpawnEvent.SpawnReason.CUSTOM);
+        // Minions are never saved with the chunk, so they cannot outlive the index
+        minion.setPersistent(false);
+
+        if (minion.getAttribute(Attribute.MAX_HEALTH) != null) {
+            Objects.requireNonNull(minion.getAttribute(Attribute.MAX_HEALTH)).setBaseValue(pending.health());
+            minion.setHealth(pending.health());
+        }
+
+        // Tag the owner to prevent friendly targeting or for later logic
+        minion.getPersistentDataContainer().set(this.minionOwnerKey, PersistentDataType.STRING, owner.getUniqueId().toString());
+
+        LivingEntity target = pending.target();
+        if (minion instanceof Mob mob && target != null && target.isValid()) {
+            mob.setTarget(target);
+        }
+
+        UUID ownerUuid = owner.getUniqueId();
+        this.minions.put(minion.getUniqueId(), new MinionRecord(minion.getUniqueId(), ownerUuid, minion));
+        this.minionsByOwner.computeIfAbsent(ownerUuid, k -> new HashSet<>()).add(minion.getUniqueId());
+        this.owners.put(ownerUuid, owner);
+
+        this.plugin.getParticleEmitter().spawn(spawnLoc, Particle.LARGE_SMOKE, 10, 0.5, 0.5, 0.5, 0.1);
+        spawnLoc.getWorld().playSound(spawnLoc, Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 0.5f);
+    }
+
+    /**
+     * Despawns minions whose owner is gone and forgets minions that no longer exist
+     */
+    private void sweepOrphans() {
+        for (Map.Entry<UUID, LivingEntity> entry : new ArrayList<>(this.owners.entrySet())) {
+            LivingEntity owner = entry.getValue();
+            if (!owner.isValid() || owner.isDead()) {
+                despawnMinions(entry.getKey());
+            }
+        }
+
+        for (MinionRecord record : new ArrayList<>(this.minions.values())) {
+            if (!record.entity().isValid()) {
+                unregisterMinion(record.minionUuid());
+            }
+        }
+    }
+
+    /**
+     * A summoned minion and the mob that owns it
+     */
+    public record MinionRecord(UUID minionUuid, UUID ownerUuid, LivingEntity entity) {
+    }
+
+    /**
+     * A minion waiting to be spawned
+     */
+    private record PendingMinion(LivingEntity owner, Location location, EntityType type, double health, LivingEntity target) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.powermobs.mobs;
+
+import java.util.Arrays;
+
+/**
+ * Holds hot per-mob ability state in primitive arrays.
+ * Each registered power mob owns a dense slot, recycled after it is unregistered,
+ * and each ability owns a stable ordinal assigned by the ability manager.
+ * Values live at {@code slot * stride + ordinal}.
+ */
+public class MobStateStore {
+
+    /**
+     * Set while the mob has the ability
+     */
+    public static final byte FLAG_HAS_ABILITY = 1;
+
+    private static final int INITIAL_SLOTS = 64;
+    private static final int INITIAL_STRIDE = 16;
+
+    private int stride = INITIAL_STRIDE;
+    private int capacity = INITIAL_SLOTS;
+    // Cooldown deadline per (slot, ability) in epoch milliseconds, 0 when not on cooldown
+    private long[] cooldownDeadlines = new long[INITIAL_SLOTS * INITIAL_STRIDE];
+    private byte[] abilityFlags = new byte[INITIAL_SLOTS * INITIAL_STRIDE];
+
+    // Released slots are reused before new ones are handed out
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    private int nextSlot = 0;
+
+    /**
+     * Hands out a slot for a newly registered mob
+     *
+     * @return The slot
+     */
+    public int allocateSlot() {
+        if (this.freeCount > 0) {
+            return this.freeSlots[--this.freeCount];
+        }
+        if (this.nextSlot == this.capacity) {
+            resize(this.capacity * 2, this.stride);
+        }
+        return this.nextSlot++;
+    }
+
+    /**
+     * Clears a slot and makes it available for reuse
+     *
+     * @param slot The slot of the unregistered mob
+     */
+    public void releaseSlot(int slot) {
+        if (slot < 0 || slot >= this.nextSlot) {
+            return;
+        }
+        int base = slot * this.stride;
+        Arrays.fill(this.cooldownDeadlines, base, base + this.stride, 0L);
+        Arrays.fill(this.abilityFlags, base, base + this.stride, (byte) 0);
+
+        if (this.freeCount == this.freeSlots.length) {
+            this.freeSlots = Arrays.copyOf(this.freeSlots, this.freeCount * 2);
+        }
+        this.freeSlots[this.freeCount++] = slot;
+    }
+
+    /**
+     * Checks if an ability is still on cooldown for a mob
+     *
+     * @param slot    The mob slot
+     * @param ordinal The ability ordinal
+     * @param now     The current time in milliseconds
+     * @return True if the cooldown has not elapsed yet
+     */
+    public boolean isOnCooldown(int slot, int ordinal, long now) {
+        if (!inBounds(slot, ordinal)) {
+            return false;
+        }
+        return now < this.cooldownDeadlines[slot * this.stride + ordinal];
+    }
+
+    /**
+     * Sets the time an ability comes off cooldown for a mob
+     *
+     * @param slot     The mob slot
+     * @param ordinal  The ability ordinal
+     * @param deadline The time in milliseconds when the ability can be used again, or 0 to clear it
+     */
+    public void setCooldownDeadline(int slot, int ordinal, long deadline) {
+        if (slot < 0 || ordinal < 0) {
+            return;
+        }
+        ensureStride(ordinal);
+        this.cooldownDeadlines[slot * this.stride + ordinal] = deadline;
+    }
+
+    /**
+     * Checks if a flag is set for an ability of a mob
+     *
+     * @param slot    The mob slot
+     * @param ordinal The ability ordinal
+     * @param flag    The flag bit
+     * @return True if the flag is set
+     */
+    public boolean hasFlag(int slot, int ordinal, byte flag) {
+        if (!inBounds(slot, ordinal)) {
+            return false;
+        }
+        return (this.abilityFlags[slot * this.stride + ordinal] & flag) != 0;
+    }
+
+    /**
+     * Sets or clears a flag for an ability of a mob
+     *
+     * @param slot    The mob slot
+     * @param ordinal The ability ordinal
+     * @param flag    The flag bit
+     * @param value   Whether the flag should be set
+     */
+    public void setFlag(int slot, int ordinal, byte flag, boolean value) {
+        if (slot < 0 || ordinal < 0) {
+            return;
+        }
+        ensureStride(ordinal);
+        int index = slot * this.stride + ordinal;
+        this.abilityFlags[index] = (byte) (value ? this.abilityFlags[index] | flag : this.abilityFlags[index] & ~flag);
+    }
+
+    /**
+     * Gets the number of slots in use
+     *
+     * @return The active slot count
+     */
+    public int getActiveSlots() {
+        return this.nextSlot - this.freeCount;
+    }
+
+    private boolean inBounds(int slot, int ordinal) {
+        return slot >= 0 && slot < this.nextSlot && ordinal >= 0 && ordinal < this.stride;
+    }
+
+    private void ensureStride(int ordinal) {
+        if (ordinal >= this.stride) {
+            resize(this.capacity, Math.max(this.stride * 2, ordinal + 1));
+        }
+    }
+
+    private void resize(int newCapacity, int newStride) {
+        long[] newDeadlines = new long[newCapacity * newStride];
+        byte[] newFlags = new byte[newCapacity * newStride];
+        for (int slot = 0; slot < this.nextSlot; slot++) {
+            System.arraycopy(this.cooldownDeadlines, slot * this.stride, newDeadlines, slot * newStride, this.stride);
+            System.arraycopy(this.abilityFlags, slot * this.stride, newFlags, slot * newStride, this.stride);
+        }
+        this.cooldownDeadlines = newDeadlines;
+        this.abilityFlags = newFlags;
+        this.capacity = newCapacity;
+        this.stride = newStride;
+    }
+}
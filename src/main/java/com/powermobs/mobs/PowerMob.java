@@ -3,6 +3,7 @@ package com.powermobs.mobs;
 import com.powermobs.PowerMobsPlugin;
 import com.powermobs.config.IPowerMobConfig;
 import com.powermobs.mobs.abilities.Ability;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.ChatColor;
 import org.bukkit.attribute.Attribute;
@@ -36,6 +37,12 @@ public class PowerMob {
     private final List<Ability> abilities = new ArrayList<>();
     private final Map<String, Map<String, Object>> abilitySettings;
 
+    // Slot in the mob state store, allocated on first use and released on unregister
+    @Getter(AccessLevel.NONE)
+    private int stateSlot = -1;
+    @Getter(AccessLevel.NONE)
+    private boolean stateReleased = false;
+
     /**
      * Creates a new power mob
      *
@@ -289,6 +296,7 @@ public class PowerMob {
      */
     public void addAbility(Ability ability) {
         this.abilities.add(ability);
+        getStateStore().setFlag(getStateSlot(), ability.getOrdinal(), MobStateStore.FLAG_HAS_ABILITY, true);
         ability.apply(this);
     }
 
@@ -298,10 +306,76 @@ public class PowerMob {
     public void removeAbilities() {
         for (Ability ability : this.abilities) {
             ability.remove(this);
+            getStateStore().setFlag(getStateSlot(), ability.getOrdinal(), MobStateStore.FLAG_HAS_ABILITY, false);
         }
         this.abilities.clear();
     }
 
+    /**
+     * Checks if the mob has an ability
+     *
+     * @param ability The ability to check
+     * @return True if the ability was added to the mob
+     */
+    public boolean hasAbility(Ability ability) {
+        return getStateStore().hasFlag(getStateSlot(), ability.getOrdinal(), MobStateStore.FLAG_HAS_ABILITY);
+    }
+
+    /**
+     * Checks if an ability is on cooldown for this mob
+     *
+     * @param ability The ability to check
+     * @return True if the ability cannot be used yet
+     */
+    public boolean isAbilityOnCooldown(Ability ability) {
+        return getStateStore().isOnCooldown(getStateSlot(), ability.getOrdinal(), System.currentTimeMillis());
+    }
+
+    /**
+     * Puts an ability on cooldown for this mob
+     *
+     * @param ability        The ability used
+     * @param cooldownMillis The cooldown in milliseconds
+     */
+    public void startAbilityCooldown(Ability ability, long cooldownMillis) {
+        getStateStore().setCooldownDeadline(getStateSlot(), ability.getOrdinal(), System.currentTimeMillis() + cooldownMillis);
+    }
+
+    /**
+     * Clears the cooldown of an ability for this mob
+     *
+     * @param ability The ability
+     */
+    public void clearAbilityCooldown(Ability ability) {
+        getStateStore().setCooldownDeadline(getStateSlot(), ability.getOrdinal(), 0L);
+    }
+
+    /**
+     * Releases this mob's slot in the state store. Called when the mob is unregistered.
+     */
+    public void releaseState() {
+        if (this.stateReleased) {
+            return;
+        }
+        this.stateReleased = true;
+        if (this.stateSlot >= 0) {
+            getStateStore().releaseSlot(this.stateSlot);
+            this.stateSlot = -1;
+        }
+    }
+
+    private int getStateSlot() {
+        // Abilities are applied before the mob is registered, so the slot is allocated lazily
+        if (this.stateSlot < 0 && !this.stateReleased) {
+            this.stateSlot = getStateStore().allocateSlot();
+        }
+        return this.stateSlot;
+    }
+
+    private MobStateStore getStateStore() {
+        return this.plugin.getPowerMobManager().getStateStore();
+    }
+
     /**
      * Checks if the entity is valid (not dead or removed)
      *
@@ -319,6 +393,7 @@ public class PowerMob {
         plugin.getSpawnTimerManager().cancelDespawnTask(this);
 
         removeAbilities();
+        plugin.getMinionManager().despawnMinions(getEntityUuid());
         if (isValid()) {
             this.entity.removeMetadata(POWER_MOB_KEY, this.plugin);
         }
@@ -27,6 +27,9 @@ public class PowerMobManager {
     @Getter
     private final PowerMobFactory factory;
 
+    @Getter
+    private final MobStateStore stateStore = new MobStateStore();
+
     /**
      * Creates a new power mob manager
      *
@@ -54,6 +57,8 @@ public class PowerMobManager {
      */
     public void unregisterPowerMob(PowerMob powerMob) {
         this.powerMobs.remove(powerMob.getPowerMobUuid());
+        powerMob.releaseState();
+        this.plugin.getDamageTracker().cleanupMob(powerMob.getEntityUuid());
     }
 
     /**
@@ -17,6 +17,14 @@ public interface Ability {
      */
     String getId();
 
+    /**
+     * Gets the dense index of the ability, used to address per-mob state.
+     * Assigned by the ability manager when the ability is registered.
+     *
+     * @return The ability ordinal, or -1 if the ability is not registered
+     */
+    int getOrdinal();
+
     /**
      * Applies the ability to a power mob
      *
@@ -31,6 +39,14 @@ public interface Ability {
      */
     void remove(PowerMob powerMob);
 
+    /**
+     * Releases any resources shared by all mobs using this ability, such as
+     * global tasks or blocks placed in the world. Called when abilities are
+     * unloaded or the plugin is disabled.
+     */
+    default void shutdown() {
+    }
+
     /**
      * The name to identify the ability by
      *
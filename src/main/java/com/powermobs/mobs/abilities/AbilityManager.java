@@ -18,6 +18,8 @@ public class AbilityManager {
 
     private final PowerMobsPlugin plugin;
     private final Map<String, Ability> abilities = new HashMap<>();
+    // Ability ID -> ordinal; never cleared so ordinals stay stable across reloads
+    private final Map<String, Integer> ordinals = new HashMap<>();
 
     /**
      * Loads all abilities from the configuration
@@ -46,6 +48,9 @@ public class AbilityManager {
      * @param ability The ability to register
      */
     public void registerAbility(Ability ability) {
+        if (ability instanceof AbstractAbility abstractAbility) {
+            abstractAbility.setOrdinal(this.ordinals.computeIfAbsent(ability.getId(), k -> this.ordinals.size()));
+        }
         this.abilities.put(ability.getId(), ability);
     }
 
@@ -56,16 +61,20 @@ public class AbilityManager {
      */
     public void unregisterAbility(String id) {
         Ability removed = this.abilities.remove(id);
+        if (removed != null) {
+            removed.shutdown();
+        }
         if (removed instanceof Listener listener) {
             HandlerList.unregisterAll(listener);
         }
     }
 
     /**
-     * Unloads all abilities and unregisters any listeners they own.
+     * Unloads all abilities, shuts down their shared resources and unregisters any listeners they own.
      */
     public void unloadAbilities() {
         for (Ability ability : this.abilities.values()) {
+            ability.shutdown();
             if (ability instanceof Listener listener) {
                 HandlerList.unregisterAll(listener);
             }
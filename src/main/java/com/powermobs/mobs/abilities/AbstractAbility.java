@@ -14,6 +14,9 @@ public abstract class AbstractAbility implements Ability {
     @Getter
     protected final String id;
 
+    @Getter
+    private int ordinal = -1;
+
     /**
      * Creates a new ability
      *
@@ -24,4 +27,13 @@ public abstract class AbstractAbility implements Ability {
         this.plugin = plugin;
         this.id = id;
     }
+
+    /**
+     * Sets the ordinal assigned by the ability manager
+     *
+     * @param ordinal The ability ordinal
+     */
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
 }
\ No newline at end of file
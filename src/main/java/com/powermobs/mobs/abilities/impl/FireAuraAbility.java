@@ -1,5 +1,8 @@
 package com.powermobs.mobs.abilities.impl;
 
+import com.destroystokyo.paper.entity.ai.Goal;
+import com.destroystokyo.paper.entity.ai.GoalKey;
+import com.destroystokyo.paper.entity.ai.GoalType;
 import com.powermobs.PowerMobsPlugin;
 import com.powermobs.mobs.PowerMob;
 import com.powermobs.mobs.abilities.AbilityConfigField;
@@ -8,10 +11,11 @@ import com.powermobs.utils.MobTargetingUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.Particle;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
-import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.entity.Mob;
 
 import java.util.*;
 
@@ -20,6 +24,8 @@ import java.util.*;
  */
 public class FireAuraAbility extends AbstractAbility {
 
+    private static final int GOAL_PRIORITY = 4;
+
     private final String title = "Fire Aura";
     private final String description = "Ignites entities within the aura.";
     private final Material material = Material.CAMPFIRE;
@@ -27,7 +33,7 @@ public class FireAuraAbility extends AbstractAbility {
     private final double defaultDamage = 1.0;
     private final int defaultTickRate = 20;
     private final int defaultDuration = 5;
-    private final Map<UUID, BukkitTask> tasks = new HashMap<>();
+    private final GoalKey<Mob> goalKey = GoalKey.of(Mob.class, new NamespacedKey(plugin, "fire_aura"));
 
     /**
      * Creates a new fire aura ability
@@ -40,67 +46,58 @@ public class FireAuraAbility extends AbstractAbility {
 
     @Override
     public void apply(PowerMob powerMob) {
-        UUID entityUuid = powerMob.getEntityUuid();
+        if (!(powerMob.getEntity() instanceof Mob mob)) {
+            return;
+        }
 
         final double radius = powerMob.getAbilityDouble(this.id, "radius", this.defaultRadius);
         final double damage = powerMob.getAbilityDouble(this.id, "damage", this.defaultDamage);
         final int tickRate = powerMob.getAbilityInt(this.id, "tick-rate", this.defaultTickRate);
         final int durationSeconds = powerMob.getAbilityInt(this.id, "duration", this.defaultDuration);
 
-        // Cancel existing task if it exists
-        if (this.tasks.containsKey(entityUuid)) {
-            this.tasks.get(entityUuid).cancel();
-        }
-
-        // Create a new task
-        BukkitTask task = Bukkit.getScheduler().runTaskTimer(this.plugin, () -> {
-            if (!powerMob.isValid()) {
-                remove(powerMob);
-                return;
-            }
-
-            // Get entities in radius
-            Location location = powerMob.getEntity().getLocation();
-            for (Entity entity : location.getWorld().getNearbyEntities(location, radius, radius, radius)) {
-                if (entity instanceof LivingEntity &&
-                        entity.getUniqueId() != powerMob.getEntityUuid() &&
-                        entity.getLocation().distance(location) <= radius) {
-
-                    // Only target players and their allied entities
-                    if (MobTargetingUtil.shouldAllowTargeting(this.plugin, powerMob.getEntity(), entity)) {
-                        // Set entity on fire and damage it
-                        entity.setFireTicks(durationSeconds * 20);
-                        ((LivingEntity) entity).damage(damage, powerMob.getEntity());
-                    }
-
-                }
-            }
-
-            // Show particles
-            location.getWorld().spawnParticle(
-                    Particle.FLAME,
-                    location,
-                    20,
-                    radius / 2,
-                    0.5,
-                    radius / 2,
-                    0.01
-            );
-
-        }, 0, tickRate);
-
-        this.tasks.put(entityUuid, task);
+        // Replace the existing goal if it exists
+        Bukkit.getMobGoals().removeGoal(mob, this.goalKey);
+        Bukkit.getMobGoals().addGoal(mob, GOAL_PRIORITY, new FireAuraGoal(powerMob, mob, radius, damage, tickRate, durationSeconds));
     }
 
-
     @Override
     public void remove(PowerMob powerMob) {
-        UUID entityUuid = powerMob.getEntityUuid();
+        if (powerMob.getEntity() instanceof Mob mob) {
+            Bukkit.getMobGoals().removeGoal(mob, this.goalKey);
+        }
+    }
+
+    /**
+     * Ignites and damages the entities within the aura
+     */
+    private void pulse(PowerMob powerMob, double radius, double damage, int durationSeconds) {
+        // Get entities in radius
+        Location location = powerMob.getEntity().getLocation();
+        for (Entity entity : location.getWorld().getNearbyEntities(location, radius, radius, radius)) {
+            if (entity instanceof LivingEntity &&
+                    entity.getUniqueId() != powerMob.getEntityUuid() &&
+                    entity.getLocation().distance(location) <= radius) {
+
+                // Only target players and their allied entities
+                if (MobTargetingUtil.shouldAllowTargeting(this.plugin, powerMob.getEntity(), entity)) {
+                    // Set entity on fire and damage it
+                    entity.setFireTicks(durationSeconds * 20);
+                    ((LivingEntity) entity).damage(damage, powerMob.getEntity());
+                }
 
-        if (this.tasks.containsKey(entityUuid)) {
-            this.tasks.get(entityUuid).cancel();
-            this.tasks.remove(entityUuid);
+            }
         }
+
+        // Show particles
+        this.plugin.getParticleEmitter().spawn(
+                location,
+                Particle.FLAME,
+                20,
+                radius / 2,
+                0.5,
+                radius / 2,
+                0.01
+        );
     }
 
     @Override
@@ -132,4 +129,58 @@ public class FireAuraAbility extends AbstractAbility {
         m.put("duration", AbilityConfigField.integer("duration", defaultDuration, "Fire duration in seconds"));
         return m;
     }
-}
\ No newline at end of file
+
+    /**
+     * Mob goal that pulses the aura every few ticks while the mob is being ticked
+     */
+    private class FireAuraGoal implements Goal<Mob> {
+
+        private final PowerMob powerMob;
+        private final Mob mob;
+        private final double radius;
+        private final double damage;
+        private final int tickRate;
+        private final int durationSeconds;
+        private int nextPulseTick = 0;
+
+        private FireAuraGoal(PowerMob powerMob, Mob mob, double radius, double damage, int tickRate, int durationSeconds) {
+            this.powerMob = powerMob;
+            this.mob = mob;
+            this.radius = radius;
+            this.damage = damage;
+            this.tickRate = Math.max(1, tickRate);
+            this.durationSeconds = durationSeconds;
+        }
+
+        @Override
+        public boolean shouldActivate() {
+            return true;
+        }
+
+        @Override
+        public boolean shouldStayActive() {
+            return true;
+        }
+
+        @Override
+        public void tick() {
+            // Paced by the mob's own age, so the rate holds however often the goal selector ticks us
+            if (this.mob.getTicksLived() < this.nextPulseTick) {
+                return;
+            }
+            this.nextPulseTick = this.mob.getTicksLived() + this.tickRate;
+            pulse(this.powerMob, this.radius, this.damage, this.durationSeconds);
+        }
+
+        @Override
+        public GoalKey<Mob> getKey() {
+            return FireAuraAbility.this.goalKey;
+        }
+
+        @Override
+        public EnumSet<GoalType> getTypes() {
+            // The aura does not take over movement or looking, so it never blocks the vanilla goals
+            return EnumSet.noneOf(GoalType.class);
+        }
+    }
+}
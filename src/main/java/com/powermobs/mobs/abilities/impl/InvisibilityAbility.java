@@ -28,7 +28,6 @@ public class InvisibilityAbility extends AbstractAbility implements Listener {
     private final double defaultHealthThreshold = 0.3;
     private final int defaultDuration = 10;
     private final int defaultCooldown = 60;
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
 
     /**
      * Creates a new invisibility ability
@@ -49,7 +48,7 @@ public class InvisibilityAbility extends AbstractAbility implements Listener {
 
     @Override
     public void remove(PowerMob powerMob) {
-        this.cooldowns.remove(powerMob.getEntityUuid());
+        powerMob.clearAbilityCooldown(this);
 
         // Remove invisibility if it's active
         powerMob.getEntity().removePotionEffect(PotionEffectType.INVISIBILITY);
@@ -97,10 +96,7 @@ public class InvisibilityAbility extends AbstractAbility implements Listener {
         }
 
         // Check if the mob has this ability
-        boolean hasAbility = powerMob.getAbilities().stream()
-                .anyMatch(ability -> ability.getId().equals(this.id));
-
-        if (!hasAbility) {
+        if (!powerMob.hasAbility(this)) {
             return;
         }
 
@@ -109,11 +105,8 @@ public class InvisibilityAbility extends AbstractAbility implements Listener {
         final int cooldownSeconds = powerMob.getAbilityInt(this.id, "cooldown", this.defaultCooldown);
 
         // Check cooldown
-        if (this.cooldowns.containsKey(powerMob.getEntityUuid())) {
-            long lastUse = this.cooldowns.get(powerMob.getEntityUuid());
-            if (System.currentTimeMillis() - lastUse < cooldownSeconds * 1000L) {
-                return;
-            }
+        if (powerMob.isAbilityOnCooldown(this)) {
+            return;
         }
 
         // Calculate damage and new health
@@ -138,9 +131,9 @@ public class InvisibilityAbility extends AbstractAbility implements Listener {
 
             // Show particles
             if (entity.getLocation().getWorld() != null) {
-                entity.getLocation().getWorld().spawnParticle(
-                        Particle.SMOKE,
+                this.plugin.getParticleEmitter().spawn(
                         entity.getLocation().add(0, 1, 0),
+                        Particle.SMOKE,
                         20,
                         0.5,
                         0.5,
@@ -150,7 +143,7 @@ public class InvisibilityAbility extends AbstractAbility implements Listener {
             }
 
             // Set cooldown
-            this.cooldowns.put(powerMob.getEntityUuid(), System.currentTimeMillis());
+            powerMob.startAbilityCooldown(this, cooldownSeconds * 1000L);
         }
     }
 }
\ No newline at end of file
@@ -14,10 +14,8 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.util.Vector;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 public class LaunchpadAbility extends AbstractAbility implements Listener {
     private final String title = "Launchpad";
@@ -26,7 +24,6 @@ public class LaunchpadAbility extends AbstractAbility implements Listener {
     private final double defaultChance = 0.15;
     private final int defaultPower = 2;
     private final int defaultCooldown = 4;
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
 
     public LaunchpadAbility(PowerMobsPlugin plugin) {
         super(plugin, "launchpad");
@@ -55,8 +52,7 @@ public class LaunchpadAbility extends AbstractAbility implements Listener {
 
     @Override
     public void remove(PowerMob powerMob) {
-        UUID mobUuid = powerMob.getEntityUuid();
-        this.cooldowns.remove(mobUuid);
+        powerMob.clearAbilityCooldown(this);
     }
 
     @Override
@@ -92,9 +88,7 @@ public class LaunchpadAbility extends AbstractAbility implements Listener {
         }
 
         // Check if the mob has this ability
-        boolean hasAbility = powerMob.getAbilities().stream()
-                .anyMatch(ability -> ability.getId().equals(this.id));
-        if (!hasAbility) {
+        if (!powerMob.hasAbility(this)) {
             return;
         }
 
@@ -103,12 +97,8 @@ public class LaunchpadAbility extends AbstractAbility implements Listener {
         final int cooldownSeconds = powerMob.getAbilityInt(this.id, "cooldown", this.defaultCooldown);
 
         // Check cooldown
-        UUID mobUuid = powerMob.getEntityUuid();
-        if (this.cooldowns.containsKey(mobUuid)) {
-            long lastUse = this.cooldowns.get(mobUuid);
-            if (System.currentTimeMillis() - lastUse < cooldownSeconds * 1000L) {
-                return;
-            }
+        if (powerMob.isAbilityOnCooldown(this)) {
+            return;
         }
 
         if (Math.random() > chance) {
@@ -123,7 +113,7 @@ public class LaunchpadAbility extends AbstractAbility implements Listener {
 
         // Launch the entity into the air
         target.setVelocity(new Vector(0, power, 0));
-        this.cooldowns.put(mobUuid, System.currentTimeMillis());
+        powerMob.startAbilityCooldown(this, cooldownSeconds * 1000L);
 
     }
 
@@ -1,5 +1,8 @@
 package com.powermobs.mobs.abilities.impl;
 
+import com.destroystokyo.paper.entity.ai.Goal;
+import com.destroystokyo.paper.entity.ai.GoalKey;
+import com.destroystokyo.paper.entity.ai.GoalType;
 import com.powermobs.PowerMobsPlugin;
 import com.powermobs.mobs.PowerMob;
 import com.powermobs.mobs.abilities.AbilityConfigField;
@@ -7,31 +10,34 @@ import com.powermobs.mobs.abilities.AbstractAbility;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Mob;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.Vector;
 
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Ability that makes a mob leap at its target
  */
 public class LeapAbility extends AbstractAbility {
 
+    // Ahead of the vanilla melee and ranged attack goals (2 and up), which hold MOVE for the whole fight;
+    // a running goal only gives its flags up to a goal with a lower priority number
+    private static final int GOAL_PRIORITY = 1;
+    private static final int CHECK_INTERVAL_TICKS = 10;
+
     private final String title = "Leap";
     private final String description = "Leaps towards a nearby player.";
     private final Material material = Material.PISTON;
     private final double defaultHeight = 0.55;
     private final double defaultForward = 1.2;
     private final int defaultCooldown = 8;
-    private final Map<UUID, BukkitTask> tasks = new HashMap<>();
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
+    private final GoalKey<Mob> goalKey = GoalKey.of(Mob.class, new NamespacedKey(plugin, "leap"));
 
     /**
      * Creates a new leap ability
@@ -44,102 +50,26 @@ public class LeapAbility extends AbstractAbility {
 
     @Override
     public void apply(PowerMob powerMob) {
-        UUID entityUuid = powerMob.getEntityUuid();
+        if (!(powerMob.getEntity() instanceof Mob mob)) {
+            return;
+        }
 
         final double height = powerMob.getAbilityDouble(this.id, "height", this.defaultHeight);
         final double forward = powerMob.getAbilityDouble(this.id, "forward", this.defaultForward);
         final int cooldownSeconds = powerMob.getAbilityInt(this.id, "cooldown", this.defaultCooldown);
 
-        // Cancel existing task if it exists
-        if (this.tasks.containsKey(entityUuid)) {
-            this.tasks.get(entityUuid).cancel();
-        }
-
-        // Create a new task that checks for targets and leaps
-        BukkitTask task = Bukkit.getScheduler().runTaskTimer(this.plugin, () -> {
-            if (!powerMob.isValid()) {
-                remove(powerMob);
-                return;
-            }
-
-            // Check cooldown
-            if (this.cooldowns.containsKey(entityUuid)) {
-                long lastUse = this.cooldowns.get(entityUuid);
-                if (System.currentTimeMillis() - lastUse < cooldownSeconds * 1000L) {
-                    return;
-                }
-            }
-
-            // Get the entity
-            LivingEntity entity = powerMob.getEntity();
-            if (!(entity instanceof Mob mob)) {
-                return;
-            }
-
-            // Check if the mob has a target
-            LivingEntity target = mob.getTarget();
-            if (target == null) {
-                // Try to find a nearby player
-                Player nearestPlayer = null;
-                double nearestDistance = Double.MAX_VALUE;
-
-                for (Entity nearby : entity.getNearbyEntities(10, 5, 10)) {
-                    if (nearby instanceof Player player) {
-                        // Only target players in SURVIVAL or ADVENTURE mode
-                        if (player.getGameMode() == GameMode.SURVIVAL || player.getGameMode() == GameMode.ADVENTURE) {
-                            double distance = nearby.getLocation().distance(entity.getLocation());
-                            if (distance < nearestDistance) {
-                                nearestPlayer = player;
-                                nearestDistance = distance;
-                            }
-                        }
-                    }
-                }
-
-                if (nearestPlayer != null) {
-                    target = nearestPlayer;
-                    mob.setTarget(nearestPlayer);
-                } else {
-                    return;
-                }
-            }
-
-            // Check if the target is in range (between 3 and 10 blocks)
-            double distance = target.getLocation().distance(entity.getLocation());
-            if (distance < 3 || distance > 10) {
-                return;
-            }
-
-            // Check if we have a clear line of sight
-            if (!mob.hasLineOfSight(target)) {
-                return;
-            }
-
-            // Calculate leap vector
-            Vector direction = target.getLocation().toVector().subtract(entity.getLocation().toVector());
-            direction.normalize().multiply(forward).setY(height);
-
-            // Apply the velocity
-            entity.setVelocity(direction);
-
-            // Set cooldown
-            this.cooldowns.put(entityUuid, System.currentTimeMillis());
-
-        }, 20, 10);
-
-        this.tasks.put(entityUuid, task);
+        // Replace the existing goal if it exists
+        Bukkit.getMobGoals().removeGoal(mob, this.goalKey);
+        Bukkit.getMobGoals().addGoal(mob, GOAL_PRIORITY, new LeapGoal(powerMob, mob, height, forward, cooldownSeconds));
     }
 
     @Override
     public void remove(PowerMob powerMob) {
-        UUID entityUuid = powerMob.getEntityUuid();
-
-        if (this.tasks.containsKey(entityUuid)) {
-            this.tasks.get(entityUuid).cancel();
-            this.tasks.remove(entityUuid);
+        if (powerMob.getEntity() instanceof Mob mob) {
+            Bukkit.getMobGoals().removeGoal(mob, this.goalKey);
         }
 
-        this.cooldowns.remove(entityUuid);
+        powerMob.clearAbilityCooldown(this);
     }
 
     @Override
@@ -170,4 +100,118 @@ public class LeapAbility extends AbstractAbility {
                 "cooldown", AbilityConfigField.integer("cooldown", this.defaultCooldown, "Cooldown in seconds")
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Mob goal that leaps at the target. Runs alongside the vanilla AI, so it is
+     * skipped whenever the server is not ticking the mob.
+     */
+    private class LeapGoal implements Goal<Mob> {
+
+        private final PowerMob powerMob;
+        private final Mob mob;
+        private final double height;
+        private final double forward;
+        private final int cooldownSeconds;
+        private int nextCheckTick = 0;
+
+        private LeapGoal(PowerMob powerMob, Mob mob, double height, double forward, int cooldownSeconds) {
+            this.powerMob = powerMob;
+            this.mob = mob;
+            this.height = height;
+            this.forward = forward;
+            this.cooldownSeconds = cooldownSeconds;
+        }
+
+        @Override
+        public boolean shouldActivate() {
+            // The goal selector polls every other tick, leap checks only need to run a couple of times per second
+            if (this.mob.getTicksLived() < this.nextCheckTick) {
+                return false;
+            }
+            this.nextCheckTick = this.mob.getTicksLived() + CHECK_INTERVAL_TICKS;
+
+            // Check cooldown
+            if (this.powerMob.isAbilityOnCooldown(LeapAbility.this)) {
+                return false;
+            }
+
+            LivingEntity target = findTarget();
+            if (target == null) {
+                return false;
+            }
+
+            // Check if the target is in range (between 3 and 10 blocks)
+            double distance = target.getLocation().distance(this.mob.getLocation());
+            if (distance < 3 || distance > 10) {
+                return false;
+            }
+
+            // Check if we have a clear line of sight
+            return this.mob.hasLineOfSight(target);
+        }
+
+        @Override
+        public boolean shouldStayActive() {
+            // Hold the movement controls until the mob lands
+            return !this.mob.isOnGround();
+        }
+
+        @Override
+        public void start() {
+            LivingEntity target = this.mob.getTarget();
+            if (target == null) {
+                return;
+            }
+
+            // Calculate leap vector
+            Vector direction = target.getLocation().toVector().subtract(this.mob.getLocation().toVector());
+            direction.normalize().multiply(this.forward).setY(this.height);
+
+            // Apply the velocity
+            this.mob.setVelocity(direction);
+
+            // Set cooldown
+            this.powerMob.startAbilityCooldown(LeapAbility.this, this.cooldownSeconds * 1000L);
+        }
+
+        private LivingEntity findTarget() {
+            // Check if the mob has a target
+            LivingEntity target = this.mob.getTarget();
+            if (target != null) {
+                return target;
+            }
+
+            // Try to find a nearby player
+            Player nearestPlayer = null;
+            double nearestDistance = Double.MAX_VALUE;
+
+            for (Entity nearby : this.mob.getNearbyEntities(10, 5, 10)) {
+                if (nearby instanceof Player player) {
+                    // Only target players in SURVIVAL or ADVENTURE mode
+                    if (player.getGameMode() == GameMode.SURVIVAL || player.getGameMode() == GameMode.ADVENTURE) {
+                        double distance = nearby.getLocation().distance(this.mob.getLocation());
+                        if (distance < nearestDistance) {
+                            nearestPlayer = player;
+                            nearestDistance = distance;
+                        }
+                    }
+                }
+            }
+
+            if (nearestPlayer != null) {
+                this.mob.setTarget(nearestPlayer);
+            }
+            return nearestPlayer;
+        }
+
+        @Override
+        public GoalKey<Mob> getKey() {
+            return LeapAbility.this.goalKey;
+        }
+
+        @Override
+        public EnumSet<GoalType> getTypes() {
+            return EnumSet.of(GoalType.MOVE, GoalType.JUMP);
+        }
+    }
+}
@@ -17,10 +17,8 @@ import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.projectiles.ProjectileSource;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Ability that summons lightning when the mob attacks
@@ -36,7 +34,6 @@ public class LightningStrikeAbility extends AbstractAbility implements Listener
     private final double defaultDamageMultiplier = 1.0;
     private final boolean defaultRealLighting = false;
     private final int defaultCooldown = 7;
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
 
     /**
      * Creates a new lightning strike ability
@@ -57,7 +54,7 @@ public class LightningStrikeAbility extends AbstractAbility implements Listener
 
     @Override
     public void remove(PowerMob powerMob) {
-        this.cooldowns.remove(powerMob.getEntityUuid());
+        powerMob.clearAbilityCooldown(this);
     }
 
     @EventHandler
@@ -97,10 +94,7 @@ public class LightningStrikeAbility extends AbstractAbility implements Listener
         }
 
         // Check if the mob has this ability
-        boolean hasAbility = powerMob.getAbilities().stream()
-                .anyMatch(ability -> ability.getId().equals(this.id));
-
-        if (!hasAbility) {
+        if (!powerMob.hasAbility(this)) {
             return;
         }
 
@@ -110,11 +104,8 @@ public class LightningStrikeAbility extends AbstractAbility implements Listener
         final int cooldownSeconds = powerMob.getAbilityInt(this.id, "cooldown", this.defaultCooldown);
 
         // Check cooldown
-        if (this.cooldowns.containsKey(powerMob.getEntityUuid())) {
-            long lastUse = this.cooldowns.get(powerMob.getEntityUuid());
-            if (System.currentTimeMillis() - lastUse < cooldownSeconds * 1000L) {
-                return;
-            }
+        if (powerMob.isAbilityOnCooldown(this)) {
+            return;
         }
 
         // Random chance to trigger
@@ -140,7 +131,7 @@ public class LightningStrikeAbility extends AbstractAbility implements Listener
         }
 
         // Set cooldown
-        this.cooldowns.put(powerMob.getEntityUuid(), System.currentTimeMillis());
+        powerMob.startAbilityCooldown(this, cooldownSeconds * 1000L);
     }
 
     @Override
@@ -68,9 +68,9 @@ public class RegenerationAbility extends AbstractAbility {
 
                 // Show particles
                 if (particles && entity.getLocation().getWorld() != null) {
-                    entity.getLocation().getWorld().spawnParticle(
-                            Particle.HEART,
+                    this.plugin.getParticleEmitter().spawn(
                             entity.getLocation().add(0, 1, 0),
+                            Particle.HEART,
                             1,
                             0.5,
                             0.5,
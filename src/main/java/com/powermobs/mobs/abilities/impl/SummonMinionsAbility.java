@@ -11,7 +11,6 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
-import org.bukkit.persistence.PersistentDataType;
 
 import java.util.*;
 
@@ -27,8 +26,6 @@ public class SummonMinionsAbility extends AbstractAbility implements Listener {
     private final int defaultCount = 2;
     private final int defaultCooldown = 30;
     private final double defaultHealth = 10;
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
-    private final NamespacedKey minionOwnerKey; // add
     private final Set<String> warnedInvalidMobTypes = new HashSet<>();
 
     /**
@@ -41,8 +38,6 @@ public class SummonMinionsAbility extends AbstractAbility implements Listener {
 
         // Register events
         Bukkit.getPluginManager().registerEvents(this, plugin);
-
-        this.minionOwnerKey = new NamespacedKey(plugin, "minion_owner");
     }
 
     @Override
@@ -52,7 +47,7 @@ public class SummonMinionsAbility extends AbstractAbility implements Listener {
 
     @Override
     public void remove(PowerMob powerMob) {
-        this.cooldowns.remove(powerMob.getEntityUuid());
+        powerMob.clearAbilityCooldown(this);
     }
 
     @EventHandler
@@ -68,10 +63,7 @@ public class SummonMinionsAbility extends AbstractAbility implements Listener {
         }
 
         // Check if the mob has this ability
-        boolean hasAbility = powerMob.getAbilities().stream()
-                .anyMatch(ability -> ability.getId().equals(this.id));
-
-        if (!hasAbility) {
+        if (!powerMob.hasAbility(this)) {
             return;
         }
 
@@ -82,11 +74,8 @@ public class SummonMinionsAbility extends AbstractAbility implements Listener {
         final double health = powerMob.getAbilityDouble(this.id, "health", this.defaultHealth);
 
         // Check cooldown
-        if (this.cooldowns.containsKey(powerMob.getEntityUuid())) {
-            long lastUse = this.cooldowns.get(powerMob.getEntityUuid());
-            if (System.currentTimeMillis() - lastUse < cooldownSeconds * 1000L) {
-                return;
-            }
+        if (powerMob.isAbilityOnCooldown(this)) {
+            return;
         }
 
         // Check health percentage (25% or less)
@@ -124,52 +113,11 @@ public class SummonMinionsAbility extends AbstractAbility implements Listener {
         }
 
 
-        // Summon minions
-        Location location = entity.getLocation();
-
-        for (int i = 0; i < count; i++) {
-            // Calculate spawn position (in a circle around the mob)
-            double angle = 2 * Math.PI * i / count;
-            double x = location.getX() + 2 * Math.cos(angle);
-            double z = location.getZ() + 2 * Math.sin(angle);
-
-            Location spawnLoc = new Location(location.getWorld(), x, location.getY(), z);
-
-            // Spawn the minion
-            if (location.getWorld() != null) {
-                LivingEntity minion = (LivingEntity) location.getWorld().spawnEntity(spawnLoc, mobType);
-
-                // Set health
-                if (minion.getAttribute(Attribute.MAX_HEALTH) != null) {
-                    Objects.requireNonNull(
-                            minion.getAttribute(Attribute.MAX_HEALTH)
-                        ).setBaseValue(health);
-
-                        minion.setHealth(health);
-                }
-
-                // add: mark/register as plugin power mob
-                PowerMob minionCustom = new PowerMob(this.plugin, minion, "summoned-minion");
-                this.plugin.getPowerMobManager().registerPowerMob(minionCustom);
-
-                // add: tag owner to prevent friendly targeting or for later logic
-                minion.getPersistentDataContainer().set(minionOwnerKey,
-                        PersistentDataType.STRING, entity.getUniqueId().toString());
-
-                // Set the minion's target to the attacker (if found)
-                if (minion instanceof Mob && attacker != null) {
-                    ((Mob) minion).setTarget(attacker);
-                }
-
-
-                // Play spawn effect
-                location.getWorld().spawnParticle(Particle.LARGE_SMOKE, spawnLoc, 10, 0.5, 0.5, 0.5, 0.1);
-                location.getWorld().playSound(spawnLoc, Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 0.5f);
-            }
-        }
+        // Queue the minions, they are spawned over the next few ticks within the global minion budget
+        this.plugin.getMinionManager().queueSummon(entity, mobType, count, health, attacker);
 
         // Set cooldown
-        this.cooldowns.put(powerMob.getEntityUuid(), System.currentTimeMillis());
+        powerMob.startAbilityCooldown(this, cooldownSeconds * 1000L);
     }
 
     private EntityType parseMobType(String typeString) {
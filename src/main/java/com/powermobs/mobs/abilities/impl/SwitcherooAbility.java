@@ -27,7 +27,6 @@ public class SwitcherooAbility extends AbstractAbility implements Listener {
     private final int defaultMaxDistance = 10;
     private final int defaultCooldown = 5;
     private final boolean defaultOnlyIfDamaged = false;
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
 
     private static final long attackerToRemoveMS = 60_000L;
     private static final int maxAttackerHistory = 10;
@@ -57,7 +56,7 @@ public class SwitcherooAbility extends AbstractAbility implements Listener {
             return;
         }
 
-        if (powerMob.getAbilities().stream().noneMatch(a -> a.getId().equals(this.id))) return;
+        if (!powerMob.hasAbility(this)) return;
 
 
         UUID mobUuid = powerMob.getEntityUuid();
@@ -71,14 +70,14 @@ public class SwitcherooAbility extends AbstractAbility implements Listener {
         boolean onlyIfDamaged = powerMob.getAbilityBoolean(this.id, "only-if-damaged", defaultOnlyIfDamaged);
         if (!onlyIfDamaged) return;
 
-        if (!passesChanceAndCooldown(mobUuid, powerMob)) return;
+        if (!passesChanceAndCooldown(powerMob)) return;
 
         int maxDistance = powerMob.getAbilityInt(this.id, "max-distance", defaultMaxDistance);
 
         Player target = pickTarget(mobUuid, entity, attacker, maxDistance);
         if (target == null) return;
 
-        performSwitch(entity, target, mobUuid);
+        performSwitch(entity, target, powerMob);
     }
 
     private void startCycleTask(PowerMob powerMob) {
@@ -97,14 +96,14 @@ public class SwitcherooAbility extends AbstractAbility implements Listener {
                     return;
                 }
 
-                if (!passesChanceAndCooldown(mobUuid, powerMob)) return;
+                if (!passesChanceAndCooldown(powerMob)) return;
 
                 int maxDistance = powerMob.getAbilityInt(id, "max-distance", defaultMaxDistance);
 
                 Player target = pickTarget(mobUuid, entity, null, maxDistance);
                 if (target == null) return;
 
-                performSwitch(entity, target, mobUuid);
+                performSwitch(entity, target, powerMob);
             }
         };
 
@@ -164,7 +163,7 @@ public class SwitcherooAbility extends AbstractAbility implements Listener {
         return player.getLocation().distanceSquared(mob.getLocation()) <= (double) maxDistance * maxDistance;
     }
 
-    private void performSwitch(LivingEntity mob, Player player, UUID mobUuid) {
+    private void performSwitch(LivingEntity mob, Player player, PowerMob powerMob) {
         Location mobLoc = mob.getLocation().clone();
         Location playerLoc = player.getLocation().clone();
 
@@ -177,18 +176,17 @@ public class SwitcherooAbility extends AbstractAbility implements Listener {
         spawnEffects(mob.getLocation());
         spawnEffects(player.getLocation());
 
-        cooldowns.put(mobUuid, System.currentTimeMillis());
+        int cooldownSeconds = powerMob.getAbilityInt(this.id, "cooldown", defaultCooldown);
+        powerMob.startAbilityCooldown(this, cooldownSeconds * 1000L);
     }
 
     private void spawnEffects(Location loc) {
-        loc.getWorld().spawnParticle(Particle.PORTAL, loc, 30, 0.5, 1.0, 0.5, 0.1);
+        this.plugin.getParticleEmitter().spawn(loc, Particle.PORTAL, 30, 0.5, 1.0, 0.5, 0.1);
         loc.getWorld().playSound(loc, Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 1.0f);
     }
 
-    private boolean passesChanceAndCooldown(UUID mobUuid, PowerMob powerMob) {
-        long lastUse = cooldowns.getOrDefault(mobUuid, 0L);
-        int cooldownSeconds = powerMob.getAbilityInt(this.id, "cooldown", defaultCooldown);
-        if (System.currentTimeMillis() - lastUse < cooldownSeconds * 1000L) return false;
+    private boolean passesChanceAndCooldown(PowerMob powerMob) {
+        if (powerMob.isAbilityOnCooldown(this)) return false;
 
         double chance = powerMob.getAbilityDouble(this.id, "chance", defaultChance);
         return Math.random() <= chance;
@@ -226,7 +224,7 @@ public class SwitcherooAbility extends AbstractAbility implements Listener {
     @Override
     public void remove(PowerMob powerMob) {
         UUID mobUuid = powerMob.getEntityUuid();
-        cooldowns.remove(mobUuid);
+        powerMob.clearAbilityCooldown(this);
         lastAttackers.remove(mobUuid);
         cancelCycleTask(mobUuid);
     }
@@ -4,12 +4,14 @@ import com.powermobs.PowerMobsPlugin;
 import com.powermobs.mobs.PowerMob;
 import com.powermobs.mobs.abilities.AbilityConfigField;
 import com.powermobs.mobs.abilities.AbstractAbility;
+import com.powermobs.utils.SafeLandingCache;
 import org.bukkit.*;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
@@ -30,10 +32,10 @@ public class TeleportAbility extends AbstractAbility implements Listener {
     private final int defaultMaxToDistance = 100;
     private final int defaultCooldown = 5;
     private final int defaultInactivityTime = 30;
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
     private final Map<UUID, PlayerAttackerInfo> lastAttackers = new HashMap<>();
     private final Map<UUID, BukkitRunnable> inactivityTasks = new HashMap<>();
     private final Random random = new Random();
+    private final SafeLandingCache safeLandingCache;
 
     /**
      * Creates a new teleport ability
@@ -42,8 +44,10 @@ public class TeleportAbility extends AbstractAbility implements Listener {
      */
     public TeleportAbility(PowerMobsPlugin plugin) {
         super(plugin, "teleport");
+        this.safeLandingCache = new SafeLandingCache(plugin);
 
         Bukkit.getPluginManager().registerEvents(this, plugin);
+        Bukkit.getPluginManager().registerEvents(this.safeLandingCache, plugin);
     }
 
     @Override
@@ -54,7 +58,7 @@ public class TeleportAbility extends AbstractAbility implements Listener {
     @Override
     public void remove(PowerMob powerMob) {
         UUID mobUuid = powerMob.getEntityUuid();
-        this.cooldowns.remove(mobUuid);
+        powerMob.clearAbilityCooldown(this);
         this.lastAttackers.remove(mobUuid);
 
         // Cancel any pending inactivity task
@@ -64,6 +68,12 @@ public class TeleportAbility extends AbstractAbility implements Listener {
         }
     }
 
+    @Override
+    public void shutdown() {
+        HandlerList.unregisterAll(this.safeLandingCache);
+        this.safeLandingCache.clear();
+    }
+
     @EventHandler
     public void onEntityDamage(EntityDamageEvent event) {
         if (!(event.getEntity() instanceof LivingEntity entity)) {
@@ -76,10 +86,7 @@ public class TeleportAbility extends AbstractAbility implements Listener {
             return;
         }
 
-        boolean hasAbility = powerMob.getAbilities().stream()
-                .anyMatch(ability -> ability.getId().equals(this.id));
-
-        if (!hasAbility) {
+        if (!powerMob.hasAbility(this)) {
             return;
         }
 
@@ -123,11 +130,8 @@ public class TeleportAbility extends AbstractAbility implements Listener {
         }
 
         // Check cooldown
-        if (this.cooldowns.containsKey(mobUuid)) {
-            long lastUse = this.cooldowns.get(mobUuid);
-            if (System.currentTimeMillis() - lastUse < cooldownSeconds * 1000L) {
-                return;
-            }
+        if (powerMob.isAbilityOnCooldown(this)) {
+            return;
         }
 
         // Random chance to trigger immediate teleport away
@@ -138,7 +142,7 @@ public class TeleportAbility extends AbstractAbility implements Listener {
         // Teleport away from attacker
         Location target = findAwayTeleportLocation(entity.getLocation(), maxAwayDistance);
         if (target != null) {
-            performTeleport(entity, target, mobUuid);
+            performTeleport(powerMob, entity, target, cooldownSeconds);
         }
     }
 
@@ -161,21 +165,16 @@ public class TeleportAbility extends AbstractAbility implements Listener {
                 }
 
                 // Check if mob still has this ability
-                boolean hasAbility = powerMob.getAbilities().stream()
-                        .anyMatch(ability -> ability.getId().equals(id));
-                if (!hasAbility) {
+                if (!powerMob.hasAbility(TeleportAbility.this)) {
                     inactivityTasks.remove(mobUuid);
                     return;
                 }
 
                 // Check cooldown
-                if (cooldowns.containsKey(mobUuid)) {
-                    long lastUse = cooldowns.get(mobUuid);
-                    if (System.currentTimeMillis() - lastUse < cooldownSeconds * 1000L) {
-                        // Reschedule for later
-                        scheduleInactivityTeleport(powerMob, entity, cooldownSeconds, inactivityTimeSeconds, maxToDistance);
-                        return;
-                    }
+                if (powerMob.isAbilityOnCooldown(TeleportAbility.this)) {
+                    // Reschedule for later
+                    scheduleInactivityTeleport(powerMob, entity, cooldownSeconds, inactivityTimeSeconds, maxToDistance);
+                    return;
                 }
 
                 // Get last attacker info
@@ -199,7 +198,7 @@ public class TeleportAbility extends AbstractAbility implements Listener {
                         }
                         Location target = findPlayerTeleportLocation(player);
                         if (target != null) {
-                            performTeleport(entity, target, mobUuid);
+                            performTeleport(powerMob, entity, target, cooldownSeconds);
                         }
                     } else {
                         // Player is dead or offline, clear the attacker info
@@ -304,26 +303,28 @@ public class TeleportAbility extends AbstractAbility implements Listener {
     /**
      * Performs the teleportation with effects
      *
-     * @param entity  The entity to teleport
-     * @param target  The target location
-     * @param mobUuid The mob's UUID for cooldown tracking
+     * @param powerMob        The power mob, for cooldown tracking
+     * @param entity          The entity to teleport
+     * @param target          The target location
+     * @param cooldownSeconds The cooldown to start
      */
-    private void performTeleport(LivingEntity entity, Location target, UUID mobUuid) {
+    private void performTeleport(PowerMob powerMob, LivingEntity entity, Location target, int cooldownSeconds) {
         Location current = entity.getLocation();
 
-        current.getWorld().spawnParticle(Particle.PORTAL, current, 30, 0.5, 1.0, 0.5, 0.1);
+        this.plugin.getParticleEmitter().spawn(current, Particle.PORTAL, 30, 0.5, 1.0, 0.5, 0.1);
         current.getWorld().playSound(current, Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 1.0f);
 
         entity.teleport(target);
 
-        target.getWorld().spawnParticle(Particle.PORTAL, target, 30, 0.5, 1.0, 0.5, 0.1);
+        this.plugin.getParticleEmitter().spawn(target, Particle.PORTAL, 30, 0.5, 1.0, 0.5, 0.1);
         target.getWorld().playSound(target, Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 1.0f);
 
-        this.cooldowns.put(mobUuid, System.currentTimeMillis());
+        powerMob.startAbilityCooldown(this, cooldownSeconds * 1000L);
     }
 
     /**
-     * Optimized safe Y finder with reduced block access
+     * Finds a safe Y in the column of the given location, closest to its Y and within the radius of the origin.
+     * Uses the cached spots of the chunk when available and falls back to probing blocks otherwise.
      */
     private Location findSafeYWithinRadius(Location origin, Location location, int maxRadius) {
         if (origin == null || location == null || location.getWorld() == null || origin.getWorld() == null) {
@@ -360,6 +361,69 @@ public class TeleportAbility extends AbstractAbility implements Listener {
         int blockX = location.getBlockX();
         int blockZ = location.getBlockZ();
 
+        int[] cachedYs = this.safeLandingCache.getSafeYs(world, blockX, blockZ);
+        if (cachedYs != null) {
+            Location cached = findCachedSafeY(cachedYs, origin, world, blockX, blockZ, startY, minY, maxY, maxRadiusSq);
+            if (cached == null || isSafeStandingBlock(world, blockX, cached.getBlockY() - 1, blockZ)) {
+                return cached;
+            }
+            // The cache missed a block change, resample the chunk and probe directly this time
+            this.safeLandingCache.invalidate(world.getBlockAt(blockX, startY, blockZ));
+        }
+
+        return probeSafeY(origin, world, blockX, blockZ, startY, minY, maxY, maxRadiusSq);
+    }
+
+    /**
+     * Picks the cached safe Y closest to the start Y, preferring lower spots on ties,
+     * which matches the order of the block probing search
+     */
+    private Location findCachedSafeY(int[] safeYs, Location origin, World world, int blockX, int blockZ,
+                                     int startY, int minY, int maxY, double maxRadiusSq) {
+        // Index of the first safe Y above the start Y
+        int above = Arrays.binarySearch(safeYs, startY);
+        if (above < 0) {
+            above = -above - 1;
+        }
+        int below = above - 1;
+        if (above < safeYs.length && safeYs[above] == startY) {
+            below = above;
+            above++;
+        }
+
+        while (below >= 0 || above < safeYs.length) {
+            int candidate;
+            if (below < 0) {
+                candidate = safeYs[above++];
+            } else if (above >= safeYs.length || startY - safeYs[below] <= safeYs[above] - startY) {
+                candidate = safeYs[below--];
+            } else {
+                candidate = safeYs[above++];
+            }
+
+            if (candidate < minY || candidate > maxY) {
+                continue;
+            }
+            Location result = new Location(world, blockX + 0.5, candidate + 1, blockZ + 0.5);
+            if (result.distanceSquared(origin) <= maxRadiusSq) {
+                return result;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean isSafeStandingBlock(World world, int blockX, int y, int blockZ) {
+        return world.getBlockAt(blockX, y, blockZ).getType().isSolid()
+                && !world.getBlockAt(blockX, y + 1, blockZ).getType().isSolid()
+                && !world.getBlockAt(blockX, y + 2, blockZ).getType().isSolid();
+    }
+
+    /**
+     * Safe Y finder that probes blocks directly, used while the chunk is not cached
+     */
+    private Location probeSafeY(Location origin, World world, int blockX, int blockZ,
+                                int startY, int minY, int maxY, double maxRadiusSq) {
         // Reuse location objects to reduce GC pressure
         Location checkLoc = new Location(world, blockX, startY, blockZ);
         Location aboveLoc1 = new Location(world, blockX, startY + 1, blockZ);
@@ -12,7 +12,6 @@ import org.bukkit.entity.Mob;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Vex;
 import org.bukkit.event.Listener;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.BoundingBox;
 import org.bukkit.util.Vector;
@@ -22,6 +21,11 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public class VexedAbility extends AbstractAbility implements Listener {
 
+    private static final int CONTROL_INTERVAL_TICKS = 20;
+    private static final int MAX_VEX_LIFETIME_TICKS = 120;
+    private static final int REMOVE_DELAY_TICKS = 10;
+    private static final double ARRIVAL_THRESHOLD_SQ = 0.3 * 0.3;
+
     private final String title = "Vexed";
     private final String description = "Spawns charging vexes above nearby players over a short duration.";
     private final Material material = Material.VEX_SPAWN_EGG;
@@ -35,9 +39,28 @@ public class VexedAbility extends AbstractAbility implements Listener {
     private final double defaultHitboxSize = 0.4;
     private final boolean defaultOnlyTarget = true;
     private final int defaultCooldown = 10;
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
-    private final Map<UUID, BukkitTask> activeTasks = new HashMap<>();
-    private final Set<UUID> activeBursts = new HashSet<>();
+    private final Map<UUID, VexedMob> vexedMobs = new LinkedHashMap<>();
+    private final List<VexBurst> activeBursts = new ArrayList<>();
+    // Players per world, gathered once per tick and shared by every target and hit query
+    private final Map<World, List<Player>> playersByWorld = new HashMap<>();
+
+    // Charging vex state, stored as parallel arrays indexed by slot [0, chargingCount)
+    private Vex[] vexes = new Vex[16];
+    private LivingEntity[] vexSources = new LivingEntity[16];
+    private double[] velocityX = new double[16];
+    private double[] velocityY = new double[16];
+    private double[] velocityZ = new double[16];
+    private double[] aimX = new double[16];
+    private double[] aimY = new double[16];
+    private double[] aimZ = new double[16];
+    private double[] hitRadii = new double[16];
+    private int[] vexDamage = new int[16];
+    private int[] removeDelayTicks = new int[16];
+    private boolean[] pendingFirstTick = new boolean[16];
+    private int chargingCount = 0;
+
+    private BukkitTask systemTask;
+    private long currentTick = 0;
 
 
     public VexedAbility(PowerMobsPlugin plugin) {
@@ -54,94 +77,124 @@ public class VexedAbility extends AbstractAbility implements Listener {
 
         UUID mobUuid = powerMob.getEntityUuid();
 
-        if (this.activeTasks.containsKey(mobUuid)) {
+        if (this.vexedMobs.containsKey(mobUuid)) {
             return;
         }
-        double chance = powerMob.getAbilityDouble(this.id, "chance", this.defaultChance);
-        int maxDistance = Math.max(1, powerMob.getAbilityInt(this.id, "max-distance", this.defaultMaxDistance));
-        int vexDamage = powerMob.getAbilityInt(this.id, "vex-damage", this.defaultVexDamage);
-        int vexCount = Math.max(1, powerMob.getAbilityInt(this.id, "vex-count", this.defaultVexCount));
-        int durationSeconds = Math.max(1, powerMob.getAbilityInt(this.id, "duration-seconds", this.defaultDurationSeconds));
-        double velocityTickSpeed = Math.max(0.0001, powerMob.getAbilityDouble(this.id, "velocity-tick-speed", this.defaultVelocityTickSpeed));
-        int spawnDistance = Math.max(1, powerMob.getAbilityInt(this.id, "spawn-distance", this.defaultSpawnDistance));
-        double hitboxSize = powerMob.getAbilityDouble(this.id, "hitbox-size", this.defaultHitboxSize);
-        boolean onlyTarget = powerMob.getAbilityBoolean(this.id, "only-target", this.defaultOnlyTarget);
-        int cooldownSeconds = powerMob.getAbilityInt(this.id, "cooldown", this.defaultCooldown);
-
-        BukkitRunnable task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!powerMob.isValid()) {
-                    cleanup();
-                    return;
-                }
 
-                if (activeBursts.contains(mobUuid)) {
-                    return;
-                }
+        VexedMob vexedMob = new VexedMob(
+                powerMob,
+                powerMob.getAbilityDouble(this.id, "chance", this.defaultChance),
+                Math.max(1, powerMob.getAbilityInt(this.id, "max-distance", this.defaultMaxDistance)),
+                powerMob.getAbilityInt(this.id, "vex-damage", this.defaultVexDamage),
+                Math.max(1, powerMob.getAbilityInt(this.id, "vex-count", this.defaultVexCount)),
+                Math.max(1, powerMob.getAbilityInt(this.id, "duration-seconds", this.defaultDurationSeconds)),
+                Math.max(0.0001, powerMob.getAbilityDouble(this.id, "velocity-tick-speed", this.defaultVelocityTickSpeed)),
+                Math.max(1, powerMob.getAbilityInt(this.id, "spawn-distance", this.defaultSpawnDistance)),
+                powerMob.getAbilityDouble(this.id, "hitbox-size", this.defaultHitboxSize),
+                powerMob.getAbilityBoolean(this.id, "only-target", this.defaultOnlyTarget),
+                powerMob.getAbilityInt(this.id, "cooldown", this.defaultCooldown),
+                this.currentTick
+        );
+        this.vexedMobs.put(mobUuid, vexedMob);
+        ensureSystemRunning();
+    }
 
-                long now = System.currentTimeMillis();
-                long lastUse = cooldowns.getOrDefault(mobUuid, 0L);
-                if (now - lastUse < cooldownSeconds * 1000L) {
-                    return;
-                }
+    /**
+     * Starts the shared vex system task if it is not already running.
+     * A single task drives trigger checks, bursts and every charging vex.
+     */
+    private void ensureSystemRunning() {
+        if (this.systemTask == null) {
+            this.systemTask = Bukkit.getScheduler().runTaskTimer(this.plugin, this::tickSystem, 0L, 1L);
+        }
+    }
 
-                if (Math.random() > chance) {
-                    return;
-                }
-                Player burstTarget = findTarget(powerMob, maxDistance, onlyTarget);
-                if (burstTarget == null) {
-                    return;
-                }
-                Sound sound = Sound.ENTITY_VEX_CHARGE;
-                powerMob.getEntity().getWorld().playSound(powerMob.getEntity().getLocation(), sound, 1.0f, 1.0f);
-
-                activeBursts.add(mobUuid);
-
-                int totalDurationTicks = durationSeconds * 20;
-                int intervalTicks = Math.max(1, totalDurationTicks / vexCount);
-
-                new BukkitRunnable() {
-                    private int spawned = 0;
-
-                    @Override
-                    public void run() {
-                        if (!powerMob.isValid()) {
-                            finish();
-                            return;
-                        }
-
-                        if (!burstTarget.isValid() || burstTarget.isDead()) {
-                            finish();
-                            return;
-                        }
-
-                        spawnChargingVex(powerMob, burstTarget, vexDamage, spawnDistance, velocityTickSpeed, hitboxSize);
-                        spawned++;
-
-                        if (spawned >= vexCount) {
-                            finish();
-                        }
-                    }
-
-                    private void finish() {
-                        cancel();
-                        activeBursts.remove(mobUuid);
-                        cooldowns.put(mobUuid, System.currentTimeMillis());
-                    }
-                }.runTaskTimer(plugin, 0L, intervalTicks);
+    private void tickSystem() {
+        this.playersByWorld.clear();
+
+        tickVexedMobs();
+        tickBursts();
+        tickChargingVexes();
+
+        this.currentTick++;
+
+        if (this.vexedMobs.isEmpty() && this.activeBursts.isEmpty() && this.chargingCount == 0) {
+            this.systemTask.cancel();
+            this.systemTask = null;
+        }
+    }
+
+    /**
+     * Runs the once-per-second trigger check for each mob whose check is due
+     */
+    private void tickVexedMobs() {
+        Iterator<VexedMob> iterator = this.vexedMobs.values().iterator();
+        while (iterator.hasNext()) {
+            VexedMob vexedMob = iterator.next();
+            if ((this.currentTick - vexedMob.registeredTick) % CONTROL_INTERVAL_TICKS != 0) {
+                continue;
+            }
+
+            PowerMob powerMob = vexedMob.powerMob;
+            if (!powerMob.isValid()) {
+                iterator.remove();
+                vexedMob.bursting = false;
+                continue;
+            }
+
+            if (vexedMob.bursting) {
+                continue;
+            }
+
+            if (powerMob.isAbilityOnCooldown(this)) {
+                continue;
+            }
+
+            if (Math.random() > vexedMob.chance) {
+                continue;
+            }
+            Player burstTarget = findTarget(powerMob, vexedMob.maxDistance, vexedMob.onlyTarget);
+            if (burstTarget == null) {
+                continue;
             }
+            powerMob.getEntity().getWorld().playSound(powerMob.getEntity().getLocation(), Sound.ENTITY_VEX_CHARGE, 1.0f, 1.0f);
+
+            vexedMob.bursting = true;
+
+            int totalDurationTicks = vexedMob.durationSeconds * 20;
+            int intervalTicks = Math.max(1, totalDurationTicks / vexedMob.vexCount);
+            this.activeBursts.add(new VexBurst(vexedMob, burstTarget, intervalTicks, this.currentTick));
+        }
+    }
 
-            private void cleanup() {
-                cancel();
-                activeTasks.remove(mobUuid);
-                activeBursts.remove(mobUuid);
+    /**
+     * Spawns the next vex for every burst whose interval has elapsed
+     */
+    private void tickBursts() {
+        Iterator<VexBurst> iterator = this.activeBursts.iterator();
+        while (iterator.hasNext()) {
+            VexBurst burst = iterator.next();
+            if (burst.nextSpawnTick > this.currentTick) {
+                continue;
             }
-        };
 
-        BukkitTask scheduledTask = task.runTaskTimer(this.plugin, 0L, 20L);
-        this.activeTasks.put(mobUuid, scheduledTask);
+            VexedMob vexedMob = burst.vexedMob;
+            PowerMob powerMob = vexedMob.powerMob;
+            boolean finished = !powerMob.isValid() || !burst.target.isValid() || burst.target.isDead();
 
+            if (!finished) {
+                spawnChargingVex(powerMob, burst.target, vexedMob.vexDamage, vexedMob.spawnDistance, vexedMob.velocityTickSpeed, vexedMob.hitboxSize);
+                burst.spawned++;
+                burst.nextSpawnTick = this.currentTick + burst.intervalTicks;
+                finished = burst.spawned >= vexedMob.vexCount;
+            }
+
+            if (finished) {
+                iterator.remove();
+                vexedMob.bursting = false;
+                powerMob.startAbilityCooldown(this, vexedMob.cooldownSeconds * 1000L);
+            }
+        }
     }
 
     private Player findTarget(PowerMob powerMob, int maxDistance, boolean onlyTarget) {
@@ -158,13 +211,10 @@ public class VexedAbility extends AbstractAbility implements Listener {
         }
 
         List<Player> nearbyPlayers = new ArrayList<>();
-        for (Player player : Bukkit.getOnlinePlayers()) {
+        for (Player player : getWorldPlayers(mobEntity.getWorld())) {
             if (!canUsePlayerTarget(mobEntity, player, mobLocation, maxDistance)) {
                 continue;
             }
-            if (!MobTargetingUtil.shouldAllowTargeting(this.plugin, mobEntity, player)) {
-                continue;
-            }
             nearbyPlayers.add(player);
         }
 
@@ -175,6 +225,24 @@ public class VexedAbility extends AbstractAbility implements Listener {
         return nearbyPlayers.get(ThreadLocalRandom.current().nextInt(nearbyPlayers.size()));
     }
 
+    /**
+     * Gets the living players of a world, gathered at most once per tick
+     *
+     * @param world The world
+     * @return The players in the world that are valid and alive
+     */
+    private List<Player> getWorldPlayers(World world) {
+        return this.playersByWorld.computeIfAbsent(world, w -> {
+            List<Player> players = new ArrayList<>();
+            for (Player player : w.getPlayers()) {
+                if (player.isValid() && !player.isDead()) {
+                    players.add(player);
+                }
+            }
+            return players;
+        });
+    }
+
     private Player getAggroTarget(LivingEntity mobEntity, Location mobLocation, int maxDistance) {
         if (!(mobEntity instanceof Mob mob)) {
             return null;
@@ -242,9 +310,9 @@ public class VexedAbility extends AbstractAbility implements Listener {
             vex.setVelocity(keepVelocity);
         }
 
-        mobEntity.getWorld().spawnParticle(
-                Particle.SMOKE,
+        this.plugin.getParticleEmitter().spawn(
                 spawnLocation,
+                Particle.SMOKE,
                 14,
                 0.25,
                 0.25,
@@ -253,7 +321,7 @@ public class VexedAbility extends AbstractAbility implements Listener {
         );
         mobEntity.getWorld().playSound(spawnLocation, Sound.BLOCK_CANDLE_EXTINGUISH, 0.3f, 0.2f);
 
-        trackVexFlight(vex, targetPoint, vexDamage, mobEntity, keepVelocity, hitRadius);
+        addChargingVex(vex, targetPoint, vexDamage, mobEntity, keepVelocity, hitRadius);
     }
 
     public static Location randomPointAround(Location center, double radius) {
@@ -263,72 +331,148 @@ public class VexedAbility extends AbstractAbility implements Listener {
         return new Location(center.getWorld(), x, center.getY(), z, center.getYaw(), center.getPitch());
     }
 
-    private void trackVexFlight(Vex vex, Location aimPoint, int damage, LivingEntity source, Vector keepVelocity, double hitRadius) {
-        new BukkitRunnable() {
-            private boolean reachedTarget = false;
-            private int removeDelayTicks = 0;
+    /**
+     * Adds a vex to the charging vex arrays, growing them when full
+     */
+    private void addChargingVex(Vex vex, Location aimPoint, int damage, LivingEntity source, Vector keepVelocity, double hitRadius) {
+        if (this.chargingCount == this.vexes.length) {
+            int capacity = this.vexes.length * 2;
+            this.vexes = Arrays.copyOf(this.vexes, capacity);
+            this.vexSources = Arrays.copyOf(this.vexSources, capacity);
+            this.velocityX = Arrays.copyOf(this.velocityX, capacity);
+            this.velocityY = Arrays.copyOf(this.velocityY, capacity);
+            this.velocityZ = Arrays.copyOf(this.velocityZ, capacity);
+            this.aimX = Arrays.copyOf(this.aimX, capacity);
+            this.aimY = Arrays.copyOf(this.aimY, capacity);
+            this.aimZ = Arrays.copyOf(this.aimZ, capacity);
+            this.hitRadii = Arrays.copyOf(this.hitRadii, capacity);
+            this.vexDamage = Arrays.copyOf(this.vexDamage, capacity);
+            this.removeDelayTicks = Arrays.copyOf(this.removeDelayTicks, capacity);
+            this.pendingFirstTick = Arrays.copyOf(this.pendingFirstTick, capacity);
+        }
 
-            @Override
-            public void run() {
-                if (!vex.isValid() || vex.isDead()) {
-                    cancel();
-                    return;
-                }
+        int slot = this.chargingCount++;
+        this.vexes[slot] = vex;
+        this.vexSources[slot] = source;
+        this.velocityX[slot] = keepVelocity.getX();
+        this.velocityY[slot] = keepVelocity.getY();
+        this.velocityZ[slot] = keepVelocity.getZ();
+        this.aimX[slot] = aimPoint.getX();
+        this.aimY[slot] = aimPoint.getY();
+        this.aimZ[slot] = aimPoint.getZ();
+        this.hitRadii[slot] = hitRadius;
+        this.vexDamage[slot] = damage;
+        this.removeDelayTicks[slot] = -1;
+        // Flight control starts on the tick after the spawn, matching the vanilla launch velocity
+        this.pendingFirstTick[slot] = true;
+    }
 
-                vex.setVelocity(keepVelocity);
-                faceVelocity(vex, keepVelocity);
-
-                Player hitPlayer = findHitPlayerByBoundingBox(vex, hitRadius);
-                if (hitPlayer != null) {
-                    try {
-                        hitPlayer.damage(damage <= 0 ? 1.0 : damage, source);
-                    } catch (Exception ignored) {
-                    }
-
-                    vex.getWorld().spawnParticle(
-                            Particle.LARGE_SMOKE,
-                            vex.getLocation(),
-                            20,
-                            0.35,
-                            0.35,
-                            0.35,
-                            0.03
-                    );
-                    vex.remove();
-                    cancel();
-                    return;
-                }
+    /**
+     * Moves the last charging vex into the given slot and shrinks the arrays by one
+     */
+    private void removeChargingVex(int slot) {
+        int last = --this.chargingCount;
+        if (slot != last) {
+            this.vexes[slot] = this.vexes[last];
+            this.vexSources[slot] = this.vexSources[last];
+            this.velocityX[slot] = this.velocityX[last];
+            this.velocityY[slot] = this.velocityY[last];
+            this.velocityZ[slot] = this.velocityZ[last];
+            this.aimX[slot] = this.aimX[last];
+            this.aimY[slot] = this.aimY[last];
+            this.aimZ[slot] = this.aimZ[last];
+            this.hitRadii[slot] = this.hitRadii[last];
+            this.vexDamage[slot] = this.vexDamage[last];
+            this.removeDelayTicks[slot] = this.removeDelayTicks[last];
+            this.pendingFirstTick[slot] = this.pendingFirstTick[last];
+        }
+        this.vexes[last] = null;
+        this.vexSources[last] = null;
+    }
 
-                double arrivalThreshold = 0.3;
-                if (!reachedTarget && vex.getLocation().distanceSquared(aimPoint) <= arrivalThreshold * arrivalThreshold) {
-                    reachedTarget = true;
-                    removeDelayTicks = 10;
-                }
+    /**
+     * Updates every charging vex in one pass over the state arrays
+     */
+    private void tickChargingVexes() {
+        Vector velocity = new Vector();
+        int slot = 0;
+        while (slot < this.chargingCount) {
+            if (updateChargingVex(slot, velocity)) {
+                slot++;
+            } else {
+                removeChargingVex(slot);
+            }
+        }
+    }
 
-                if (reachedTarget) {
-                    removeDelayTicks--;
-                    if (removeDelayTicks <= 0) {
-                        vex.getWorld().spawnParticle(
-                                Particle.LARGE_SMOKE,
-                                vex.getLocation(),
-                                20,
-                                0.35,
-                                0.35,
-                                0.35,
-                                0.03
-                        );
-                        vex.remove();
-                        cancel();
-                        return;
-                    }
-                }
+    /**
+     * Updates a single charging vex
+     *
+     * @return True if the vex is still charging, false if it should be dropped
+     */
+    private boolean updateChargingVex(int slot, Vector velocity) {
+        Vex vex = this.vexes[slot];
+        if (!vex.isValid() || vex.isDead()) {
+            return false;
+        }
 
-                if (vex.getTicksLived() > 120) {
-                    vex.remove();
-                    cancel();
-                }
+        if (this.pendingFirstTick[slot]) {
+            this.pendingFirstTick[slot] = false;
+            return true;
+        }
+
+        velocity.setX(this.velocityX[slot]).setY(this.velocityY[slot]).setZ(this.velocityZ[slot]);
+        vex.setVelocity(velocity);
+        faceVelocity(vex, velocity);
+
+        Player hitPlayer = findHitPlayerByBoundingBox(vex, this.hitRadii[slot]);
+        if (hitPlayer != null) {
+            int damage = this.vexDamage[slot];
+            try {
+                hitPlayer.damage(damage <= 0 ? 1.0 : damage, this.vexSources[slot]);
+            } catch (Exception ignored) {
+            }
+
+            despawnWithSmoke(vex);
+            return false;
+        }
+
+        Location location = vex.getLocation();
+        if (this.removeDelayTicks[slot] < 0) {
+            double dx = location.getX() - this.aimX[slot];
+            double dy = location.getY() - this.aimY[slot];
+            double dz = location.getZ() - this.aimZ[slot];
+            if (dx * dx + dy * dy + dz * dz <= ARRIVAL_THRESHOLD_SQ) {
+                this.removeDelayTicks[slot] = REMOVE_DELAY_TICKS;
+            }
+        }
+
+        if (this.removeDelayTicks[slot] >= 0) {
+            this.removeDelayTicks[slot]--;
+            if (this.removeDelayTicks[slot] <= 0) {
+                despawnWithSmoke(vex);
+                return false;
             }
-        }.runTaskTimer(this.plugin, 1L, 1L);
+        }
+
+        if (vex.getTicksLived() > MAX_VEX_LIFETIME_TICKS) {
+            vex.remove();
+            return false;
+        }
+        return true;
+    }
+
+    private void despawnWithSmoke(Vex vex) {
+        this.plugin.getParticleEmitter().spawn(
+                vex.getLocation(),
+                Particle.LARGE_SMOKE,
+                20,
+                0.35,
+                0.35,
+                0.35,
+                0.03
+        );
+        vex.remove();
     }
 
     private void faceVelocity(Vex vex, Vector velocity) {
@@ -344,15 +488,7 @@ public class VexedAbility extends AbstractAbility implements Listener {
     private Player findHitPlayerByBoundingBox(Vex vex, double hitRadius) {
         BoundingBox contactBox = vex.getBoundingBox().expand(hitRadius, hitRadius, hitRadius);
 
-        for (Player player : vex.getWorld().getPlayers()) {
-            if (!player.isValid() || player.isDead()) {
-                continue;
-            }
-
-            if (!player.getWorld().equals(vex.getWorld())) {
-                continue;
-            }
-
+        for (Player player : getWorldPlayers(vex.getWorld())) {
             if (contactBox.overlaps(player.getBoundingBox())) {
                 return player;
             }
@@ -364,12 +500,24 @@ public class VexedAbility extends AbstractAbility implements Listener {
     @Override
     public void remove(PowerMob powerMob) {
         UUID mobUuid = powerMob.getEntityUuid();
-        this.cooldowns.remove(mobUuid);
+        powerMob.clearAbilityCooldown(this);
+        this.vexedMobs.remove(mobUuid);
+    }
 
-        BukkitTask task = this.activeTasks.remove(mobUuid);
-        if (task != null) {
-            task.cancel();
+    @Override
+    public void shutdown() {
+        if (this.systemTask != null) {
+            this.systemTask.cancel();
+            this.systemTask = null;
+        }
+        for (int slot = 0; slot < this.chargingCount; slot++) {
+            this.vexes[slot].remove();
         }
+        Arrays.fill(this.vexes, 0, this.chargingCount, null);
+        Arrays.fill(this.vexSources, 0, this.chargingCount, null);
+        this.chargingCount = 0;
+        this.activeBursts.clear();
+        this.vexedMobs.clear();
     }
 
     @Override
@@ -406,4 +554,58 @@ public class VexedAbility extends AbstractAbility implements Listener {
                 "spawn-distance", AbilityConfigField.integer("spawn-distance", this.defaultSpawnDistance, "How far away from the target the vexes will spawn"),
                 "cooldown", AbilityConfigField.integer("cooldown", this.defaultCooldown, "Cooldown until it can trigger again"));
     }
+
+    /**
+     * Resolved settings and trigger state for a mob with this ability
+     */
+    private static final class VexedMob {
+        private final PowerMob powerMob;
+        private final double chance;
+        private final int maxDistance;
+        private final int vexDamage;
+        private final int vexCount;
+        private final int durationSeconds;
+        private final double velocityTickSpeed;
+        private final int spawnDistance;
+        private final double hitboxSize;
+        private final boolean onlyTarget;
+        private final int cooldownSeconds;
+        private final long registeredTick;
+        private boolean bursting;
+
+        private VexedMob(PowerMob powerMob, double chance, int maxDistance, int vexDamage, int vexCount, int durationSeconds,
+                         double velocityTickSpeed, int spawnDistance, double hitboxSize, boolean onlyTarget, int cooldownSeconds,
+                         long registeredTick) {
+            this.powerMob = powerMob;
+            this.chance = chance;
+            this.maxDistance = maxDistance;
+            this.vexDamage = vexDamage;
+            this.vexCount = vexCount;
+            this.durationSeconds = durationSeconds;
+            this.velocityTickSpeed = velocityTickSpeed;
+            this.spawnDistance = spawnDistance;
+            this.hitboxSize = hitboxSize;
+            this.onlyTarget = onlyTarget;
+            this.cooldownSeconds = cooldownSeconds;
+            this.registeredTick = registeredTick;
+        }
+    }
+
+    /**
+     * A burst of vexes being spawned around one target
+     */
+    private static final class VexBurst {
+        private final VexedMob vexedMob;
+        private final Player target;
+        private final int intervalTicks;
+        private long nextSpawnTick;
+        private int spawned = 0;
+
+        private VexBurst(VexedMob vexedMob, Player target, int intervalTicks, long nextSpawnTick) {
+            this.vexedMob = vexedMob;
+            this.target = target;
+            this.intervalTicks = intervalTicks;
+            this.nextSpawnTick = nextSpawnTick;
+        }
+    }
 }
@@ -1,16 +1,29 @@
 package com.powermobs.mobs.abilities.impl;
 
+import com.destroystokyo.paper.entity.ai.Goal;
+import com.destroystokyo.paper.entity.ai.GoalKey;
+import com.destroystokyo.paper.entity.ai.GoalType;
 import com.powermobs.PowerMobsPlugin;
 import com.powermobs.mobs.PowerMob;
 import com.powermobs.mobs.abilities.AbilityConfigField;
 import com.powermobs.mobs.abilities.AbstractAbility;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.Particle;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import org.bukkit.scheduler.BukkitTask;
@@ -21,7 +34,12 @@ import java.util.*;
 /**
  * Ability that allows mobs to shoot webs that slow players
  */
-public class WebShotAbility extends AbstractAbility {
+public class WebShotAbility extends AbstractAbility implements Listener {
+
+    private static final long WEB_LIFETIME_MS = 10_000L; // 10 seconds
+    private static final int MAX_WEB_REMOVALS_PER_TICK = 64;
+    private static final int GOAL_PRIORITY = 4;
+    private static final int CHECK_INTERVAL_TICKS = 20;
 
     private final String title = "Web Shot";
     private final String description = "Shoots a cobweb to trap the player.";
@@ -30,9 +48,13 @@ public class WebShotAbility extends AbstractAbility {
     private final int defaultSlownessLevel = 1;
     private final int defaultDuration = 5;
     private final int defaultCooldown = 10;
-    private final Map<UUID, BukkitTask> tasks = new HashMap<>();
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
-    private final Map<Location, Long> webLocations = new HashMap<>();
+    private final GoalKey<Mob> goalKey = GoalKey.of(Mob.class, new NamespacedKey(plugin, "web_shot"));
+    // Placed webs ordered by expiry; entries no longer present in websByChunk are stale and skipped
+    private final PriorityQueue<PlacedWeb> webExpiryQueue = new PriorityQueue<>(Comparator.comparingLong(PlacedWeb::expiresAt));
+    // Placed webs grouped by chunk, mirrored into the chunk PDC so they can be cleaned up after a crash
+    private final Map<WebChunk, List<PlacedWeb>> websByChunk = new HashMap<>();
+    private final NamespacedKey chunkWebsKey;
+    private final BukkitTask webCleanupTask;
 
     /**
      * Creates a new web shot ability
@@ -41,145 +63,317 @@ public class WebShotAbility extends AbstractAbility {
      */
     public WebShotAbility(PowerMobsPlugin plugin) {
         super(plugin, "web-shot");
+        this.chunkWebsKey = new NamespacedKey(plugin, "web-shot-webs");
 
-        // Schedule a task to clean up web blocks
-        Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            long now = System.currentTimeMillis();
-            for (Iterator<Map.Entry<Location, Long>> it = this.webLocations.entrySet().iterator(); it.hasNext(); ) {
-                Map.Entry<Location, Long> entry = it.next();
-                if (now - entry.getValue() > 10000) { // 10 seconds
-                    Location loc = entry.getKey();
-                    if (loc.getBlock().getType() == Material.COBWEB) {
-                        loc.getBlock().setType(Material.AIR);
-                    }
-                    it.remove();
-                }
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+
+        // Remove expired webs in bounded batches; idle ticks only peek at the head of the queue
+        this.webCleanupTask = Bukkit.getScheduler().runTaskTimer(plugin, this::removeExpiredWebs, 1, 1);
+
+        // Clean up webs left behind in chunks that were loaded before this ability was registered
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                restoreChunkWebs(chunk);
             }
-        }, 20, 20);
+        }
     }
 
     @Override
     public void apply(PowerMob powerMob) {
-        UUID entityUuid = powerMob.getEntityUuid();
+        if (!(powerMob.getEntity() instanceof Mob mob)) {
+            return;
+        }
 
         final int range = powerMob.getAbilityInt(this.id, "range", this.defaultRange);
         final int slownessLevel = powerMob.getAbilityInt(this.id, "slowness-level", this.defaultSlownessLevel);
         final int durationSeconds = powerMob.getAbilityInt(this.id, "duration", this.defaultDuration);
         final int cooldownSeconds = powerMob.getAbilityInt(this.id, "cooldown", this.defaultCooldown);
 
-        // Cancel existing task if it exists
-        if (this.tasks.containsKey(entityUuid)) {
-            this.tasks.get(entityUuid).cancel();
+        // Replace the existing goal if it exists
+        Bukkit.getMobGoals().removeGoal(mob, this.goalKey);
+        Bukkit.getMobGoals().addGoal(mob, GOAL_PRIORITY, new WebShotGoal(powerMob, mob, range, slownessLevel, durationSeconds, cooldownSeconds));
+    }
+
+    @Override
+    public void remove(PowerMob powerMob) {
+        if (powerMob.getEntity() instanceof Mob mob) {
+            Bukkit.getMobGoals().removeGoal(mob, this.goalKey);
         }
 
-        // Create a new task
-        BukkitTask task = Bukkit.getScheduler().runTaskTimer(this.plugin, () -> {
-            if (!powerMob.isValid()) {
-                remove(powerMob);
-                return;
+        powerMob.clearAbilityCooldown(this);
+    }
+
+    /**
+     * Shoots a web at a random nearby player in sight and starts the cooldown
+     */
+    private void shootWeb(PowerMob powerMob, int range, int slownessLevel, int durationSeconds, int cooldownSeconds) {
+        // Get the entity
+        LivingEntity entity = powerMob.getEntity();
+
+        // Look for nearby players
+        List<Player> nearbyPlayers = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (player.getGameMode() == org.bukkit.GameMode.SPECTATOR || player.getGameMode() == org.bukkit.GameMode.CREATIVE) {
+                continue;
+            }
+            if (player.getWorld().equals(entity.getWorld()) &&
+                    player.getLocation().distance(entity.getLocation()) <= range) {
+                nearbyPlayers.add(player);
             }
+        }
 
-            // Check cooldown
-            if (this.cooldowns.containsKey(entityUuid)) {
-                long lastUse = this.cooldowns.get(entityUuid);
-                if (System.currentTimeMillis() - lastUse < cooldownSeconds * 1000L) {
-                    return;
-                }
+        if (nearbyPlayers.isEmpty()) {
+            return;
+        }
+
+        // Select a random player
+        Player target = nearbyPlayers.get(new Random().nextInt(nearbyPlayers.size()));
+
+        // Check line of sight
+        if (!entity.hasLineOfSight(target)) {
+            return;
+        }
+
+        // Calculate direction to the player
+        Vector direction = target.getLocation().toVector().subtract(entity.getLocation().toVector()).normalize();
+
+        // Shoot a web
+        Location startLoc = entity.getLocation().add(0, 1, 0);
+        Location current = startLoc.clone();
+
+        for (int i = 0; i < range; i++) {
+            current = current.add(direction);
+
+            // Show particle trail
+            if (current.getWorld() != null) {
+                this.plugin.getParticleEmitter().spawn(current, Particle.BLOCK_CRUMBLE, 5, 0.2, 0.2, 0.2, 0, Material.COBWEB.createBlockData());
+            }
+
+            // Check for collision
+            Block block = current.getBlock();
+            if (block.getType().isSolid()) {
+                break;
             }
 
-            // Get the entity
-            LivingEntity entity = powerMob.getEntity();
+            // Check for player hit
+            for (Player player : nearbyPlayers) {
+                if (player.getLocation().distance(current) < 1.5) {
+                    // Hit a player
+                    player.addPotionEffect(new PotionEffect(
+                            PotionEffectType.SLOWNESS,
+                        durationSeconds * 20,
+                        slownessLevel,
+                            false,
+                            true,
+                            true
+                    ));
+
+                    // Place a web at the player's feet if the block is air
+                    Block playerBlock = player.getLocation().getBlock();
+                    if (playerBlock.getType() == Material.AIR || playerBlock.getType() == Material.CAVE_AIR) {
+                        playerBlock.setType(Material.COBWEB);
+                        trackWeb(playerBlock, System.currentTimeMillis() + WEB_LIFETIME_MS);
+                    }
 
-            // Look for nearby players
-            List<Player> nearbyPlayers = new ArrayList<>();
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                if (player.getGameMode() == org.bukkit.GameMode.SPECTATOR || player.getGameMode() == org.bukkit.GameMode.CREATIVE) {
-                    continue;
-                }
-                if (player.getWorld().equals(entity.getWorld()) &&
-                        player.getLocation().distance(entity.getLocation()) <= range) {
-                    nearbyPlayers.add(player);
+                    // Set cooldown
+                    powerMob.startAbilityCooldown(this, cooldownSeconds * 1000L);
+                    return;
                 }
             }
+        }
+
+        // Set cooldown even if we didn't hit
+        powerMob.startAbilityCooldown(this, cooldownSeconds * 1000L);
+    }
 
-            if (nearbyPlayers.isEmpty()) {
-                return;
+    @Override
+    public void shutdown() {
+        this.webCleanupTask.cancel();
+
+        // Remove every web that is still placed in a loaded chunk; unloaded chunks keep their PDC entries
+        for (Map.Entry<WebChunk, List<PlacedWeb>> entry : this.websByChunk.entrySet()) {
+            WebChunk webChunk = entry.getKey();
+            World world = Bukkit.getWorld(webChunk.worldId());
+            if (world == null || !world.isChunkLoaded(webChunk.x(), webChunk.z())) {
+                continue;
+            }
+            for (PlacedWeb web : entry.getValue()) {
+                clearWebBlock(world, web);
             }
+            world.getChunkAt(webChunk.x(), webChunk.z()).getPersistentDataContainer().remove(this.chunkWebsKey);
+        }
+        this.websByChunk.clear();
+        this.webExpiryQueue.clear();
+    }
 
-            // Select a random player
-            Player target = nearbyPlayers.get(new Random().nextInt(nearbyPlayers.size()));
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        restoreChunkWebs(event.getChunk());
+    }
 
-            // Check line of sight
-            if (!entity.hasLineOfSight(target)) {
-                return;
-            }
+    /**
+     * Starts tracking a placed web and records it in its chunk's PDC
+     *
+     * @param block     The block the web was placed in
+     * @param expiresAt The time in milliseconds when the web should be removed
+     */
+    private void trackWeb(Block block, long expiresAt) {
+        WebChunk webChunk = new WebChunk(block.getWorld().getUID(), block.getX() >> 4, block.getZ() >> 4);
+        PlacedWeb web = new PlacedWeb(block.getX(), block.getY(), block.getZ(), expiresAt, webChunk);
 
-            // Calculate direction to the player
-            Vector direction = target.getLocation().toVector().subtract(entity.getLocation().toVector()).normalize();
+        List<PlacedWeb> chunkWebs = this.websByChunk.computeIfAbsent(webChunk, k -> new ArrayList<>());
+        chunkWebs.removeIf(existing -> existing.samePosition(web));
+        chunkWebs.add(web);
+        this.webExpiryQueue.add(web);
 
-            // Shoot a web
-            Location startLoc = entity.getLocation().add(0, 1, 0);
-            Location current = startLoc.clone();
+        writeChunkPdc(block.getChunk(), chunkWebs);
+    }
 
-            for (int i = 0; i < range; i++) {
-                current = current.add(direction);
+    /**
+     * Removes up to {@link #MAX_WEB_REMOVALS_PER_TICK} expired webs from the head of the expiry queue
+     */
+    private void removeExpiredWebs() {
+        if (this.webExpiryQueue.isEmpty()) {
+            return;
+        }
 
-                // Show particle trail
-                if (current.getWorld() != null) {
-                    current.getWorld().spawnParticle(Particle.BLOCK_CRUMBLE, current, 5, 0.2, 0.2, 0.2, 0, Material.COBWEB.createBlockData());
-                }
+        long now = System.currentTimeMillis();
+        Set<WebChunk> touchedChunks = new HashSet<>();
+        int removed = 0;
 
-                // Check for collision
-                Block block = current.getBlock();
-                if (block.getType().isSolid()) {
-                    break;
-                }
+        while (removed < MAX_WEB_REMOVALS_PER_TICK) {
+            PlacedWeb head = this.webExpiryQueue.peek();
+            if (head == null || head.expiresAt() > now) {
+                break;
+            }
+            this.webExpiryQueue.poll();
 
-                // Check for player hit
-                for (Player player : nearbyPlayers) {
-                    if (player.getLocation().distance(current) < 1.5) {
-                        // Hit a player
-                        player.addPotionEffect(new PotionEffect(
-                                PotionEffectType.SLOWNESS,
-                            durationSeconds * 20,
-                            slownessLevel,
-                                false,
-                                true,
-                                true
-                        ));
-
-                        // Place a web at the player's feet if the block is air
-                        Block playerBlock = player.getLocation().getBlock();
-                        if (playerBlock.getType() == Material.AIR || playerBlock.getType() == Material.CAVE_AIR) {
-                            playerBlock.setType(Material.COBWEB);
-                            this.webLocations.put(playerBlock.getLocation(), System.currentTimeMillis());
-                        }
-
-                        // Set cooldown
-                        this.cooldowns.put(entityUuid, System.currentTimeMillis());
-                        return;
-                    }
+            List<PlacedWeb> chunkWebs = this.websByChunk.get(head.chunk());
+            if (chunkWebs == null || !chunkWebs.remove(head)) {
+                continue; // Stale entry, the web was replaced or already cleaned up
+            }
+            removed++;
+
+            World world = Bukkit.getWorld(head.chunk().worldId());
+            if (world == null || !world.isChunkLoaded(head.chunk().x(), head.chunk().z())) {
+                // Leave the PDC entry in place, the web is removed when the chunk loads again
+                if (chunkWebs.isEmpty()) {
+                    this.websByChunk.remove(head.chunk());
                 }
+                continue;
+            }
+
+            clearWebBlock(world, head);
+            touchedChunks.add(head.chunk());
+        }
+
+        for (WebChunk webChunk : touchedChunks) {
+            World world = Bukkit.getWorld(webChunk.worldId());
+            if (world == null) {
+                continue;
+            }
+            List<PlacedWeb> remaining = this.websByChunk.getOrDefault(webChunk, List.of());
+            if (remaining.isEmpty()) {
+                this.websByChunk.remove(webChunk);
+            }
+            writeChunkPdc(world.getChunkAt(webChunk.x(), webChunk.z()), remaining);
+        }
+
+        if (removed > 0) {
+            this.plugin.debug("Removed " + removed + " expired webs, " + this.webExpiryQueue.size() + " queued", "cleanup");
+        }
+    }
+
+    /**
+     * Reads webs persisted in a chunk's PDC, removing expired ones and re-queuing the rest
+     *
+     * @param chunk The loaded chunk
+     */
+    private void restoreChunkWebs(Chunk chunk) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        String raw = pdc.get(this.chunkWebsKey, PersistentDataType.STRING);
+        if (raw == null || raw.isBlank()) {
+            return;
+        }
+
+        World world = chunk.getWorld();
+        WebChunk webChunk = new WebChunk(world.getUID(), chunk.getX(), chunk.getZ());
+        List<PlacedWeb> chunkWebs = this.websByChunk.computeIfAbsent(webChunk, k -> new ArrayList<>());
+        long now = System.currentTimeMillis();
+        int cleared = 0;
+
+        // Format: x,y,z;expiresAt|x,y,z;expiresAt|...
+        for (String entry : raw.split("\\|")) {
+            PlacedWeb web = decodePdcEntry(entry, webChunk);
+            if (web == null) {
+                continue;
             }
+            if (chunkWebs.stream().anyMatch(existing -> existing.samePosition(web))) {
+                continue; // Already tracked in memory
+            }
+            if (web.expiresAt() <= now) {
+                clearWebBlock(world, web);
+                cleared++;
+                continue;
+            }
+            chunkWebs.add(web);
+            this.webExpiryQueue.add(web);
+        }
 
-            // Set cooldown even if we didn't hit
-            this.cooldowns.put(entityUuid, System.currentTimeMillis());
+        if (chunkWebs.isEmpty()) {
+            this.websByChunk.remove(webChunk);
+        }
+        writeChunkPdc(chunk, chunkWebs);
 
-        }, 20, 20);
+        if (cleared > 0) {
+            this.plugin.debug("Removed " + cleared + " leftover webs in chunk " + chunk.getX() + ", " + chunk.getZ(), "cleanup");
+        }
+    }
 
-        this.tasks.put(entityUuid, task);
+    private void clearWebBlock(World world, PlacedWeb web) {
+        Block block = world.getBlockAt(web.x(), web.y(), web.z());
+        if (block.getType() == Material.COBWEB) {
+            block.setType(Material.AIR);
+        }
     }
 
-    @Override
-    public void remove(PowerMob powerMob) {
-        UUID entityUuid = powerMob.getEntityUuid();
+    private void writeChunkPdc(Chunk chunk, List<PlacedWeb> chunkWebs) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        if (chunkWebs.isEmpty()) {
+            pdc.remove(this.chunkWebsKey);
+            return;
+        }
 
-        if (this.tasks.containsKey(entityUuid)) {
-            this.tasks.get(entityUuid).cancel();
-            this.tasks.remove(entityUuid);
+        StringJoiner joiner = new StringJoiner("|");
+        for (PlacedWeb web : chunkWebs) {
+            joiner.add(web.x() + "," + web.y() + "," + web.z() + ";" + web.expiresAt());
         }
+        pdc.set(this.chunkWebsKey, PersistentDataType.STRING, joiner.toString());
+    }
 
-        this.cooldowns.remove(entityUuid);
+    private PlacedWeb decodePdcEntry(String entry, WebChunk webChunk) {
+        if (entry.isBlank()) {
+            return null;
+        }
+        String[] parts = entry.split(";");
+        if (parts.length != 2) {
+            return null;
+        }
+        String[] coords = parts[0].split(",");
+        if (coords.length != 3) {
+            return null;
+        }
+        try {
+            return new PlacedWeb(
+                    Integer.parseInt(coords[0]),
+                    Integer.parseInt(coords[1]),
+                    Integer.parseInt(coords[2]),
+                    Long.parseLong(parts[1]),
+                    webChunk
+            );
+        } catch (NumberFormatException ignored) {
+            return null;
+        }
     }
 
     @Override
@@ -211,4 +405,76 @@ public class WebShotAbility extends AbstractAbility {
                 "cooldown", AbilityConfigField.integer("cooldown", this.defaultCooldown, "Cooldown until the ability can be used again")
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Identifies a chunk that holds placed webs
+     */
+    private record WebChunk(UUID worldId, int x, int z) {
+    }
+
+    /**
+     * A placed web block, the time it expires and the chunk it belongs to
+     */
+    private record PlacedWeb(int x, int y, int z, long expiresAt, WebChunk chunk) {
+
+        boolean samePosition(PlacedWeb other) {
+            return this.x == other.x && this.y == other.y && this.z == other.z;
+        }
+    }
+
+    /**
+     * Mob goal that periodically shoots webs. Runs alongside the vanilla AI, so it is
+     * skipped whenever the server is not ticking the mob.
+     */
+    private class WebShotGoal implements Goal<Mob> {
+
+        private final PowerMob powerMob;
+        private final Mob mob;
+        private final int range;
+        private final int slownessLevel;
+        private final int durationSeconds;
+        private final int cooldownSeconds;
+        private int nextCheckTick = CHECK_INTERVAL_TICKS;
+
+        private WebShotGoal(PowerMob powerMob, Mob mob, int range, int slownessLevel, int durationSeconds, int cooldownSeconds) {
+            this.powerMob = powerMob;
+            this.mob = mob;
+            this.range = range;
+            this.slownessLevel = slownessLevel;
+            this.durationSeconds = durationSeconds;
+            this.cooldownSeconds = cooldownSeconds;
+        }
+
+        @Override
+        public boolean shouldActivate() {
+            // The goal selector polls every other tick, only look for a shot once per second
+            if (this.mob.getTicksLived() < this.nextCheckTick) {
+                return false;
+            }
+            this.nextCheckTick = this.mob.getTicksLived() + CHECK_INTERVAL_TICKS;
+
+            return !this.powerMob.isAbilityOnCooldown(WebShotAbility.this);
+        }
+
+        @Override
+        public boolean shouldStayActive() {
+            return false;
+        }
+
+        @Override
+        public void start() {
+            shootWeb(this.powerMob, this.range, this.slownessLevel, this.durationSeconds, this.cooldownSeconds);
+        }
+
+        @Override
+        public GoalKey<Mob> getKey() {
+            return WebShotAbility.this.goalKey;
+        }
+
+        @Override
+        public EnumSet<GoalType> getTypes() {
+            // Shooting does not take over movement or looking, so it never blocks the vanilla goals
+            return EnumSet.noneOf(GoalType.class);
+        }
+    }
+}
@@ -2,18 +2,23 @@ package com.powermobs.mobs.equipment;
 
 import com.powermobs.PowerMobsPlugin;
 import com.powermobs.mobs.equipment.items.TriggerType;
+import lombok.Getter;
+import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Manages custom item effects - integrates with existing EquipmentManager
@@ -21,12 +26,28 @@ import java.util.Map;
 public class CustomItemEffectManager {
 
     private final PowerMobsPlugin plugin;
+    private static final ItemEffect[] NO_EFFECTS = new ItemEffect[0];
+
     private final Map<String, List<ItemEffect>> itemEffects = new HashMap<>();
+    // Effects compiled at load: item ID -> trigger -> effects, in config order
+    private final Map<String, EnumMap<TriggerType, ItemEffect[]>> effectsByTrigger = new HashMap<>();
+    // Item ID -> lower-case effect ID -> effect
+    private final Map<String, Map<String, ItemEffect>> effectsById = new HashMap<>();
+    // Materials used by configured custom items; any other item cannot carry a custom id
+    private final Set<Material> customItemMaterials = EnumSet.noneOf(Material.class);
     private final NamespacedKey customIdKey;
+    // Never reset, so reloaded effects do not inherit the cooldowns of the ones they replace
+    private int nextEffectOrdinal = 0;
+    @Getter
+    private final PlayerEffectIndex playerEffectIndex;
+    @Getter
+    private final ImmunityCache immunityCache;
 
     public CustomItemEffectManager(PowerMobsPlugin plugin) {
         this.plugin = plugin;
         this.customIdKey = new NamespacedKey(plugin, "custom-id");
+        this.playerEffectIndex = new PlayerEffectIndex(plugin);
+        this.immunityCache = new ImmunityCache(plugin);
         loadItemEffects();
     }
 
@@ -35,6 +56,9 @@ public class CustomItemEffectManager {
      */
     public void loadItemEffects() {
         itemEffects.clear();
+        effectsByTrigger.clear();
+        effectsById.clear();
+        customItemMaterials.clear();
 
         // Use the same config manager as EquipmentManager
         FileConfiguration config = plugin.getConfigManager().getItemsConfigManager().getConfig();
@@ -43,6 +67,10 @@ public class CustomItemEffectManager {
         loadEffectsFromSection(config, "equipment.armor");
         loadEffectsFromSection(config, "equipment.uniques");
 
+        // Items that gained or lost effects must be picked up again
+        playerEffectIndex.markAllDirty();
+        immunityCache.invalidateAll();
+
         plugin.getLogger().info("Loaded effects for " + itemEffects.size() + " custom items");
     }
 
@@ -57,6 +85,11 @@ public class CustomItemEffectManager {
             ConfigurationSection itemSection = section.getConfigurationSection(itemId);
             if (itemSection == null) continue;
 
+            Material material = Material.matchMaterial(itemSection.getString("material", ""));
+            if (material != null) {
+                customItemMaterials.add(material);
+            }
+
             ConfigurationSection effectsSection = itemSection.getConfigurationSection("effects");
             if (effectsSection == null) continue;
 
@@ -76,34 +109,56 @@ public class CustomItemEffectManager {
             }
 
             if (!effects.isEmpty()) {
-                itemEffects.put(itemId, effects);
+                itemEffects.put(itemId, Collections.unmodifiableList(effects));
+                compileEffects(itemId, effects);
                 plugin.debug("Loaded " + effects.size() + " effects for item: " + itemId, "save_and_load");
             }
         }
     }
 
     /**
-     * Gets the custom item ID from an ItemStack (uses same key as EquipmentManager)
+     * Builds the trigger table, the effect ID index and the effect-stack plans of an item
      */
-    public String getCustomItemId(ItemStack item) {
-        if (item == null || !item.hasItemMeta()) {
-            return null;
+    private void compileEffects(String itemId, List<ItemEffect> effects) {
+        Map<TriggerType, List<ItemEffect>> grouped = new EnumMap<>(TriggerType.class);
+        Map<String, ItemEffect> byId = new HashMap<>();
+        for (ItemEffect effect : effects) {
+            grouped.computeIfAbsent(effect.getTrigger(), k -> new ArrayList<>()).add(effect);
+            // First effect wins on duplicate IDs, matching the old linear lookup
+            byId.putIfAbsent(effect.getEffectId().toLowerCase(Locale.ROOT), effect);
         }
 
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) {
+        EnumMap<TriggerType, ItemEffect[]> table = new EnumMap<>(TriggerType.class);
+        for (Map.Entry<TriggerType, List<ItemEffect>> entry : grouped.entrySet()) {
+            table.put(entry.getKey(), entry.getValue().toArray(NO_EFFECTS));
+        }
+        effectsByTrigger.put(itemId, table);
+        effectsById.put(itemId, byId);
+
+        // Stacks only reference effects of the same item, so every plan can be built now
+        for (ItemEffect effect : effects) {
+            effect.setPlan(EffectPlan.compile(effect, byId, plugin.getLogger()));
+            effect.setOrdinal(nextEffectOrdinal++);
+        }
+    }
+
+    /**
+     * Gets the custom item ID from an ItemStack (uses same key as EquipmentManager)
+     */
+    public String getCustomItemId(ItemStack item) {
+        if (item == null || !customItemMaterials.contains(item.getType()) || !item.hasItemMeta()) {
             return null;
         }
 
-        PersistentDataContainer container = meta.getPersistentDataContainer();
-        return container.get(customIdKey, PersistentDataType.STRING);
+        // Read-only view of the item data, avoids cloning the whole item meta
+        return item.getPersistentDataContainer().get(customIdKey, PersistentDataType.STRING);
     }
 
     /**
      * Gets all effects for a custom item
      */
     public List<ItemEffect> getItemEffects(String itemId) {
-        return itemEffects.getOrDefault(itemId, new ArrayList<>());
+        return itemEffects.getOrDefault(itemId, List.of());
     }
 
     /**
@@ -112,18 +167,44 @@ public class CustomItemEffectManager {
     public List<ItemEffect> getItemEffects(ItemStack item) {
         String itemId = getCustomItemId(item);
         if (itemId == null) {
-            return new ArrayList<>();
+            return List.of();
         }
         return getItemEffects(itemId);
     }
 
     /**
-     * Gets effects for an item with a specific trigger type
+     * Gets the effects of a custom item with a specific trigger type.
+     * The returned array is shared and must not be modified.
+     */
+    public ItemEffect[] getItemEffects(String itemId, TriggerType trigger) {
+        if (itemId == null) {
+            return NO_EFFECTS;
+        }
+        EnumMap<TriggerType, ItemEffect[]> table = effectsByTrigger.get(itemId);
+        if (table == null) {
+            return NO_EFFECTS;
+        }
+        ItemEffect[] effects = table.get(trigger);
+        return effects != null ? effects : NO_EFFECTS;
+    }
+
+    /**
+     * Gets effects for an item with a specific trigger type.
+     * The returned array is shared and must not be modified.
      */
-    public List<ItemEffect> getItemEffects(ItemStack item, TriggerType trigger) {
-        return getItemEffects(item).stream()
-                .filter(effect -> effect.getTrigger() == trigger)
-                .toList();
+    public ItemEffect[] getItemEffects(ItemStack item, TriggerType trigger) {
+        return getItemEffects(getCustomItemId(item), trigger);
+    }
+
+    /**
+     * Finds an effect of a custom item by its effect ID, ignoring case
+     */
+    public ItemEffect findEffectById(String itemId, String effectId) {
+        Map<String, ItemEffect> byId = effectsById.get(itemId);
+        if (byId == null || effectId == null) {
+            return null;
+        }
+        return byId.get(effectId.toLowerCase(Locale.ROOT));
     }
 
     /**
@@ -0,0 +1,125 @@
+package com.powermobs.mobs.equipment;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Item effect cooldowns keyed by entity and effect ordinal.
+ * <p>
+ * Each entity holds its running cooldowns in small primitive arrays, and every started
+ * cooldown is queued by deadline so it is dropped as soon as it expires. Memory is bounded
+ * by the cooldowns that are currently running.
+ */
+final class EffectCooldowns {
+
+    private final Map<UUID, Table> tables = new HashMap<>();
+    private final PriorityQueue<Expiry> expiries = new PriorityQueue<>();
+
+    /**
+     * Checks if an effect is still on cooldown for an entity
+     *
+     * @param entityUuid The entity that triggered the effect
+     * @param ordinal    The effect ordinal
+     * @param now        The current time in milliseconds
+     * @return True if the cooldown has not elapsed yet
+     */
+    boolean isOnCooldown(UUID entityUuid, int ordinal, long now) {
+        Table table = this.tables.get(entityUuid);
+        return table != null && now < table.deadline(ordinal);
+    }
+
+    /**
+     * Starts the cooldown of an effect for an entity
+     *
+     * @param entityUuid The entity that triggered the effect
+     * @param ordinal    The effect ordinal
+     * @param deadline   The time in milliseconds when the effect can trigger again
+     */
+    void start(UUID entityUuid, int ordinal, long deadline) {
+        this.tables.computeIfAbsent(entityUuid, k -> new Table()).put(ordinal, deadline);
+        this.expiries.add(new Expiry(deadline, entityUuid, ordinal));
+    }
+
+    /**
+     * Drops every cooldown that has elapsed
+     *
+     * @param now The current time in milliseconds
+     */
+    void expire(long now) {
+        Expiry expiry;
+        while ((expiry = this.expiries.peek()) != null && expiry.deadline() <= now) {
+            this.expiries.poll();
+
+            Table table = this.tables.get(expiry.entityUuid());
+            if (table == null) continue;
+            // A later start replaced the deadline and queued its own expiry
+            if (table.deadline(expiry.ordinal()) > now) continue;
+
+            table.remove(expiry.ordinal());
+            if (table.size == 0) {
+                this.tables.remove(expiry.entityUuid());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of running cooldowns
+     *
+     * @return The cooldown count
+     */
+    int size() {
+        return this.expiries.size();
+    }
+
+    /**
+     * Running cooldowns of one entity, as parallel arrays scanned linearly
+     */
+    private static final class Table {
+        private int[] ordinals = new int[4];
+        private long[] deadlines = new long[4];
+        private int size = 0;
+
+        long deadline(int ordinal) {
+            int i = indexOf(ordinal);
+            return i >= 0 ? this.deadlines[i] : 0L;
+        }
+
+        void put(int ordinal, long deadline) {
+            int i = indexOf(ordinal);
+            if (i < 0) {
+                if (this.size == this.ordinals.length) {
+                    this.ordinals = Arrays.copyOf(this.ordinals, this.size * 2);
+                    this.deadlines = Arrays.copyOf(this.deadlines, this.size * 2);
+                }
+                i = this.size++;
+                this.ordinals[i] = ordinal;
+            }
+            this.deadlines[i] = deadline;
+        }
+
+        void remove(int ordinal) {
+            int i = indexOf(ordinal);
+            if (i < 0) return;
+            int last = --this.size;
+            this.ordinals[i] = this.ordinals[last];
+            this.deadlines[i] = this.deadlines[last];
+        }
+
+        private int indexOf(int ordinal) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.ordinals[i] == ordinal) return i;
+            }
+            return -1;
+        }
+    }
+
+    private record Expiry(long deadline, UUID entityUuid, int ordinal) implements Comparable<Expiry> {
+        @Override
+        public int compareTo(Expiry other) {
+            return Long.compare(this.deadline, other.deadline);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.powermobs.mobs.equipment;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Execution plan of an effect and its effect-stack, compiled once at load.
+ * <p>
+ * The stack is expanded depth-first into a flat list of steps. Each step knows its parent,
+ * the pre-parsed {@code when} conditions on the parent's outcome and its resolved chance,
+ * so triggering an effect is a single pass over the list with no recursion or parsing.
+ * Loops, missing references and stacks that are too deep or too large are rejected at load.
+ */
+final class EffectPlan {
+
+    static final int MAX_DEPTH = 12;
+    // Step outcomes are tracked in long bit sets while the plan runs
+    static final int MAX_STEPS = 64;
+
+    /**
+     * Conditions on the parent step's outcome, as bits of {@link Step#whenMask()}
+     */
+    enum StackWhen {
+        ALWAYS,
+
+        CHANCE_SUCCESS,
+        CHANCE_FAIL,
+
+        APPLY_SUCCESS,
+        APPLY_FAIL,
+
+        ANY_FAIL;
+
+        final int bit = 1 << ordinal();
+    }
+
+    private static final int ALWAYS_MASK = StackWhen.ALWAYS.bit;
+
+    /**
+     * A single effect in the plan
+     *
+     * @param effect   The effect to process
+     * @param parent   Index of the step that stacks this one, or -1 for the root
+     * @param whenMask The {@link StackWhen} bits that must match the parent's outcome
+     * @param chance   The chance to apply the effect, already resolved from stack overrides
+     * @param fromStack Whether the step was reached through an effect-stack
+     */
+    record Step(ItemEffect effect, int parent, int whenMask, double chance, boolean fromStack) {
+    }
+
+    private final Step[] steps;
+
+    private EffectPlan(Step[] steps) {
+        this.steps = steps;
+    }
+
+    Step[] getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * Checks if a step should run given the outcome of its parent
+     *
+     * @param whenMask     The step's condition bits
+     * @param chancePassed Whether the parent's chance roll passed
+     * @param applied      Whether the parent applied anything
+     * @return True if the step should run
+     */
+    static boolean matches(int whenMask, boolean chancePassed, boolean applied) {
+        if ((whenMask & ALWAYS_MASK) != 0) return true;
+
+        boolean chanceFail = !chancePassed;
+        boolean applySuccess = chancePassed && applied;
+        boolean applyFail = chancePassed && !applied;
+        boolean anyFail = chanceFail || applyFail;
+
+        return ((whenMask & StackWhen.CHANCE_SUCCESS.bit) != 0 && chancePassed)
+                || ((whenMask & StackWhen.CHANCE_FAIL.bit) != 0 && chanceFail)
+                || ((whenMask & StackWhen.APPLY_SUCCESS.bit) != 0 && applySuccess)
+                || ((whenMask & StackWhen.APPLY_FAIL.bit) != 0 && applyFail)
+                || ((whenMask & StackWhen.ANY_FAIL.bit) != 0 && anyFail);
+    }
+
+    /**
+     * Compiles the plan of a root effect
+     *
+     * @param root   The effect that is triggered directly
+     * @param byId   The effects of the same item, keyed by lower-case effect ID
+     * @param logger Logger for load-time problems
+     * @return The compiled plan
+     */
+    static EffectPlan compile(ItemEffect root, Map<String, ItemEffect> byId, Logger logger) {
+        List<Step> steps = new ArrayList<>();
+        steps.add(new Step(root, -1, ALWAYS_MASK, clamp01(root.getChance()), false));
+
+        Deque<String> path = new ArrayDeque<>();
+        path.addLast(key(root));
+        expand(root, 0, 1, byId, path, steps, logger);
+
+        return new EffectPlan(steps.toArray(new Step[0]));
+    }
+
+    private static void expand(ItemEffect origin, int originIndex, int depth, Map<String, ItemEffect> byId,
+                               Deque<String> path, List<Step> steps, Logger logger) {
+        if (!origin.hasEffectStack()) return;
+
+        for (Map.Entry<String, Map<String, Object>> entry : origin.getEffectStack().entrySet()) {
+            String stackedEffectId = entry.getKey();
+            Map<String, Object> overrides = entry.getValue() != null ? entry.getValue() : Map.of();
+            String label = origin.getItemId() + ":" + origin.getEffectId() + "' -> '" + stackedEffectId;
+
+            ItemEffect stacked = byId.get(stackedEffectId.toLowerCase(Locale.ROOT));
+            if (stacked == null) {
+                logger.warning("[ItemEffects] effect-stack references missing effect '" + stackedEffectId +
+                        "' on item '" + origin.getItemId() + "' (origin effect '" + origin.getEffectId() + "'). Entry ignored.");
+                continue;
+            }
+
+            String stackedKey = key(stacked);
+            if (path.contains(stackedKey)) {
+                logger.warning("[ItemEffects] effect-stack loop detected: " + String.join(" -> ", path) + " -> " + stackedKey +
+                        ". Entry ignored.");
+                continue;
+            }
+
+            if (depth > MAX_DEPTH) {
+                logger.warning("[ItemEffects] effect-stack of '" + path.peekFirst() + "' exceeds the max depth of " + MAX_DEPTH +
+                        " at '" + label + "'. Entry ignored.");
+                continue;
+            }
+
+            if (steps.size() >= MAX_STEPS) {
+                logger.warning("[ItemEffects] effect-stack of '" + path.peekFirst() + "' expands to more than " + MAX_STEPS +
+                        " effects. '" + label + "' and the remaining entries are ignored.");
+                return;
+            }
+
+            int index = steps.size();
+            // - chance defaults to 1.0 for stacks
+            // - if overrides define "chance", it replaces the stacked effect's own chance
+            steps.add(new Step(stacked, originIndex, parseWhenMask(overrides.get("when"), label, logger),
+                    parseChance(overrides.get("chance"), label, logger), true));
+
+            path.addLast(stackedKey);
+            expand(stacked, index, depth + 1, byId, path, steps, logger);
+            path.removeLast();
+        }
+    }
+
+    private static int parseWhenMask(Object raw, String label, Logger logger) {
+        if (raw == null) {
+            return StackWhen.APPLY_SUCCESS.bit;
+        }
+
+        if (!(raw instanceof Iterable<?> it)) {
+            logger.warning("[ItemEffects] effect-stack.when must be a YAML list for '" + label + "'. " +
+                    "Example: when: [APPLY_FAIL, CHANCE_FAIL]. Value was: " + raw);
+            return StackWhen.APPLY_SUCCESS.bit;
+        }
+
+        int mask = 0;
+        for (Object tokenObj : it) {
+            if (tokenObj == null) continue;
+            String token = tokenObj.toString();
+            if (token.isEmpty()) continue;
+
+            try {
+                mask |= StackWhen.valueOf(token.toUpperCase(Locale.ROOT)).bit;
+            } catch (IllegalArgumentException ex) {
+                logger.warning("[ItemEffects] Invalid effect-stack.when token '" + token + "' for '" + label +
+                        "'. Valid: " + Arrays.toString(StackWhen.values()));
+            }
+        }
+
+        if (mask == 0) {
+            logger.warning("[ItemEffects] Invalid/empty effect-stack.when list for '" + label + "'. Using default APPLY_SUCCESS.");
+            mask = StackWhen.APPLY_SUCCESS.bit;
+        }
+        return mask;
+    }
+
+    private static double parseChance(Object raw, String label, Logger logger) {
+        if (raw instanceof Number n) return clamp01(n.doubleValue());
+        if (raw instanceof String s) {
+            try {
+                return clamp01(Double.parseDouble(s));
+            } catch (NumberFormatException ex) {
+                logger.warning("[ItemEffects] Invalid effect-stack chance value '" + s + "' for '" + label + "'. Using default 1.0");
+            }
+        }
+        return 1.0;
+    }
+
+    private static String key(ItemEffect effect) {
+        return effect.getItemId() + ":" + effect.getEffectId();
+    }
+
+    private static double clamp01(double v) {
+        return Math.max(0.0, Math.min(1.0, v));
+    }
+}
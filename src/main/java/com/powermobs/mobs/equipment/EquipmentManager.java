@@ -598,8 +598,9 @@ public class EquipmentManager {
                 break;
             default:
                 this.plugin.getLogger().warning("Invalid equipment slot: " + slot);
-                break;
+                return;
         }
+        this.plugin.getItemEffectManager().getImmunityCache().invalidate(entity);
     }
 
     private ItemStack createVanillaItem(String id) {
@@ -0,0 +1,189 @@
+package com.powermobs.mobs.equipment;
+
+import com.powermobs.PowerMobsPlugin;
+import com.powermobs.mobs.equipment.items.EffectType;
+import com.powermobs.mobs.equipment.items.TargetType;
+import com.powermobs.mobs.equipment.items.TriggerType;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.inventory.EntityEquipment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionEffectType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Caches the persistent immunities granted to each entity by the items it carries.
+ * Persistent immunities are IMMUNITY effects on self without a cooldown, held in hand,
+ * worn as armor or carried in the hotbar or inventory.
+ * <p>
+ * Entries are computed on first use and dropped when the entity's items change, so most
+ * checks are a single flag test.
+ */
+public class ImmunityCache {
+
+    private static final int FIRE = 1;
+    private static final int FALL = 1 << 1;
+    private static final int POTION = 1 << 2;
+
+    private static final Immunities NONE = new Immunities(0, new ItemEffect[0]);
+
+    private final PowerMobsPlugin plugin;
+    private final Map<UUID, Immunities> immunitiesByEntity = new HashMap<>();
+
+    public ImmunityCache(PowerMobsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Checks if an entity is immune to fire
+     *
+     * @param entity The entity
+     * @return True if any carried item clears fire persistently
+     */
+    public boolean isImmuneToFire(LivingEntity entity) {
+        return entity != null && (get(entity).flags() & FIRE) != 0;
+    }
+
+    /**
+     * Checks if an entity is immune to fall damage
+     *
+     * @param entity The entity
+     * @return True if any carried item negates fall damage persistently
+     */
+    public boolean isImmuneToFall(LivingEntity entity) {
+        return entity != null && (get(entity).flags() & FALL) != 0;
+    }
+
+    /**
+     * Checks if an entity is immune to a potion effect at a level
+     *
+     * @param entity        The entity
+     * @param type          The potion effect type
+     * @param levelOneBased The effect level, starting at 1
+     * @return True if any carried item grants immunity at that level
+     */
+    public boolean isImmuneToPotion(LivingEntity entity, PotionEffectType type, int levelOneBased) {
+        if (entity == null || type == null) return false;
+
+        Immunities immunities = get(entity);
+        if ((immunities.flags() & POTION) == 0) return false;
+
+        for (ItemEffect immunity : immunities.potionImmunities()) {
+            int maxImmune = immunity.getImmuneMaxLevelFor(type);
+            if (maxImmune >= 1 && levelOneBased <= maxImmune) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the cached immunities of an entity whose items changed
+     *
+     * @param entity The entity
+     */
+    public void invalidate(Entity entity) {
+        this.immunitiesByEntity.remove(entity.getUniqueId());
+    }
+
+    /**
+     * Drops the cached immunities of an entity that is gone
+     *
+     * @param entityUuid The entity UUID
+     */
+    public void forget(UUID entityUuid) {
+        this.immunitiesByEntity.remove(entityUuid);
+    }
+
+    /**
+     * Drops every cached entry, for example after item effects were reloaded
+     */
+    public void invalidateAll() {
+        this.immunitiesByEntity.clear();
+    }
+
+    private Immunities get(LivingEntity entity) {
+        Immunities immunities = this.immunitiesByEntity.get(entity.getUniqueId());
+        if (immunities == null) {
+            immunities = compute(entity);
+            this.immunitiesByEntity.put(entity.getUniqueId(), immunities);
+        }
+        return immunities;
+    }
+
+    private Immunities compute(LivingEntity entity) {
+        List<ItemEffect> found = new ArrayList<>();
+        EntityEquipment eq = entity.getEquipment();
+        if (eq != null) {
+            // Hands -> HOLDING
+            addItemImmunities(found, eq.getItemInMainHand(), TriggerType.HOLDING);
+            addItemImmunities(found, eq.getItemInOffHand(), TriggerType.HOLDING);
+
+            // Armor -> EQUIPPED
+            addItemImmunities(found, eq.getHelmet(), TriggerType.EQUIPPED);
+            addItemImmunities(found, eq.getChestplate(), TriggerType.EQUIPPED);
+            addItemImmunities(found, eq.getLeggings(), TriggerType.EQUIPPED);
+            addItemImmunities(found, eq.getBoots(), TriggerType.EQUIPPED);
+        }
+
+        // Inventory-based persistent immunities (HOTBAR/INVENTORY)
+        if (entity instanceof HumanEntity human) {
+            var inv = human.getInventory();
+
+            for (int i = 0; i < 9; i++) {
+                addItemImmunities(found, inv.getItem(i), TriggerType.HOTBAR);
+            }
+
+            // Storage contents: main inventory + hotbar
+            var storage = inv.getStorageContents();
+            if (storage != null) {
+                for (ItemStack stack : storage) {
+                    addItemImmunities(found, stack, TriggerType.INVENTORY);
+                }
+            }
+        }
+
+        if (found.isEmpty()) {
+            return NONE;
+        }
+
+        int flags = 0;
+        List<ItemEffect> potionImmunities = new ArrayList<>();
+        for (ItemEffect immunity : found) {
+            if (immunity.isClearFire()) flags |= FIRE;
+            if (immunity.isNegateFallDamage()) flags |= FALL;
+            if (!immunity.getImmunePotionMaxLevels().isEmpty()) {
+                flags |= POTION;
+                potionImmunities.add(immunity);
+            }
+        }
+        return new Immunities(flags, potionImmunities.toArray(new ItemEffect[0]));
+    }
+
+    private void addItemImmunities(List<ItemEffect> out, ItemStack item, TriggerType expectedTrigger) {
+        if (item == null) return;
+
+        // Only effects of the holding/equipped scope
+        for (ItemEffect e : this.plugin.getItemEffectManager().getItemEffects(item, expectedTrigger)) {
+            if (e.getEffectType() != EffectType.IMMUNITY) continue;
+            if (e.getCooldown() != 0) continue;                 // persistent only
+            if (e.getTargetType() != TargetType.SELF) continue; // applies to holder only
+            out.add(e);
+        }
+    }
+
+    /**
+     * The resolved immunities of an entity
+     *
+     * @param flags            Immunity flag bits
+     * @param potionImmunities The effects granting potion immunities
+     */
+    private record Immunities(int flags, ItemEffect[] potionImmunities) {
+    }
+}
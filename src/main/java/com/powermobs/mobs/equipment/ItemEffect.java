@@ -3,7 +3,9 @@ package com.powermobs.mobs.equipment;
 import com.powermobs.config.ParticleEffectConfig;
 import com.powermobs.config.SoundEffectConfig;
 import com.powermobs.mobs.equipment.items.*;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.potion.PotionEffectType;
 
@@ -53,6 +55,15 @@ public class ItemEffect {
     private final Map<String, Integer> immunePotionMaxLevels;
     private final boolean negateFallDamage;
 
+    // Compiled by the effect manager once every effect of the item is loaded
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private EffectPlan plan;
+
+    // Unique per loaded effect, keys the effect's cooldowns
+    @Setter(AccessLevel.PACKAGE)
+    private int ordinal = -1;
+
 
     /**
      * Creates a new item effect from configuration
@@ -140,7 +151,7 @@ public class ItemEffect {
         this.immunePotionMaxLevels = Collections.unmodifiableMap(tmp);
 
         ConfigurationSection stackSection = section.getConfigurationSection("effect-stack");
-        Map<String, Map<String, Object>> tmpStack = new HashMap<>();
+        Map<String, Map<String, Object>> tmpStack = new LinkedHashMap<>();
         if (stackSection != null) {
             for (String childId : stackSection.getKeys(false)) {
                 ConfigurationSection childSection = stackSection.getConfigurationSection(childId);
@@ -4,25 +4,18 @@ import com.powermobs.PowerMobsPlugin;
 import com.powermobs.config.ParticleEffectConfig;
 import com.powermobs.config.SoundEffectConfig;
 import com.powermobs.mobs.PowerMob;
-import com.powermobs.mobs.equipment.items.Shape;
-import org.bukkit.Bukkit;
+import lombok.Getter;
 import org.bukkit.entity.*;
-import org.bukkit.scheduler.BukkitTask;
-import com.powermobs.mobs.equipment.items.EffectType;
 import com.powermobs.mobs.equipment.items.TargetType;
 import com.powermobs.mobs.equipment.items.TriggerType;
 import org.bukkit.Location;
-import org.bukkit.Particle;
 import org.bukkit.Sound;
 import org.bukkit.attribute.Attribute;
-import org.bukkit.inventory.EntityEquipment;
-import org.bukkit.inventory.ItemStack;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import org.bukkit.util.Vector;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Processes and applies item effects
@@ -30,97 +23,107 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ItemEffectProcessor {
 
     private final PowerMobsPlugin plugin;
-    private final Map<String, Long> cooldowns = new ConcurrentHashMap<>();
+    private final EffectCooldowns cooldowns = new EffectCooldowns();
+    @Getter
+    private final PassivePotionTracker passivePotionTracker = new PassivePotionTracker();
     private final Random random = new Random();
 
-    private enum StackWhen {
-        ALWAYS,
-
-        CHANCE_SUCCESS,
-        CHANCE_FAIL,
-
-        APPLY_SUCCESS,
-        APPLY_FAIL,
-
-        ANY_FAIL
-    }
-
+    // Outcome of a single plan step
+    private static final int STEP_ON_COOLDOWN = -1;
+    private static final int STEP_CHANCE_PASSED = 1;
+    private static final int STEP_APPLIED = 2;
 
     public ItemEffectProcessor(PowerMobsPlugin plugin) {
         this.plugin = plugin;
 
-        // Schedule cooldown cleanup every 5 minutes
+        // Drop elapsed cooldowns every second
         if (plugin.getServer().getScheduler() != null) {
-            plugin.getServer().getScheduler().runTaskTimer(plugin, this::cleanupExpiredCooldowns, 6000L, 6000L);
+            plugin.getServer().getScheduler().runTaskTimer(plugin, () -> cooldowns.expire(System.currentTimeMillis()), 20L, 20L);
         }
     }
 
     public void processEffect(ItemEffect effect, LivingEntity triggerEntity,
                               LivingEntity targetEntity, Location location) {
-
-        processEffectInternal(effect, triggerEntity, targetEntity, location, null, false, new HashSet<>(), 0);
-    }
-
-    private void processEffectInternal(
-            ItemEffect effect,
-            LivingEntity triggerEntity,
-            LivingEntity targetEntity,
-            Location location,
-            Map<String, Object> stackOverrides,
-            boolean fromStack,
-            Set<String> chain,
-            int depth
-    ) {
         if (effect == null) return;
 
-        if (depth > 12) {
-            plugin.getLogger().warning("[ItemEffects] effect-stack exceeded max depth (possible loop).");
+        EffectPlan plan = effect.getPlan();
+        if (plan == null) {
+            // Not compiled by the effect manager, run the effect on its own
+            runStep(effect, Math.max(0.0, Math.min(1.0, effect.getChance())), triggerEntity, targetEntity, location);
             return;
         }
 
-        String chainKey = effect.getItemId() + ":" + effect.getEffectId();
-        if (!chain.add(chainKey)) {
-            plugin.getLogger().warning("[ItemEffects] effect-stack loop detected at " + chainKey + " (skipping).");
-            return;
-        }
+        // Outcome bits per step index, plans are capped at 64 steps
+        long ran = 0L;
+        long passed = 0L;
+        long applied = 0L;
 
-        if (effect.getCooldown() > 0 && triggerEntity != null) {
-            String cooldownKey = createCooldownKey(triggerEntity, effect);
-            if (isOnCooldown(cooldownKey, effect.getCooldown())) {
-                return;
+        EffectPlan.Step[] steps = plan.getSteps();
+        for (int i = 0; i < steps.length; i++) {
+            EffectPlan.Step step = steps[i];
+
+            if (step.fromStack()) {
+                long parentBit = 1L << step.parent();
+                if ((ran & parentBit) == 0) continue;
+                if (!EffectPlan.matches(step.whenMask(), (passed & parentBit) != 0, (applied & parentBit) != 0)) continue;
+
+                if (!isContextCompatible(step.effect(), triggerEntity, targetEntity, location)) {
+                    ItemEffect origin = steps[step.parent()].effect();
+                    plugin.getLogger().warning("[ItemEffects] effect-stack effect '" + step.effect().getEffectId() +
+                            "' is not compatible with the trigger context of '" + origin.getItemId() + ":" + origin.getEffectId() + "' (skipping).");
+                    continue;
+                }
             }
+
+            int outcome = runStep(step.effect(), step.chance(), triggerEntity, targetEntity, location);
+            if (outcome == STEP_ON_COOLDOWN) continue;
+
+            long bit = 1L << i;
+            ran |= bit;
+            if ((outcome & STEP_CHANCE_PASSED) != 0) passed |= bit;
+            if ((outcome & STEP_APPLIED) != 0) applied |= bit;
         }
+    }
 
-        final double chance = resolveChance(effect, stackOverrides, fromStack);
-        final boolean chancePassed = random.nextDouble() <= chance;
+    /**
+     * Rolls and applies a single effect, starting its cooldown when it applied anything
+     *
+     * @return {@link #STEP_ON_COOLDOWN}, or the {@link #STEP_CHANCE_PASSED} and {@link #STEP_APPLIED} bits
+     */
+    private int runStep(ItemEffect effect, double chance, LivingEntity triggerEntity, LivingEntity targetEntity, Location location) {
+        boolean hasCooldown = effect.getCooldown() > 0 && effect.getOrdinal() >= 0 && triggerEntity != null;
+        if (hasCooldown && cooldowns.isOnCooldown(triggerEntity.getUniqueId(), effect.getOrdinal(), System.currentTimeMillis())) {
+            return STEP_ON_COOLDOWN;
+        }
 
-        boolean appliedAnything = false;
+        if (random.nextDouble() > chance) {
+            return 0;
+        }
 
-        if (chancePassed) {
-            if (effect.usesCenter()) {
-                Location center = resolveCenterLocation(effect, triggerEntity, targetEntity, location);
-                if (center != null) {
-                    appliedAnything = applyCenteredEffect(effect, center, triggerEntity);
-                }
-            } else {
-                List<LivingEntity> targets = getTargetEntities(effect, triggerEntity, targetEntity, location);
-                if (targets != null && !targets.isEmpty()) {
-                    for (LivingEntity target : targets) {
-                        applyTargetEffect(effect, target, location, triggerEntity);
-                    }
-                    appliedAnything = true;
+        boolean appliedAnything = false;
+        if (effect.usesCenter()) {
+            Location center = resolveCenterLocation(effect, triggerEntity, targetEntity, location);
+            if (center != null) {
+                appliedAnything = applyCenteredEffect(effect, center, triggerEntity);
+            }
+        } else {
+            List<LivingEntity> targets = getTargetEntities(effect, triggerEntity, targetEntity, location);
+            if (targets != null && !targets.isEmpty()) {
+                for (LivingEntity target : targets) {
+                    applyTargetEffect(effect, target, location, triggerEntity);
                 }
+                appliedAnything = true;
             }
+        }
 
-            if (appliedAnything && effect.getCooldown() > 0 && triggerEntity != null) {
-                String cooldownKey = createCooldownKey(triggerEntity, effect);
-                cooldowns.put(cooldownKey, System.currentTimeMillis());
-            }
+        if (!appliedAnything) {
+            return STEP_CHANCE_PASSED;
         }
 
-        if (effect.hasEffectStack()) {
-            triggerEffectStack(effect, triggerEntity, targetEntity, location, chain, depth, chancePassed, appliedAnything);
+        if (hasCooldown) {
+            cooldowns.start(triggerEntity.getUniqueId(), effect.getOrdinal(), System.currentTimeMillis() + effect.getCooldown() * 1000L);
         }
+        return STEP_CHANCE_PASSED | STEP_APPLIED;
     }
 
     private boolean applyCenteredEffect(ItemEffect effect, Location center, LivingEntity caster) {
@@ -146,167 +149,6 @@ public class ItemEffectProcessor {
         };
     }
 
-    private void triggerEffectStack(
-            ItemEffect origin,
-            LivingEntity triggerEntity,
-            LivingEntity targetEntity,
-            Location location,
-            Set<String> chain,
-            int depth,
-            boolean chancePassed,
-            boolean appliedAnything
-    ) {
-        if (plugin.getItemEffectManager() == null) return;
-
-        for (Map.Entry<String, Map<String, Object>> entry : origin.getEffectStack().entrySet()) {
-            String stackedEffectId = entry.getKey();
-            Map<String, Object> overrides = entry.getValue() != null ? entry.getValue() : Map.of();
-
-            EnumSet<StackWhen> whenSet = parseStackWhenSet(
-                    overrides.get("when"),
-                    origin.getItemId(),
-                    origin.getEffectId(),
-                    stackedEffectId
-            );
-
-            if (!shouldRunStackEntry(whenSet, chancePassed, appliedAnything)) {
-                continue;
-            }
-
-            ItemEffect stacked = findEffectById(origin.getItemId(), stackedEffectId);
-            if (stacked == null) {
-                plugin.getLogger().warning("[ItemEffects] effect-stack references missing effect '" + stackedEffectId +
-                        "' on item '" + origin.getItemId() + "' (origin effect '" + origin.getEffectId() + "').");
-                continue;
-            }
-
-            if (!isContextCompatible(stacked, triggerEntity, targetEntity, location)) {
-                plugin.getLogger().warning("[ItemEffects] effect-stack effect '" + stackedEffectId +
-                        "' is not compatible with the trigger context of '" + origin.getItemId() + ":" + origin.getEffectId() + "' (skipping).");
-                continue;
-            }
-
-            // - chance defaults to 1.0 for stacks
-            // - if overrides define "chance", it replaces the stacked effect's own chance
-            processEffectInternal(stacked, triggerEntity, targetEntity, location, overrides, true, new HashSet<>(chain), depth + 1);
-        }
-    }
-
-    private static boolean shouldRunStackEntry(EnumSet<StackWhen> whenSet, boolean chancePassed, boolean appliedAnything) {
-        if (whenSet.contains(StackWhen.ALWAYS)) return true;
-
-        boolean chanceFail = !chancePassed;
-
-        boolean applySuccess = chancePassed && appliedAnything;
-        boolean applyFail = chancePassed && !appliedAnything;
-
-        boolean anyFail = chanceFail || applyFail;
-
-        for (StackWhen w : whenSet) {
-            switch (w) {
-                case CHANCE_SUCCESS -> { if (chancePassed) return true; }
-                case CHANCE_FAIL -> { if (chanceFail) return true; }
-                case APPLY_SUCCESS -> { if (applySuccess) return true; }
-                case APPLY_FAIL -> { if (applyFail) return true; }
-                case ANY_FAIL -> { if (anyFail) return true; }
-                default -> { /* handled above */ }
-            }
-        }
-        return false;
-    }
-
-    private EnumSet<StackWhen> parseStackWhenSet(Object raw, String originItemId, String originEffectId, String stackedEffectId) {
-        EnumSet<StackWhen> out = EnumSet.noneOf(StackWhen.class);
-
-        if (raw == null) {
-            out.add(StackWhen.APPLY_SUCCESS);
-            return out;
-        }
-
-        if (!(raw instanceof Iterable<?> it)) {
-            plugin.getLogger().warning("[ItemEffects] effect-stack.when must be a YAML list for '" +
-                    originItemId + ":" + originEffectId + "' -> '" + stackedEffectId + "'. " +
-                    "Example: when: [APPLY_FAIL, CHANCE_FAIL]. Value was: " + raw);
-            out.add(StackWhen.APPLY_SUCCESS);
-            return out;
-        }
-
-        for (Object o : it) {
-            addWhenToken(out, o, originItemId, originEffectId, stackedEffectId);
-        }
-
-        if (out.isEmpty()) {
-            plugin.getLogger().warning("[ItemEffects] Invalid/empty effect-stack.when list for '" + originItemId + ":" + originEffectId +
-                    "' -> '" + stackedEffectId + "'. Using default APPLY_SUCCESS.");
-            out.add(StackWhen.APPLY_SUCCESS);
-        }
-
-        return out;
-    }
-
-    private void addWhenToken(EnumSet<StackWhen> out, Object tokenObj, String originItemId, String originEffectId, String stackedEffectId) {
-        if (tokenObj == null) return;
-
-        String token = tokenObj.toString();
-        if (token.isEmpty()) return;
-
-        try {
-            out.add(StackWhen.valueOf(token.toUpperCase(Locale.ROOT)));
-        } catch (IllegalArgumentException ex) {
-            plugin.getLogger().warning("[ItemEffects] Invalid effect-stack.when token '" + token + "' for '" +
-                    originItemId + ":" + originEffectId + "' -> '" + stackedEffectId + "'. Valid: " +
-                    Arrays.toString(StackWhen.values()));
-        }
-    }
-
-    private ItemEffect findEffectById(String itemId, String effectId) {
-        var all = plugin.getItemEffectManager().getItemEffects(itemId);
-        if (all == null) return null;
-
-        for (ItemEffect e : all) {
-            if (e == null) continue;
-            if (effectId.equalsIgnoreCase(e.getEffectId())) {
-                return e;
-            }
-        }
-        return null;
-    }
-
-    private double resolveChance(ItemEffect effect, Map<String, Object> stackOverrides, boolean fromStack) {
-        if (fromStack) {
-            Object v = (stackOverrides != null) ? stackOverrides.get("chance") : null;
-            if (v instanceof Number n) return clamp01(n.doubleValue());
-            if (v instanceof String s) {
-                try {
-                    return clamp01(Double.parseDouble(s));
-                } catch (NumberFormatException ex) {
-                    plugin.getLogger().warning("[ItemEffects] Invalid effect-stack chance value '" + s + "' for " +
-                            effect.getItemId() + ":" + effect.getEffectId() + ". Using default 1.0");
-                    return 1.0;
-                }
-            }
-            return 1.0;
-        }
-
-        return clamp01(effect.getChance());
-    }
-
-    private static double clamp01(double v) {
-        return Math.max(0.0, Math.min(1.0, v));
-    }
-
-    private String createCooldownKey(LivingEntity entity, ItemEffect effect) {
-        return entity.getUniqueId() + ":" + effect.getEffectType() + ":" + effect.getTrigger() + ":" + System.identityHashCode(effect);
-    }
-
-    private void cleanupExpiredCooldowns() {
-        long currentTime = System.currentTimeMillis();
-        cooldowns.entrySet().removeIf(entry -> {
-            long timePassed = (currentTime - entry.getValue()) / 1000;
-            return timePassed > 3600; // Remove cooldowns older than 1 hour
-        });
-    }
-
     private List<LivingEntity> getTargetEntities(ItemEffect effect, LivingEntity triggerEntity,
                                                  LivingEntity targetEntity, Location location) {
         TargetType targetType = effect.getTargetType();
@@ -340,7 +182,7 @@ public class ItemEffectProcessor {
         switch (effect.getEffectType()) {
             case POTION -> applyPotionEffect(effect, target);
             case IGNITE -> {
-                if (!hasPersistentFireImmunity(target)) {
+                if (!plugin.getItemEffectManager().getImmunityCache().isImmuneToFire(target)) {
                     target.setFireTicks(effect.getFireTicks());
                 }
             }
@@ -369,7 +211,12 @@ public class ItemEffectProcessor {
             }
 
             int levelOneBased = Math.max(1, effect.getPotionLevel());
-            if (hasPersistentPotionImmunity(target, potionType, levelOneBased)) return false;
+            if (plugin.getItemEffectManager().getImmunityCache().isImmuneToPotion(target, potionType, levelOneBased)) return false;
+
+            // Passive effects are requested every second, only refresh them when they run low
+            if (effect.getTrigger().isPassive() && target instanceof Player player) {
+                return passivePotionTracker.apply(player, potionType, toTick(effect.getPotionDuration()), levelOneBased - 1);
+            }
 
             PotionEffect potionEffect = new PotionEffect(
                     potionType,
@@ -502,99 +349,15 @@ public class ItemEffectProcessor {
     private void spawnParticles(ItemEffect effect, Location location) {
         if (location == null || location.getWorld() == null) return;
 
-        final Particle particle;
         if (effect.getParticleEffectConfig() == null) {
             plugin.getLogger().warning("[ItemEffects] Invalid particle config for " +
                     effect.getItemId() + ":" + effect.getEffectId());
             return;
         }
         ParticleEffectConfig config = effect.getParticleEffectConfig();
-        try {
-
-            particle = Particle.valueOf(config.getParticleType().toUpperCase());
-        } catch (Exception e) {
+        if (!plugin.getParticleEmitter().playEffect(config, location)) {
             plugin.getLogger().warning("[ItemEffects] Invalid particle type '" + config.getParticleType() + "' for " +
                     effect.getItemId() + ":" + effect.getEffectId());
-            return;
-        }
-
-        final int perTickCount = config.getParticleCount();
-        if (perTickCount <= 0) return;
-
-        final double radius = config.getParticleRadius();
-        final Shape shape = config.getParticleShape();
-
-        Runnable burst = () -> spawnParticleBurst(location, particle, perTickCount, radius, shape);
-
-        int durationSeconds = config.getParticleDurationSeconds();
-        if (durationSeconds <= 0) {
-            burst.run();
-            return;
-        }
-
-        int interval = config.getParticleIntervalTicks();
-        int runs = Math.max(1, (durationSeconds * 20) / interval);
-
-        final int[] remaining = { runs };
-        final BukkitTask[] task = { null };
-
-        task[0] = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            if (remaining[0]-- <= 0) {
-                if (task[0] != null) task[0].cancel();
-                return;
-            }
-            burst.run();
-        }, 0L, interval);
-    }
-
-    private void spawnParticleBurst(Location base, Particle particle, int count, double radius, Shape shape) {
-        if (base.getWorld() == null) return;
-
-        Location origin = base.clone();
-
-        for (int i = 0; i < count; i++) {
-            Vector offset = switch (shape) {
-                case SQUARE -> randomPointInSquare(radius);
-                case CIRCLE ->  randomPointInCircle(radius);
-                case CUBE -> randomPointInCube(radius);
-                case ORB -> randomPointInSphere(radius);
-            };
-
-            Location at = origin.clone().add(offset);
-            origin.getWorld().spawnParticle(particle, at, 1, 0, 0, 0, 0);
-        }
-    }
-
-    private Vector randomPointInSquare(double radius){
-        if (radius <= 0) return new Vector(0, 0, 0);
-        return new Vector(random.nextDouble() * radius * 2 - radius, 0.0, random.nextDouble() * radius * 2 - radius);
-    }
-
-    private Vector randomPointInCube(double radius){
-        if (radius <= 0) return new Vector(0, 0, 0);
-        return new Vector(random.nextDouble() * radius * 2 - radius, random.nextDouble() * radius * 2 - radius, random.nextDouble() * radius * 2 - radius);
-    }
-
-    private Vector randomPointInCircle(double radius) {
-        if (radius <= 0) return new Vector(0, 0, 0);
-
-        double t = random.nextDouble() * (Math.PI * 2);
-        double r = Math.sqrt(random.nextDouble()) * radius;
-        double x = Math.cos(t) * r;
-        double z = Math.sin(t) * r;
-        return new Vector(x, 0.0, z);
-    }
-
-    private Vector randomPointInSphere(double radius) {
-        if (radius <= 0) return new Vector(0, 0, 0);
-
-        while (true) {
-            double x = (random.nextDouble() * 2 - 1) * radius;
-            double y = (random.nextDouble() * 2 - 1) * radius;
-            double z = (random.nextDouble() * 2 - 1) * radius;
-            if ((x * x + y * y + z * z) <= (radius * radius)) {
-                return new Vector(x, y, z);
-            }
         }
     }
 
@@ -661,85 +424,6 @@ public class ItemEffectProcessor {
     }
 
 
-    private boolean hasPersistentPotionImmunity(LivingEntity target, PotionEffectType type, int levelOneBased) {
-        if (plugin.getItemEffectManager() == null || target == null || type == null) return false;
-
-        for (ItemEffect immunity : collectPersistentImmunities(target)) {
-            int maxImmune = immunity.getImmuneMaxLevelFor(type);
-            if (maxImmune >= 1 && levelOneBased <= maxImmune) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean hasPersistentFireImmunity(LivingEntity target) {
-        if (plugin.getItemEffectManager() == null || target == null) return false;
-
-        for (ItemEffect immunity : collectPersistentImmunities(target)) {
-            if (immunity.isClearFire()) return true;
-        }
-        return false;
-    }
-
-    private List<ItemEffect> collectPersistentImmunities(LivingEntity entity) {
-        List<ItemEffect> out = new ArrayList<>();
-        EntityEquipment eq = entity.getEquipment();
-        if (eq != null) {
-            // Hands -> HOLDING
-            addItemImmunities(out, eq.getItemInMainHand(), TriggerType.HOLDING);
-            addItemImmunities(out, eq.getItemInOffHand(), TriggerType.HOLDING);
-
-            // Armor -> EQUIPPED
-            addItemImmunities(out, eq.getHelmet(), TriggerType.EQUIPPED);
-            addItemImmunities(out, eq.getChestplate(), TriggerType.EQUIPPED);
-            addItemImmunities(out, eq.getLeggings(), TriggerType.EQUIPPED);
-            addItemImmunities(out, eq.getBoots(), TriggerType.EQUIPPED);
-        }
-
-        // Inventory-based persistent immunities (HOTBAR/INVENTORY)
-        if (entity instanceof HumanEntity human) {
-            var pinv = human.getInventory();
-
-            // HOTBAR immunities
-            for (int i = 0; i < 9; i++) {
-                addItemImmunities(out, pinv.getItem(i), TriggerType.HOTBAR);
-            }
-
-            // INVENTORY immunities
-            var storage = pinv.getStorageContents();
-            if (storage != null) {
-                for (ItemStack stack : storage) {
-                    addItemImmunities(out, stack, TriggerType.INVENTORY);
-                }
-            }
-        }
-
-        return out;
-    }
-
-    private void addItemImmunities(List<ItemEffect> out, ItemStack item, TriggerType expectedTrigger) {
-        if (item == null || plugin.getItemEffectManager() == null) return;
-
-        for (ItemEffect e : plugin.getItemEffectManager().getItemEffects(item)) {
-            if (e.getEffectType() != EffectType.IMMUNITY) continue;
-            if (e.getCooldown() != 0) continue;                 // persistent only
-            if (e.getTargetType() != TargetType.SELF) continue; // applies to holder only
-            if (e.getTrigger() != expectedTrigger) continue;    // holding/equipped scope
-            out.add(e);
-        }
-    }
-
-    private boolean isOnCooldown(String key, int cooldownSeconds) {
-        if (!cooldowns.containsKey(key)) {
-            return false;
-        }
-
-        long lastUse = cooldowns.get(key);
-        long timePassed = (System.currentTimeMillis() - lastUse) / 1000;
-        return timePassed < cooldownSeconds;
-    }
-
     private boolean isAlly(LivingEntity entity1, LivingEntity entity2) {
         if (entity1 == null || entity2 == null) return false;
 
@@ -0,0 +1,66 @@
+package com.powermobs.mobs.equipment;
+
+import org.bukkit.entity.Player;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies the potion effects that held, carried and worn items grant to players.
+ * <p>
+ * The periodic effect pass requests the same effects every second. An effect the plugin
+ * applied is only refreshed once its remaining duration drops below a threshold, so an
+ * unchanged effect does not fire a potion event and send an effect packet on every pass.
+ */
+public class PassivePotionTracker {
+
+    // Remaining ticks below which an effect is refreshed, with margin over the one second pass
+    private static final int REFRESH_THRESHOLD_TICKS = 60;
+
+    // Player UUID -> effect type -> amplifier last applied by the plugin
+    private final Map<UUID, Map<PotionEffectType, Integer>> appliedByPlayer = new HashMap<>();
+
+    /**
+     * Applies a passive potion effect unless the plugin's previous application is still running
+     *
+     * @param player        The player
+     * @param type          The effect type
+     * @param durationTicks The effect duration in ticks
+     * @param amplifier     The effect amplifier
+     * @return True if the effect is active, whether it was refreshed or skipped
+     */
+    public boolean apply(Player player, PotionEffectType type, int durationTicks, int amplifier) {
+        Map<PotionEffectType, Integer> applied = this.appliedByPlayer.get(player.getUniqueId());
+        Integer appliedAmplifier = applied != null ? applied.get(type) : null;
+
+        if (appliedAmplifier != null && appliedAmplifier == amplifier && durationTicks > REFRESH_THRESHOLD_TICKS) {
+            PotionEffect active = player.getPotionEffect(type);
+            if (active != null && active.getAmplifier() == amplifier
+                    && (active.isInfinite() || active.getDuration() > REFRESH_THRESHOLD_TICKS)) {
+                return true;
+            }
+        }
+
+        if (!player.addPotionEffect(new PotionEffect(type, durationTicks, amplifier))) {
+            return false;
+        }
+        if (applied == null) {
+            applied = new HashMap<>();
+            this.appliedByPlayer.put(player.getUniqueId(), applied);
+        }
+        applied.put(type, amplifier);
+        return true;
+    }
+
+    /**
+     * Drops the tracked effects of a player who left
+     *
+     * @param playerUuid The player UUID
+     */
+    public void forget(UUID playerUuid) {
+        this.appliedByPlayer.remove(playerUuid);
+    }
+}
@@ -0,0 +1,96 @@
+package com.powermobs.mobs.equipment;
+
+import com.powermobs.PowerMobsPlugin;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers which inventory slots of each player hold items with effects.
+ * Inventory events mark a player dirty and the slots are rescanned on the next lookup,
+ * so the periodic effect pass only reads the slots that matter.
+ */
+public class PlayerEffectIndex {
+
+    /**
+     * Raw player inventory slots: 0-8 hotbar, 9-35 storage, 36-39 armor, 40 off hand
+     */
+    public static final int HOTBAR_END = 9;
+    public static final int STORAGE_END = 36;
+    public static final int ARMOR_END = 40;
+    public static final int OFF_HAND_SLOT = 40;
+    private static final int SLOT_COUNT = 41;
+
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final PowerMobsPlugin plugin;
+    private final Map<UUID, int[]> slotsByPlayer = new HashMap<>();
+
+    public PlayerEffectIndex(PowerMobsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Gets the raw slots of a player that hold items with effects, ascending.
+     * Rescans the inventory when the player has been marked dirty.
+     *
+     * @param player The player
+     * @return The effect-bearing slots, empty if the player carries no custom items
+     */
+    public int[] getEffectSlots(Player player) {
+        int[] slots = this.slotsByPlayer.get(player.getUniqueId());
+        if (slots == null) {
+            slots = scan(player.getInventory());
+            this.slotsByPlayer.put(player.getUniqueId(), slots);
+        }
+        return slots;
+    }
+
+    /**
+     * Marks a player's inventory as changed so it is rescanned on the next lookup
+     *
+     * @param player The player
+     */
+    public void markDirty(Player player) {
+        this.slotsByPlayer.remove(player.getUniqueId());
+    }
+
+    /**
+     * Marks every player as changed, for example after item effects were reloaded
+     */
+    public void markAllDirty() {
+        this.slotsByPlayer.clear();
+    }
+
+    /**
+     * Drops the index of a player who left
+     *
+     * @param playerUuid The player UUID
+     */
+    public void forget(UUID playerUuid) {
+        this.slotsByPlayer.remove(playerUuid);
+    }
+
+    private int[] scan(PlayerInventory inventory) {
+        int[] found = new int[SLOT_COUNT];
+        int count = 0;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            ItemStack stack = inventory.getItem(slot);
+            if (stack == null || stack.getType().isAir()) continue;
+            if (!this.plugin.getItemEffectManager().getItemEffects(stack).isEmpty()) {
+                found[count++] = slot;
+            }
+        }
+
+        if (count == 0) {
+            return NO_SLOTS;
+        }
+        int[] slots = new int[count];
+        System.arraycopy(found, 0, slots, 0, count);
+        return slots;
+    }
+}
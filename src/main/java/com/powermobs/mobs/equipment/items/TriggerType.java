@@ -12,5 +12,14 @@ public enum TriggerType {
     RIGHT_CLICK,   // PlayerInteractEvent (use item)
     SHOOT_PROJECTILE,
     PROJECTILE_HIT,
-    BLOCK_BREAK
+    BLOCK_BREAK;
+
+    /**
+     * Checks if the trigger is fired by the periodic pass over carried items
+     *
+     * @return True for held, hotbar, inventory and equipped items
+     */
+    public boolean isPassive() {
+        return this == HOLDING || this == HOTBAR || this == INVENTORY || this == EQUIPPED;
+    }
 }
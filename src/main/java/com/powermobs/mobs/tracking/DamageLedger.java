@@ -0,0 +1,277 @@
+package com.powermobs.mobs.tracking;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Damage dealt to one power mob, per player.
+ * <p>
+ * Contributors are stored in parallel arrays with an open-addressed index by UUID, so a hit
+ * is a lookup and an add with no boxing. The total and the top contributors are kept up to
+ * date as hits arrive: damage only ever grows, so a player can only enter the top list by
+ * passing its smallest entry, and moving an entry up is at most {@code K} swaps.
+ */
+public class DamageLedger {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private UUID[] players = new UUID[INITIAL_CAPACITY];
+    private double[] damage = new double[INITIAL_CAPACITY];
+    // Rank of each contributor in the top list, or -1
+    private int[] topRank = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Contributor index + 1 per hash slot, 0 when empty; twice the contributor capacity
+    private int[] index = new int[INITIAL_CAPACITY * 2];
+
+    // Contributor indexes ordered by damage, highest first
+    private final int[] top;
+    private int topSize = 0;
+
+    private double total = 0.0;
+
+    // Time of the last hit in epoch milliseconds, used for idle expiry
+    private long lastHitMillis = System.currentTimeMillis();
+    // Set while the mob's chunk is unloaded
+    private boolean suspended = false;
+
+    /**
+     * Creates a new ledger
+     *
+     * @param topCapacity The number of top contributors to keep ordered
+     */
+    public DamageLedger(int topCapacity) {
+        this.top = new int[Math.max(1, topCapacity)];
+    }
+
+    /**
+     * Adds damage dealt by a player
+     *
+     * @param playerUuid The player UUID
+     * @param amount     The damage dealt
+     */
+    public void add(UUID playerUuid, double amount) {
+        int i = indexOf(playerUuid);
+        if (i < 0) {
+            i = insert(playerUuid);
+        }
+        this.damage[i] += amount;
+        this.total += amount;
+        this.lastHitMillis = System.currentTimeMillis();
+        promote(i);
+    }
+
+    /**
+     * Gets the damage dealt by a player
+     *
+     * @param playerUuid The player UUID
+     * @return The damage, or 0 if the player did not hit the mob
+     */
+    public double getDamage(UUID playerUuid) {
+        int i = indexOf(playerUuid);
+        return i >= 0 ? this.damage[i] : 0.0;
+    }
+
+    /**
+     * Gets the total damage dealt to the mob
+     *
+     * @return The total damage
+     */
+    public double getTotal() {
+        return this.total;
+    }
+
+    /**
+     * Gets the number of players who damaged the mob
+     *
+     * @return The contributor count
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets a contributor by position, in the order they first hit the mob
+     *
+     * @param i The position, from 0 to {@link #size()} - 1
+     * @return The player UUID
+     */
+    public UUID getPlayer(int i) {
+        return this.players[i];
+    }
+
+    /**
+     * Gets the damage of a contributor by position
+     *
+     * @param i The position, from 0 to {@link #size()} - 1
+     * @return The damage
+     */
+    public double getDamageAt(int i) {
+        return this.damage[i];
+    }
+
+    /**
+     * Gets the positions of the highest contributors, highest damage first.
+     * Served from the top list when it is long enough; asking for more than the top capacity
+     * orders every contributor once instead.
+     *
+     * @param count The number of contributors wanted
+     * @return Up to {@code count} positions for {@link #getPlayer(int)} and {@link #getDamageAt(int)}
+     */
+    public int[] getTopPositions(int count) {
+        int wanted = Math.min(count, this.size);
+        if (wanted <= this.topSize) {
+            return Arrays.copyOf(this.top, wanted);
+        }
+
+        int[] order = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            int j = i;
+            while (j > 0 && this.damage[order[j - 1]] < this.damage[i]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        return Arrays.copyOf(order, wanted);
+    }
+
+    /**
+     * Gets the number of tracked top contributors
+     *
+     * @return The top list size, at most the top capacity
+     */
+    public int getTopCount() {
+        return this.topSize;
+    }
+
+    /**
+     * Gets a top contributor
+     *
+     * @param rank The rank, 0 being the highest damage
+     * @return The player UUID
+     */
+    public UUID getTopPlayer(int rank) {
+        return this.players[this.top[rank]];
+    }
+
+    /**
+     * Gets the damage of a top contributor
+     *
+     * @param rank The rank, 0 being the highest damage
+     * @return The damage
+     */
+    public double getTopDamage(int rank) {
+        return this.damage[this.top[rank]];
+    }
+
+    /**
+     * Gets the time of the last hit
+     *
+     * @return The time in epoch milliseconds
+     */
+    public long getLastHitMillis() {
+        return this.lastHitMillis;
+    }
+
+    /**
+     * Checks if the mob's chunk is unloaded
+     *
+     * @return True if the ledger is suspended
+     */
+    public boolean isSuspended() {
+        return this.suspended;
+    }
+
+    /**
+     * Marks the mob's chunk as unloaded or loaded again
+     *
+     * @param suspended Whether the ledger is suspended
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+    }
+
+    /**
+     * Gets an estimate of the memory held by this ledger
+     *
+     * @return The estimated size in bytes
+     */
+    public long estimateBytes() {
+        // Per contributor slot: UUID reference, damage and rank; plus the hash index, the top list and the UUIDs
+        return 64L + (long) this.players.length * (4 + 8 + 4) + (long) this.index.length * 4
+                + (long) this.top.length * 4 + (long) this.size * 32;
+    }
+
+    private void promote(int i) {
+        int rank = this.topRank[i];
+        if (rank < 0) {
+            if (this.topSize < this.top.length) {
+                rank = this.topSize++;
+            } else {
+                int last = this.top.length - 1;
+                if (this.damage[i] <= this.damage[this.top[last]]) {
+                    return;
+                }
+                this.topRank[this.top[last]] = -1;
+                rank = last;
+            }
+            this.top[rank] = i;
+            this.topRank[i] = rank;
+        }
+
+        while (rank > 0 && this.damage[this.top[rank - 1]] < this.damage[i]) {
+            int above = this.top[rank - 1];
+            this.top[rank] = above;
+            this.topRank[above] = rank;
+            rank--;
+        }
+        this.top[rank] = i;
+        this.topRank[i] = rank;
+    }
+
+    private int indexOf(UUID playerUuid) {
+        int mask = this.index.length - 1;
+        for (int slot = hash(playerUuid) & mask; ; slot = (slot + 1) & mask) {
+            int entry = this.index[slot];
+            if (entry == 0) return -1;
+            if (this.players[entry - 1].equals(playerUuid)) return entry - 1;
+        }
+    }
+
+    private int insert(UUID playerUuid) {
+        if (this.size == this.players.length) {
+            grow();
+        }
+        int i = this.size++;
+        this.players[i] = playerUuid;
+        this.topRank[i] = -1;
+        place(i);
+        return i;
+    }
+
+    private void place(int i) {
+        int mask = this.index.length - 1;
+        int slot = hash(this.players[i]) & mask;
+        while (this.index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.index[slot] = i + 1;
+    }
+
+    private void grow() {
+        int capacity = this.players.length * 2;
+        this.players = Arrays.copyOf(this.players, capacity);
+        this.damage = Arrays.copyOf(this.damage, capacity);
+        this.topRank = Arrays.copyOf(this.topRank, capacity);
+        this.index = new int[capacity * 2];
+        for (int i = 0; i < this.size; i++) {
+            place(i);
+        }
+    }
+
+    private static int hash(UUID uuid) {
+        int h = uuid.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -11,19 +11,32 @@ import org.bukkit.entity.Tameable;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.projectiles.ProjectileSource;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Tracks damage done to power mobs
  */
 public class DamageTracker {
 
+    private static final long EXPIRY_INTERVAL_TICKS = 1200L;
+
     private final PowerMobsPlugin plugin;
-    private final Map<UUID, Map<UUID, Double>> mobDamageTracker = new HashMap<>();
+    // Mob entity UUID -> damage ledger
+    private final Map<UUID, DamageLedger> mobDamageTracker = new HashMap<>();
+
+    // Hits of the current tick, applied to the ledgers and stats once per (mob, player) by flush()
+    private PowerMob[] pendingMobs = new PowerMob[64];
+    private UUID[] pendingPlayers = new UUID[64];
+    private double[] pendingDamage = new double[64];
+    // Ally damage counts towards the owner's share but not their stats
+    private boolean[] pendingStats = new boolean[64];
+    private int pendingCount = 0;
+    // Merged slot of each (mob, player, stats) in the current flush, reused across flushes
+    private final Map<PendingKey, Integer> pendingSlots = new HashMap<>();
 
     /**
      * Creates a new damage tracker
@@ -32,6 +45,7 @@ public class DamageTracker {
      */
     public DamageTracker(PowerMobsPlugin plugin) {
         this.plugin = plugin;
+        plugin.getServer().getScheduler().runTaskTimer(plugin, this::expireIdleLedgers, EXPIRY_INTERVAL_TICKS, EXPIRY_INTERVAL_TICKS);
     }
 
     /**
@@ -44,9 +58,6 @@ public class DamageTracker {
         UUID mobUuid = mob.getEntityUuid();
         double damage = event.getFinalDamage();
 
-        // Get or create damage map for this mob
-        Map<UUID, Double> damageMap = mobDamageTracker.computeIfAbsent(mobUuid, k -> new HashMap<>());
-
         // Determine the player that caused the damage
         Player player = getPlayerFromDamageEvent(event);
         if (player == null) {
@@ -56,7 +67,7 @@ public class DamageTracker {
                 UUID ownerUuid = getAllyOwnerUuid(damager);
                 if (ownerUuid != null) {
                     // Add damage to the owner's total
-                    damageMap.merge(ownerUuid, damage, Double::sum);
+                    queueHit(mob, ownerUuid, damage, false);
                     plugin.debug("Registered " + String.format("%.2f", damage) + " ally damage to mob " + mobUuid + " from " +
                             (Bukkit.getPlayer(ownerUuid) != null ? Bukkit.getPlayer(ownerUuid).getName() : ownerUuid), "mob_combat");
                 }
@@ -65,46 +76,42 @@ public class DamageTracker {
         }
 
         // Add damage to the player's total
-        damageMap.merge(player.getUniqueId(), damage, Double::sum);
-        CachedStats.updatePlayerStats(player.getUniqueId(), mob.getId(), 0, 0, damage, 0);
+        queueHit(mob, player.getUniqueId(), damage, true);
         plugin.debug("Registered " + String.format("%.2f", damage) + " damage to mob " + mob.getId() + "    UUID: " + mobUuid + " from " + player.getName(), "mob_combat");
-        plugin.debug("After adding damage, total damage map for mob " + mobUuid + ": " + formatDamageMapForDebug(damageMap), "mob_combat");
     }
 
     public void registerSpecialDamage(Player player, PowerMob mob, double damage) {
-        Map<UUID, Double> damageMap = mobDamageTracker.computeIfAbsent(mob.getEntityUuid(), k -> new HashMap<>());
-
-        damageMap.merge(player.getUniqueId(), damage, Double::sum);
-        CachedStats.updatePlayerStats(player.getUniqueId(), mob.getId(), 0, 0, damage, 0);
+        queueHit(mob, player.getUniqueId(), damage, true);
 
         plugin.debug("Registered " + String.format("%.2f", damage) + " damage to mob " + mob.getId() + "    UUID: " + mob.getEntityUuid() + " from " + player.getName(), "mob_combat");
     }
 
     public void calculateMobDeathInvolvement(PowerMob mob, int include, double damagePercent){
+        flush();
         UUID identifier = mob.getEntityUuid();
-        if (!mobDamageTracker.containsKey(identifier)) {
+        DamageLedger ledger = mobDamageTracker.get(identifier);
+        if (ledger == null) {
             plugin.debug("Mob id: " + mob.getId() + "   UUID: " + identifier + " is not being tracked, so it cannot be qualified for drops", "drops");
             return;
         }
-        Map<UUID, Double> damageMap = mobDamageTracker.get(identifier);
 
-        double totalDamage = getTotalDamage(damageMap);
+        double totalDamage = ledger.getTotal();
         if (totalDamage <= 0.0) {
             return;
         }
 
         double requiredFraction = damagePercent / 100.0;
 
-        List<Map.Entry<UUID, Double>> topPlayers = damageMap.entrySet().stream()
-                .filter(entry -> (entry.getValue() / totalDamage) >= requiredFraction)
-                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
-                .limit(include)
-                .toList();
-        for (Map.Entry<UUID, Double> entry : topPlayers){
-            CachedStats.updatePlayerStats(entry.getKey(), mob.getId(), 1, 0, 0, 0);
+        // Ordered by damage, so the first player below the share ends the kills. The count can exceed the
+        // top capacity the ledger was created with, for example after a config reload
+        for (int position : ledger.getTopPositions(include)) {
+            if (ledger.getDamageAt(position) / totalDamage < requiredFraction) {
+                break;
+            }
+            CachedStats.updatePlayerStats(ledger.getPlayer(position), mob.getId(), 1, 0, 0, 0);
         }
-        for (Map.Entry<UUID, Double> entry : damageMap.entrySet()){
-            CachedStats.updatePlayerStats(entry.getKey(), mob.getId(), 0, 0, 0, totalDamage);
+        for (int i = 0; i < ledger.size(); i++){
+            CachedStats.updatePlayerStats(ledger.getPlayer(i), mob.getId(), 0, 0, 0, totalDamage);
         }
     }
 
@@ -112,11 +119,13 @@ public class DamageTracker {
         CachedStats.updatePlayerStats(player.getUniqueId(), mob.getId(), 0, 1, 0, 0);
     }
 
-    private String formatDamageMapForDebug(Map<UUID, Double> damageMap) {
-        return damageMap.entrySet().stream()
-                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                .map(e -> resolvePlayerName(e.getKey()) + "=" + String.format("%.2f", e.getValue()))
-                .collect(Collectors.joining(", ", "{", "}"));
+    private String formatLedgerForDebug(DamageLedger ledger) {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int rank = 0; rank < ledger.getTopCount(); rank++) {
+            joiner.add(resolvePlayerName(ledger.getTopPlayer(rank)) + "=" + String.format("%.2f", ledger.getTopDamage(rank)));
+        }
+        int others = ledger.size() - ledger.getTopCount();
+        return others > 0 ? joiner + " +" + others + " more" : joiner.toString();
     }
 
     private String resolvePlayerName(UUID playerUuid) {
@@ -137,16 +146,17 @@ public class DamageTracker {
      * @return True if the player has done enough damage
      */
     public boolean hasPlayerDoneEnoughDamage(PowerMob mob, Player player) {
+        flush();
         UUID mobUuid = mob.getEntityUuid();
 
-        if (!mobDamageTracker.containsKey(mobUuid)) {
+        DamageLedger ledger = mobDamageTracker.get(mobUuid);
+        if (ledger == null) {
             plugin.debug("Mob " + mobUuid + " is not being tracked, so it cannot be qualified for drops", "drops");
             return false;
         }
 
-        Map<UUID, Double> damageMap = mobDamageTracker.get(mobUuid);
-        double totalDamage = getTotalDamage(damageMap);
-        double playerDamage = damageMap.getOrDefault(player.getUniqueId(), 0.0);
+        double totalDamage = ledger.getTotal();
+        double playerDamage = ledger.getDamage(player.getUniqueId());
 
         double percentage = (totalDamage > 0) ? (playerDamage / totalDamage) * 100.0 : 0.0;
 
@@ -165,17 +175,166 @@ public class DamageTracker {
      * @param mobUuid The UUID of the mob to clean up
      */
     public void cleanupMob(UUID mobUuid) {
+        flush();
         mobDamageTracker.remove(mobUuid);
     }
 
     /**
-     * Gets the total damage done to a mob
+     * Applies the hits buffered since the last flush, merged per mob and player.
+     * Runs at the end of every tick and before anything reads the ledgers.
+     */
+    public void flush() {
+        if (pendingCount == 0) {
+            return;
+        }
+
+        // Merge hits on the same mob by the same player into the first of them
+        int distinct = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            Integer target = pendingSlots.putIfAbsent(new PendingKey(pendingMobs[i], pendingPlayers[i], pendingStats[i]), distinct);
+            if (target != null) {
+                pendingDamage[target] += pendingDamage[i];
+            } else {
+                pendingMobs[distinct] = pendingMobs[i];
+                pendingPlayers[distinct] = pendingPlayers[i];
+                pendingDamage[distinct] = pendingDamage[i];
+                pendingStats[distinct] = pendingStats[i];
+                distinct++;
+            }
+        }
+
+        boolean debug = plugin.getConfigManager().isDebugEnabled();
+        for (int i = 0; i < distinct; i++) {
+            PowerMob mob = pendingMobs[i];
+            // A killing blow flushes after the entity is already dead, so only hits on an unregistered mob
+            // without a ledger are late; they must not start a new ledger after the death payout
+            DamageLedger ledger = mobDamageTracker.get(mob.getEntityUuid());
+            if (ledger == null) {
+                if (plugin.getPowerMobManager().getPowerMob(mob.getPowerMobUuid()) != mob) continue;
+                ledger = getOrCreateLedger(mob.getEntityUuid());
+            }
+            ledger.add(pendingPlayers[i], pendingDamage[i]);
+            if (pendingStats[i]) {
+                CachedStats.updatePlayerStats(pendingPlayers[i], mob.getId(), 0, 0, pendingDamage[i], 0);
+            }
+            if (debug) {
+                plugin.debug("After adding damage, top damage for mob " + mob.getEntityUuid() + ": " + formatLedgerForDebug(ledger), "mob_combat");
+            }
+        }
+
+        pendingSlots.clear();
+        Arrays.fill(pendingMobs, 0, pendingCount, null);
+        Arrays.fill(pendingPlayers, 0, pendingCount, null);
+        pendingCount = 0;
+    }
+
+    private void queueHit(PowerMob mob, UUID playerUuid, double damage, boolean recordStats) {
+        if (pendingCount == pendingMobs.length) {
+            int capacity = pendingCount * 2;
+            pendingMobs = Arrays.copyOf(pendingMobs, capacity);
+            pendingPlayers = Arrays.copyOf(pendingPlayers, capacity);
+            pendingDamage = Arrays.copyOf(pendingDamage, capacity);
+            pendingStats = Arrays.copyOf(pendingStats, capacity);
+        }
+        pendingMobs[pendingCount] = mob;
+        pendingPlayers[pendingCount] = playerUuid;
+        pendingDamage[pendingCount] = damage;
+        pendingStats[pendingCount] = recordStats;
+        pendingCount++;
+    }
+
+    /**
+     * Keeps a mob's damage while its chunk is unloaded, so the fight can resume when it loads again
+     *
+     * @param mobUuid The UUID of the mob
+     */
+    public void suspendMob(UUID mobUuid) {
+        DamageLedger ledger = mobDamageTracker.get(mobUuid);
+        if (ledger != null) {
+            ledger.setSuspended(true);
+        }
+    }
+
+    /**
+     * Marks a mob whose chunk loaded again as active
+     *
+     * @param mobUuid The UUID of the mob
+     */
+    public void resumeMob(UUID mobUuid) {
+        DamageLedger ledger = mobDamageTracker.get(mobUuid);
+        if (ledger != null) {
+            ledger.setSuspended(false);
+        }
+    }
+
+    /**
+     * Checks if a mob's damage is kept because its chunk is unloaded
+     *
+     * @param mobUuid The UUID of the mob
+     * @return True if the mob's ledger is suspended
+     */
+    public boolean isSuspended(UUID mobUuid) {
+        flush();
+        DamageLedger ledger = mobDamageTracker.get(mobUuid);
+        return ledger != null && ledger.isSuspended();
+    }
+
+    /**
+     * Gets the number of mobs with tracked damage
+     *
+     * @return The ledger count
+     */
+    public int getLedgerCount() {
+        return mobDamageTracker.size();
+    }
+
+    /**
+     * Gets an estimate of the memory held by all damage ledgers
      *
-     * @param damageMap The damage map for the mob
-     * @return The total damage
+     * @return The estimated size in bytes
+     */
+    public long estimateLedgerBytes() {
+        long bytes = 0;
+        for (DamageLedger ledger : mobDamageTracker.values()) {
+            bytes += ledger.estimateBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Forgets damage to mobs that have not been hit within the configured idle time
+     */
+    private void expireIdleLedgers() {
+        flush();
+        long idleMillis = plugin.getConfigManager().getDamageLedgerIdleMinutes() * 60_000L;
+        long now = System.currentTimeMillis();
+        int before = mobDamageTracker.size();
+        mobDamageTracker.values().removeIf(ledger -> now - ledger.getLastHitMillis() > idleMillis);
+
+        plugin.debug("Damage ledgers: " + mobDamageTracker.size() + " (" + (before - mobDamageTracker.size()) + " expired), ~" +
+                (estimateLedgerBytes() / 1024) + " KB", "cleanup");
+    }
+
+    /**
+     * Gets the damage ledger of a mob, creating it on the first hit
+     *
+     * @param mobUuid The UUID of the mob
+     * @return The damage ledger
+     */
+    private DamageLedger getOrCreateLedger(UUID mobUuid) {
+        DamageLedger ledger = mobDamageTracker.get(mobUuid);
+        if (ledger == null) {
+            // Keep enough players ordered for the death payout
+            ledger = new DamageLedger(plugin.getConfigManager().getPlayerInvolvementCount());
+            mobDamageTracker.put(mobUuid, ledger);
+        }
+        return ledger;
+    }
+
+    /**
+     * Key of a buffered hit; power mobs compare by identity
      */
-    private double getTotalDamage(Map<UUID, Double> damageMap) {
-        return damageMap.values().stream().mapToDouble(Double::doubleValue).sum();
+    private record PendingKey(PowerMob mob, UUID playerUuid, boolean recordStats) {
     }
 
     /**
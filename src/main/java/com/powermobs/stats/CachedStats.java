@@ -2,15 +2,32 @@ package com.powermobs.stats;
 
 import com.powermobs.PowerMobsPlugin;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 
 public class CachedStats {
 
     // ONLY holds data for players currently logged into the server
     private static final Map<UUID, Map<String, MobStats>> playerMobStats = new ConcurrentHashMap<>();
     private static final Map<String, GlobalStats> globalStats = new ConcurrentHashMap<>();
+    // (player, mob) pairs updated since they were last written to the database
+    private static final Set<StatsKey> dirtyKeys = ConcurrentHashMap.newKeySet();
+
+    private static final GlobalStats EMPTY_GLOBAL_STATS = new GlobalStats(0, 0, 0.0);
+
+    // Held while a change is logged and applied, and while a flush takes its snapshot and rotates the log
+    static final Object JOURNAL_LOCK = new Object();
+    private static volatile StatsDeltaLog deltaLog;
 
     public static void addJoinedPlayer(UUID playerUuid, Map<String, MobStats> mobList) {
         if (playerMobStats.containsKey(playerUuid)) {
@@ -22,21 +39,34 @@ public class CachedStats {
     public static void removePlayer(UUID playerUuid, boolean updateDatabase) {
         if (updateDatabase) {
             PowerMobsPlugin.getInstance().getStatsManager().flushSinglePlayerStats(playerUuid);
+        } else {
+            drainDirty(playerUuid);
         }
         playerMobStats.remove(playerUuid);
     }
 
     public static void deletePlayer(UUID playerUuid) {
-        playerMobStats.put(playerUuid, new ConcurrentHashMap<>());
+        StatsDeltaLog log = deltaLog;
+        byte[] record = log != null ? StatsDeltaLog.encodeWipe(playerUuid) : null;
+
+        synchronized (JOURNAL_LOCK) {
+            // Logged in order with the changes, so a replay drops the earlier ones instead of restoring them
+            if (record != null) {
+                log.append(record);
+            }
+            playerMobStats.put(playerUuid, new ConcurrentHashMap<>());
+            drainDirty(playerUuid);
+        }
         PowerMobsPlugin.getInstance().getStatsManager().clearAllPlayerData(playerUuid);
     }
 
     public static Map<String, MobStats> getPlayerMobStats(UUID playerUuid) {
-        return playerMobStats.getOrDefault(playerUuid, new ConcurrentHashMap<>());
+        Map<String, MobStats> mobMap = playerMobStats.get(playerUuid);
+        return mobMap != null ? mobMap : Collections.emptyMap();
     }
 
     public static GlobalStats getGlobalStats(String mobId) {
-        return globalStats.getOrDefault(mobId, new GlobalStats(0, 0, 0.0));
+        return globalStats.getOrDefault(mobId, EMPTY_GLOBAL_STATS);
     }
 
     public static Map<UUID, Map<String, MobStats>> getAllPlayerMobStats() {
@@ -55,50 +85,138 @@ public class CachedStats {
         Map<String, MobStats> mobMap = playerMobStats.computeIfAbsent(playerUuid, k -> new ConcurrentHashMap<>());
         MobStats mobStats = mobMap.computeIfAbsent(mobId, k -> new MobStats(0, 0, 0.0, 0.0));
 
-        mobStats.kills += addKills;
-        mobStats.deaths += addDeaths;
-        mobStats.totalDamage += damageDealt;
-        mobStats.lastUpdated = System.currentTimeMillis();
-        mobStats.maxDamage = Math.max(mobStats.maxDamage, maxDamageDealt);
-        mobStats.markDirty();
+        // Encoded before taking the lock, which then only covers copying the record and applying the change
+        StatsDeltaLog log = deltaLog;
+        byte[] record = log != null ? StatsDeltaLog.encode(playerUuid, mobId, addKills, addDeaths, damageDealt, maxDamageDealt) : null;
+        StatsKey key = new StatsKey(playerUuid, mobId);
+
+        synchronized (JOURNAL_LOCK) {
+            if (record != null) {
+                log.append(record);
+            }
+            mobStats.add(addKills, addDeaths, damageDealt, maxDamageDealt);
+            // Marked after the values change, so a flush that already took the key picks the change up next time
+            dirtyKeys.add(key);
+        }
 
-        GlobalStats totalMobRecords = globalStats.computeIfAbsent(mobId, k -> new GlobalStats(0, 0, 0.0));
+        globalStats.computeIfAbsent(mobId, k -> new GlobalStats(0, 0, 0.0)).add(addKills, addDeaths, damageDealt);
+    }
 
-        totalMobRecords.totalKills += addKills;
-        totalMobRecords.totalDeaths += addDeaths;
-        totalMobRecords.totalDamage += damageDealt;
+    /**
+     * Sets the log that every change is appended to until it reaches the database
+     *
+     * @param log The delta log, or null to stop logging
+     */
+    static void setDeltaLog(StatsDeltaLog log) {
+        deltaLog = log;
+    }
+
+    /**
+     * Takes every dirty (player, mob) pair, clearing them from the dirty set
+     *
+     * @return The pairs to write to the database
+     */
+    public static List<StatsKey> drainDirty() {
+        List<StatsKey> drained = new ArrayList<>();
+        for (Iterator<StatsKey> it = dirtyKeys.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    /**
+     * Takes the dirty (player, mob) pairs of one player, clearing them from the dirty set
+     *
+     * @param playerUuid The player UUID
+     * @return The pairs to write to the database
+     */
+    public static List<StatsKey> drainDirty(UUID playerUuid) {
+        List<StatsKey> drained = new ArrayList<>();
+        for (Iterator<StatsKey> it = dirtyKeys.iterator(); it.hasNext(); ) {
+            StatsKey key = it.next();
+            if (key.playerUuid().equals(playerUuid)) {
+                drained.add(key);
+                it.remove();
+            }
+        }
+        return drained;
     }
 
+    /**
+     * Marks pairs dirty again, for example after writing them to the database failed
+     *
+     * @param keys The pairs to mark
+     */
+    public static void markDirty(Collection<StatsKey> keys) {
+        dirtyKeys.addAll(keys);
+    }
+
+    /**
+     * Identifies the stats of one player against one power mob
+     *
+     * @param playerUuid The player UUID
+     * @param mobId      The power mob ID
+     */
+    public record StatsKey(UUID playerUuid, String mobId) {
+    }
+
+    /**
+     * A player's stats against one power mob.
+     * Counters are striped adders, so concurrent updates never block and never lose increments.
+     */
     public static class MobStats {
-        public int kills;
-        public int deaths;
-        public double maxDamage;
-        public double totalDamage;
-        public long lastUpdated;
-        private boolean isDirty = false;
+        private final LongAdder kills = new LongAdder();
+        private final LongAdder deaths = new LongAdder();
+        private final DoubleAccumulator maxDamage = new DoubleAccumulator(Math::max, 0.0);
+        private final DoubleAdder totalDamage = new DoubleAdder();
+        private volatile long lastUpdated;
 
         public MobStats(int kills, int deaths, double maxDamage, double totalDamage) {
-            this.kills = kills;
-            this.deaths = deaths;
-            this.maxDamage = maxDamage;
-            this.totalDamage = totalDamage;
+            this.kills.add(kills);
+            this.deaths.add(deaths);
+            this.maxDamage.accumulate(maxDamage);
+            this.totalDamage.add(totalDamage);
+            this.lastUpdated = System.currentTimeMillis();
+        }
+
+        void add(int addKills, int addDeaths, double damageDealt, double maxDamageDealt) {
+            if (addKills != 0) this.kills.add(addKills);
+            if (addDeaths != 0) this.deaths.add(addDeaths);
+            if (damageDealt != 0) this.totalDamage.add(damageDealt);
+            if (maxDamageDealt > 0) this.maxDamage.accumulate(maxDamageDealt);
             this.lastUpdated = System.currentTimeMillis();
         }
 
-        public synchronized void markClean() { this.isDirty = false; }
-        public synchronized void markDirty() { this.isDirty = true; }
-        public synchronized boolean isDirty() { return this.isDirty; }
+        public int getKills() { return this.kills.intValue(); }
+        public int getDeaths() { return this.deaths.intValue(); }
+        public double getMaxDamage() { return this.maxDamage.get(); }
+        public double getTotalDamage() { return this.totalDamage.sum(); }
+        public long getLastUpdated() { return this.lastUpdated; }
     }
 
+    /**
+     * Server-wide totals for one power mob
+     */
     public static class GlobalStats {
-        public int totalKills;
-        public int totalDeaths;
-        public double totalDamage;
+        private final LongAdder totalKills = new LongAdder();
+        private final LongAdder totalDeaths = new LongAdder();
+        private final DoubleAdder totalDamage = new DoubleAdder();
 
         public GlobalStats(int totalKills, int totalDeaths, double totalDamage) {
-            this.totalKills = totalKills;
-            this.totalDeaths = totalDeaths;
-            this.totalDamage = totalDamage;
+            this.totalKills.add(totalKills);
+            this.totalDeaths.add(totalDeaths);
+            this.totalDamage.add(totalDamage);
         }
+
+        void add(int addKills, int addDeaths, double damageDealt) {
+            if (addKills != 0) this.totalKills.add(addKills);
+            if (addDeaths != 0) this.totalDeaths.add(addDeaths);
+            if (damageDealt != 0) this.totalDamage.add(damageDealt);
+        }
+
+        public int getTotalKills() { return this.totalKills.intValue(); }
+        public int getTotalDeaths() { return this.totalDeaths.intValue(); }
+        public double getTotalDamage() { return this.totalDamage.sum(); }
     }
 }
@@ -0,0 +1,374 @@
+package com.powermobs.stats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Online conversion of {@code player_mob_stats} from text player UUIDs and mob IDs to 16-byte
+ * UUIDs and integer keys from the {@code mobs} table.
+ * <p>
+ * The schema migration only creates the new table; rows are copied afterwards on a background
+ * thread, in batches that each commit with the position reached, so a restart resumes where
+ * the last batch ended. Until the copy finishes, reads are served from the old table and the
+ * stats writer holds its changes, which the delta log keeps safe. The old table does not change
+ * during the copy, except for delta log replays, which update both tables. The last step swaps
+ * the new table in.
+ */
+final class KeyConversion {
+
+    static final int BATCH_SIZE = 1000;
+    // Pause between batches, so queries waiting for the connection get their turn
+    private static final long BATCH_PAUSE_MS = 20L;
+
+    private static final String NEW_TABLE = "player_mob_stats_v2";
+
+    // Leaderboard and rank indexes, recreated on the converted table
+    private static final String[][] STATS_INDEXES = {
+            {"idx_pms_mob_kills", "mob_id, kills_count, player_uuid"},
+            {"idx_pms_mob_deaths", "mob_id, deaths_count, player_uuid"},
+            {"idx_pms_mob_max_damage", "mob_id, max_damage_dealt, player_uuid"},
+            {"idx_pms_mob_total_damage", "mob_id, total_damage_dealt, player_uuid"},
+            {"idx_pms_player_totals", "player_uuid, kills_count, deaths_count, max_damage_dealt, total_damage_dealt"}
+    };
+
+    private final StatsManager statsManager;
+    private final boolean sqlite;
+    private final Logger logger;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    /**
+     * Creates a new key conversion
+     *
+     * @param statsManager The stats manager providing connections
+     * @param sqlite       Whether the database is SQLite rather than MySQL
+     * @param logger       The logger for progress and failures
+     */
+    KeyConversion(StatsManager statsManager, boolean sqlite, Logger logger) {
+        this.statsManager = statsManager;
+        this.sqlite = sqlite;
+        this.logger = logger;
+    }
+
+    /**
+     * Schema migration step: creates the mobs table and, if the stats table still has text keys,
+     * the table the rows are copied into. An empty stats table is swapped right away.
+     */
+    static void prepare(Connection conn, boolean sqlite) throws SQLException {
+        try (Statement s = conn.createStatement()) {
+            s.execute(sqlite
+                    ? "CREATE TABLE IF NOT EXISTS mobs (id INTEGER PRIMARY KEY, name VARCHAR(64) NOT NULL UNIQUE);"
+                    : "CREATE TABLE IF NOT EXISTS mobs (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(64) NOT NULL UNIQUE);");
+        }
+        if (!SchemaMigrations.tableExists(conn, "player_mob_stats") || !hasTextPlayerUuid(conn)) return;
+
+        try (Statement s = conn.createStatement()) {
+            s.execute("CREATE TABLE IF NOT EXISTS " + NEW_TABLE + " (" +
+                    "player_uuid " + (sqlite ? "BLOB" : "BINARY(16)") + " NOT NULL, " +
+                    "mob_id INT NOT NULL, " +
+                    "kills_count INT DEFAULT 0, " +
+                    "deaths_count INT DEFAULT 0, " +
+                    "max_damage_dealt DOUBLE DEFAULT 0.0, " +
+                    "total_damage_dealt DOUBLE DEFAULT 0.0, " +
+                    "PRIMARY KEY (player_uuid, mob_id));");
+            // Last old-table key copied, in primary key order
+            s.execute("CREATE TABLE IF NOT EXISTS stats_key_conversion (" +
+                    "id INT PRIMARY KEY, " +
+                    "last_player VARCHAR(36) NOT NULL, " +
+                    "last_mob VARCHAR(64) NOT NULL);");
+            s.execute("INSERT INTO mobs (name) SELECT DISTINCT mob_id FROM player_mob_stats " +
+                    "WHERE mob_id IS NOT NULL AND mob_id NOT IN (SELECT name FROM mobs);");
+        }
+
+        boolean empty;
+        try (Statement s = conn.createStatement();
+             ResultSet rs = s.executeQuery("SELECT 1 FROM player_mob_stats LIMIT 1")) {
+            empty = !rs.next();
+        }
+        if (empty) {
+            swap(conn, sqlite);
+        }
+    }
+
+    /**
+     * Checks if rows are still waiting to be copied to the new table
+     *
+     * @param conn An open connection
+     * @return True while the old table is in use
+     */
+    static boolean isPending(Connection conn) throws SQLException {
+        return SchemaMigrations.tableExists(conn, NEW_TABLE);
+    }
+
+    /**
+     * Starts copying on a background thread
+     */
+    void start() {
+        if (this.running) return;
+        this.running = true;
+        this.thread = new Thread(this::run, "PowerMobs-KeyConversion");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops copying after the current batch; the next startup resumes from there
+     */
+    void stop() {
+        this.running = false;
+        if (this.thread != null) {
+            try {
+                this.thread.join(10_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.thread = null;
+        }
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        long copied = 0;
+        try {
+            MobIds mobIds = this.statsManager.getMobIds();
+            while (this.running) {
+                int batch;
+                try (Connection conn = this.statsManager.getConnection()) {
+                    batch = copyBatch(conn, mobIds, BATCH_SIZE);
+                }
+                if (batch < 0) break;
+                copied += batch;
+                Thread.sleep(BATCH_PAUSE_MS);
+            }
+            if (!this.running) {
+                this.logger.info("Paused the stats key conversion after " + copied + " rows; it resumes on the next startup.");
+                return;
+            }
+
+            try (Connection conn = this.statsManager.getConnection()) {
+                finish(conn, this.sqlite);
+                // Switched before the connection is returned, so no query reads the new table with text keys
+                this.statsManager.useBinaryKeys();
+            }
+            this.logger.info("Converted the stats table to binary keys (" + copied + " rows this run) in "
+                    + (System.nanoTime() - start) / 1_000_000 + "ms");
+            this.statsManager.onKeysConverted();
+        } catch (SQLException e) {
+            this.logger.severe("Stats key conversion failed; it resumes on the next startup.");
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.running = false;
+        }
+    }
+
+    /**
+     * Copies the next batch of rows in one transaction, together with the position reached
+     *
+     * @param conn      An open connection
+     * @param mobIds    The mob keys, loaded after the migration filled the mobs table
+     * @param batchSize The number of old rows to read
+     * @return The number of rows copied, or -1 once every row is copied
+     */
+    static int copyBatch(Connection conn, MobIds mobIds, int batchSize) throws SQLException {
+        String lastPlayer = null;
+        String lastMob = null;
+        try (Statement s = conn.createStatement();
+             ResultSet rs = s.executeQuery("SELECT last_player, last_mob FROM stats_key_conversion WHERE id = 1")) {
+            if (rs.next()) {
+                lastPlayer = rs.getString("last_player");
+                lastMob = rs.getString("last_mob");
+            }
+        }
+
+        // Row values seek the primary key, so every batch starts where the last one ended
+        String sql = "SELECT player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt FROM player_mob_stats "
+                + (lastPlayer != null ? "WHERE (player_uuid, mob_id) > (?, ?) " : "")
+                + "ORDER BY player_uuid, mob_id LIMIT ?";
+
+        conn.setAutoCommit(false);
+        try {
+            int read = 0;
+            int copied = 0;
+            try (PreparedStatement select = conn.prepareStatement(sql);
+                 PreparedStatement write = conn.prepareStatement("REPLACE INTO " + NEW_TABLE + " (player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES (?, ?, ?, ?, ?, ?)")) {
+                int p = 1;
+                if (lastPlayer != null) {
+                    select.setString(p++, lastPlayer);
+                    select.setString(p++, lastMob);
+                }
+                select.setInt(p, batchSize);
+
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                        lastPlayer = rs.getString("player_uuid");
+                        lastMob = rs.getString("mob_id");
+                        if (!bindConverted(write, mobIds, lastPlayer, lastMob)) continue;
+                        write.setInt(3, rs.getInt("kills_count"));
+                        write.setInt(4, rs.getInt("deaths_count"));
+                        write.setDouble(5, rs.getDouble("max_damage_dealt"));
+                        write.setDouble(6, rs.getDouble("total_damage_dealt"));
+                        write.addBatch();
+                        copied++;
+                    }
+                }
+                if (copied > 0) {
+                    write.executeBatch();
+                }
+            }
+            if (read == 0) {
+                conn.commit();
+                return -1;
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement("REPLACE INTO stats_key_conversion (id, last_player, last_mob) VALUES (1, ?, ?)")) {
+                ps.setString(1, lastPlayer);
+                ps.setString(2, lastMob);
+                ps.executeUpdate();
+            }
+            conn.commit();
+            return copied;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Replaces the old table with the new one and builds the per-player totals from it.
+     * Each step checks what already exists, so an interrupted swap (MySQL commits DDL immediately) can run again.
+     *
+     * @param conn   An open connection
+     * @param sqlite Whether the database is SQLite rather than MySQL
+     */
+    static void finish(Connection conn, boolean sqlite) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            swap(conn, sqlite);
+            if (SchemaMigrations.tableExists(conn, "player_totals")) {
+                PlayerTotals.rebuild(conn);
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Applies replayed delta log changes while the old table is still in use. The old table gets
+     * the increments, and rows the copy already passed are copied again, so neither table misses them.
+     *
+     * @param conn   The connection running the replay transaction
+     * @param sqlite Whether the database is SQLite rather than MySQL
+     * @param mobIds The mob keys, with every replayed mob already resolved
+     * @param deltas The summed changes per (player, mob): kills, deaths, damage, max damage
+     * @param wiped  The players whose stats were deleted before these changes
+     */
+    static void replayDeltas(Connection conn, boolean sqlite, MobIds mobIds, Map<CachedStats.StatsKey, double[]> deltas, Set<UUID> wiped) throws SQLException {
+        for (UUID playerUuid : wiped) {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM player_mob_stats WHERE player_uuid = ?")) {
+                ps.setString(1, playerUuid.toString());
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + NEW_TABLE + " WHERE player_uuid = ?")) {
+                ps.setBytes(1, UuidBytes.toBytes(playerUuid));
+                ps.executeUpdate();
+            }
+        }
+        if (deltas.isEmpty()) return;
+
+        String sql = sqlite ?
+                "INSERT INTO player_mob_stats (player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT(player_uuid, mob_id) DO UPDATE SET kills_count = kills_count + EXCLUDED.kills_count, deaths_count = deaths_count + EXCLUDED.deaths_count, max_damage_dealt = MAX(max_damage_dealt, EXCLUDED.max_damage_dealt), total_damage_dealt = total_damage_dealt + EXCLUDED.total_damage_dealt;" :
+                "INSERT INTO player_mob_stats (player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE kills_count = kills_count + VALUES(kills_count), deaths_count = deaths_count + VALUES(deaths_count), max_damage_dealt = GREATEST(max_damage_dealt, VALUES(max_damage_dealt)), total_damage_dealt = total_damage_dealt + VALUES(total_damage_dealt);";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Map.Entry<CachedStats.StatsKey, double[]> entry : deltas.entrySet()) {
+                double[] delta = entry.getValue();
+                ps.setString(1, entry.getKey().playerUuid().toString());
+                ps.setString(2, entry.getKey().mobId());
+                ps.setInt(3, (int) delta[0]);
+                ps.setInt(4, (int) delta[1]);
+                ps.setDouble(5, delta[3]);
+                ps.setDouble(6, delta[2]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement read = conn.prepareStatement("SELECT kills_count, deaths_count, max_damage_dealt, total_damage_dealt FROM player_mob_stats WHERE player_uuid = ? AND mob_id = ?");
+             PreparedStatement write = conn.prepareStatement("REPLACE INTO " + NEW_TABLE + " (player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (CachedStats.StatsKey key : deltas.keySet()) {
+                read.setString(1, key.playerUuid().toString());
+                read.setString(2, key.mobId());
+                try (ResultSet rs = read.executeQuery()) {
+                    if (!rs.next() || !bindConverted(write, mobIds, key.playerUuid().toString(), key.mobId())) continue;
+                    write.setInt(3, rs.getInt("kills_count"));
+                    write.setInt(4, rs.getInt("deaths_count"));
+                    write.setDouble(5, rs.getDouble("max_damage_dealt"));
+                    write.setDouble(6, rs.getDouble("total_damage_dealt"));
+                    write.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static boolean bindConverted(PreparedStatement write, MobIds mobIds, String playerUuid, String mobId) throws SQLException {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(playerUuid);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return false;
+        }
+        int mob = mobIds.idOf(mobId);
+        if (mob < 0) return false;
+
+        write.setBytes(1, UuidBytes.toBytes(uuid));
+        write.setInt(2, mob);
+        return true;
+    }
+
+    private static void swap(Connection conn, boolean sqlite) throws SQLException {
+        if (SchemaMigrations.tableExists(conn, "player_mob_stats") && hasTextPlayerUuid(conn)) {
+            for (String[] index : STATS_INDEXES) {
+                SchemaMigrations.dropIndex(conn, "player_mob_stats", index[0], sqlite);
+            }
+            try (Statement s = conn.createStatement()) {
+                s.execute("DROP TABLE player_mob_stats;");
+            }
+        }
+        if (!SchemaMigrations.tableExists(conn, "player_mob_stats") && SchemaMigrations.tableExists(conn, NEW_TABLE)) {
+            try (Statement s = conn.createStatement()) {
+                s.execute("ALTER TABLE " + NEW_TABLE + " RENAME TO player_mob_stats;");
+            }
+        }
+        for (String[] index : STATS_INDEXES) {
+            SchemaMigrations.createIndex(conn, "player_mob_stats", index[0], index[1]);
+        }
+        try (Statement s = conn.createStatement()) {
+            s.execute("DROP TABLE IF EXISTS stats_key_conversion;");
+        }
+    }
+
+    private static boolean hasTextPlayerUuid(Connection conn) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, "player_mob_stats", "player_uuid")) {
+            if (!rs.next()) return false;
+            String type = rs.getString("TYPE_NAME").toUpperCase();
+            return type.contains("CHAR") || type.contains("TEXT");
+        }
+    }
+}
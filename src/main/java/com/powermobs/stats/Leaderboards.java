@@ -0,0 +1,271 @@
+package com.powermobs.stats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * In-memory leaderboards per power mob and across all power mobs.
+ * <p>
+ * Each board keeps only the top {@link #CAPACITY} players of its metric. Boards are built
+ * with one scan of the stats table on startup and then kept current from the rows each stats
+ * flush commits, so they trail the database by at most one flush interval and a query costs
+ * the same no matter how many players are stored. Deleting stats can move players down,
+ * which a bounded board cannot follow, so deletions rebuild the boards.
+ */
+final class Leaderboards {
+
+    // The largest limit the stats commands accept
+    static final int CAPACITY = 100;
+    // Players per IN (...) list when refreshing global totals
+    private static final int PLAYERS_PER_QUERY = 500;
+
+    enum Metric {
+        KILLS, DEATHS, MAX_DAMAGE, TOTAL_DAMAGE
+    }
+
+    private final StatsManager statsManager;
+    // Serializes rebuilds with flush updates, so a rebuild never drops rows committed during its scan
+    private final Object updateLock = new Object();
+
+    private Map<String, TopList[]> mobBoards = new HashMap<>();
+    private TopList[] globalBoards = newBoards();
+    private volatile boolean ready = false;
+
+    Leaderboards(StatsManager statsManager) {
+        this.statsManager = statsManager;
+    }
+
+    /**
+     * Checks if the boards have been built
+     *
+     * @return True once the first build finished
+     */
+    boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Gets the top players of a power mob
+     *
+     * @param mobId  The power mob ID
+     * @param metric The metric to rank by
+     * @param limit  The number of entries, at most {@link #CAPACITY}
+     * @return The entries, highest first
+     */
+    synchronized List<StatsManager.LeaderboardEntry> top(String mobId, Metric metric, int limit) {
+        TopList[] boards = this.mobBoards.get(mobId);
+        return boards != null ? boards[metric.ordinal()].entries(limit) : List.of();
+    }
+
+    /**
+     * Gets the top players across all power mobs
+     *
+     * @param metric The metric to rank by
+     * @param limit  The number of entries, at most {@link #CAPACITY}
+     * @return The entries, highest first
+     */
+    synchronized List<StatsManager.LeaderboardEntry> topGlobal(Metric metric, int limit) {
+        return this.globalBoards[metric.ordinal()].entries(limit);
+    }
+
+    /**
+     * Rebuilds every board from the stats table
+     */
+    void rebuild() throws SQLException {
+        synchronized (this.updateLock) {
+            rebuildLocked();
+        }
+    }
+
+    private void rebuildLocked() throws SQLException {
+        Map<String, TopList[]> mobs = new HashMap<>();
+        TopList[] global = newBoards();
+
+        try (Connection conn = this.statsManager.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt FROM player_mob_stats");
+                 ResultSet rs = ps.executeQuery()) {
+                MobIds mobIds = this.statsManager.getMobIds();
+                while (rs.next()) {
+                    String mobId = mobIds.nameOf(rs.getInt("mob_id"));
+                    if (mobId == null) continue;
+                    offer(mobs.computeIfAbsent(mobId, k -> newBoards()),
+                            UuidBytes.fromBytes(rs.getBytes("player_uuid")),
+                            rs.getInt("kills_count"), rs.getInt("deaths_count"),
+                            rs.getDouble("max_damage_dealt"), rs.getDouble("total_damage_dealt"));
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(globalTotalsSql(0));
+                 ResultSet rs = ps.executeQuery()) {
+                readGlobalTotals(rs, totals -> offer(global, totals));
+            }
+        }
+
+        synchronized (this) {
+            this.mobBoards = mobs;
+            this.globalBoards = global;
+        }
+        this.ready = true;
+    }
+
+    /**
+     * Applies rows a stats flush just committed
+     *
+     * @param rows The committed rows
+     */
+    void apply(List<StatsWriter.StatsRow> rows) throws SQLException {
+        synchronized (this.updateLock) {
+            if (this.ready && !rows.isEmpty()) {
+                applyLocked(rows);
+            }
+        }
+    }
+
+    private void applyLocked(List<StatsWriter.StatsRow> rows) throws SQLException {
+        Set<UUID> players = new LinkedHashSet<>();
+        synchronized (this) {
+            for (StatsWriter.StatsRow row : rows) {
+                offer(this.mobBoards.computeIfAbsent(row.key().mobId(), k -> newBoards()), row.key().playerUuid(),
+                        row.kills(), row.deaths(), row.maxDamage(), row.totalDamage());
+                players.add(row.key().playerUuid());
+            }
+        }
+
+        // Global totals span mobs that were not in the flush, so they are read back for the changed players only
+        List<UUID> pending = new ArrayList<>(players);
+        List<Totals> changed = new ArrayList<>(pending.size());
+        try (Connection conn = this.statsManager.getConnection()) {
+            for (int from = 0; from < pending.size(); from += PLAYERS_PER_QUERY) {
+                List<UUID> chunk = pending.subList(from, Math.min(pending.size(), from + PLAYERS_PER_QUERY));
+                try (PreparedStatement ps = conn.prepareStatement(globalTotalsSql(chunk.size()))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setBytes(i + 1, UuidBytes.toBytes(chunk.get(i)));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        readGlobalTotals(rs, changed::add);
+                    }
+                }
+            }
+        }
+
+        synchronized (this) {
+            for (Totals totals : changed) {
+                offer(this.globalBoards, totals);
+            }
+        }
+    }
+
+    private static void offer(TopList[] boards, UUID playerUuid, int kills, int deaths, double maxDamage, double totalDamage) {
+        boards[Metric.KILLS.ordinal()].offer(playerUuid, kills);
+        boards[Metric.DEATHS.ordinal()].offer(playerUuid, deaths);
+        boards[Metric.MAX_DAMAGE.ordinal()].offer(playerUuid, maxDamage);
+        boards[Metric.TOTAL_DAMAGE.ordinal()].offer(playerUuid, totalDamage);
+    }
+
+    private static void offer(TopList[] boards, Totals totals) {
+        offer(boards, totals.playerUuid(), totals.kills(), totals.deaths(), totals.maxDamage(), totals.totalDamage());
+    }
+
+    private static void readGlobalTotals(ResultSet rs, Consumer<Totals> sink) throws SQLException {
+        while (rs.next()) {
+            sink.accept(new Totals(UuidBytes.fromBytes(rs.getBytes("player_uuid")),
+                    rs.getInt("total_kills"), rs.getInt("total_deaths"),
+                    rs.getDouble("max_damage"), rs.getDouble("total_damage")));
+        }
+    }
+
+    /**
+     * Builds the per-player totals query, for every player or for a number of listed players
+     */
+    private static String globalTotalsSql(int players) {
+        String sql = "SELECT player_uuid, total_kills, total_deaths, max_damage, total_damage FROM player_totals";
+        return players > 0 ? sql + " WHERE player_uuid IN (" + "?, ".repeat(players - 1) + "?)" : sql;
+    }
+
+    private static TopList[] newBoards() {
+        TopList[] boards = new TopList[Metric.values().length];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new TopList(CAPACITY);
+        }
+        return boards;
+    }
+
+    /**
+     * A player's totals across all power mobs
+     */
+    private record Totals(UUID playerUuid, int kills, int deaths, double maxDamage, double totalDamage) {
+    }
+
+    /**
+     * The highest scores of one metric, ordered highest first.
+     * A player already listed is moved to their new score; others replace the lowest entry once they pass it.
+     */
+    private static final class TopList {
+        private final UUID[] players;
+        private final double[] scores;
+        private int size = 0;
+
+        TopList(int capacity) {
+            this.players = new UUID[capacity];
+            this.scores = new double[capacity];
+        }
+
+        void offer(UUID playerUuid, double score) {
+            int i = indexOf(playerUuid);
+            if (i < 0) {
+                if (this.size < this.players.length) {
+                    i = this.size++;
+                } else {
+                    i = this.size - 1;
+                    if (score <= this.scores[i]) return;
+                }
+                this.players[i] = playerUuid;
+            }
+            this.scores[i] = score;
+
+            // Move up past lower scores, or down past higher ones
+            while (i > 0 && this.scores[i - 1] < this.scores[i]) {
+                swap(i, i - 1);
+                i--;
+            }
+            while (i + 1 < this.size && this.scores[i + 1] > this.scores[i]) {
+                swap(i, i + 1);
+                i++;
+            }
+        }
+
+        List<StatsManager.LeaderboardEntry> entries(int limit) {
+            int count = Math.min(limit, this.size);
+            List<StatsManager.LeaderboardEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(new StatsManager.LeaderboardEntry(this.players[i], this.scores[i]));
+            }
+            return entries;
+        }
+
+        private int indexOf(UUID playerUuid) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.players[i].equals(playerUuid)) return i;
+            }
+            return -1;
+        }
+
+        private void swap(int a, int b) {
+            UUID player = this.players[a];
+            this.players[a] = this.players[b];
+            this.players[b] = player;
+            double score = this.scores[a];
+            this.scores[a] = this.scores[b];
+            this.scores[b] = score;
+        }
+    }
+}
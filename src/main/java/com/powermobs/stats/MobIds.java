@@ -0,0 +1,90 @@
+package com.powermobs.stats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps power mob IDs to the integer keys of the {@code mobs} table, which the stats rows
+ * reference instead of repeating the mob ID string.
+ */
+final class MobIds {
+
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+    private final boolean sqlite;
+
+    MobIds(boolean sqlite) {
+        this.sqlite = sqlite;
+    }
+
+    /**
+     * Loads every known mob
+     *
+     * @param conn An open connection
+     */
+    void load(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT id, name FROM mobs");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                remember(rs.getString("name"), rs.getInt("id"));
+            }
+        }
+    }
+
+    /**
+     * Gets the key of a power mob that already has stats
+     *
+     * @param name The power mob ID
+     * @return The key, or -1 if the mob has no stats yet
+     */
+    int idOf(String name) {
+        Integer id = this.idsByName.get(name);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Gets the power mob ID of a key
+     *
+     * @param id The key
+     * @return The power mob ID, or null if unknown
+     */
+    String nameOf(int id) {
+        return this.namesById.get(id);
+    }
+
+    /**
+     * Gets the key of a power mob, adding it to the mobs table first if needed
+     *
+     * @param conn The connection to use
+     * @param name The power mob ID
+     * @return The key
+     */
+    synchronized int resolve(Connection conn, String name) throws SQLException {
+        Integer id = this.idsByName.get(name);
+        if (id != null) return id;
+
+        String insert = this.sqlite ? "INSERT OR IGNORE INTO mobs (name) VALUES (?)" : "INSERT IGNORE INTO mobs (name) VALUES (?)";
+        try (PreparedStatement ps = conn.prepareStatement(insert)) {
+            ps.setString(1, name);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = conn.prepareStatement("SELECT id FROM mobs WHERE name = ?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Could not register power mob " + name + " in the mobs table");
+                id = rs.getInt("id");
+            }
+        }
+        remember(name, id);
+        return id;
+    }
+
+    private void remember(String name, int id) {
+        this.idsByName.put(name, id);
+        this.namesById.put(id, name);
+    }
+}
@@ -0,0 +1,74 @@
+package com.powermobs.stats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the {@code player_totals} table, one row of totals across all power mobs per player,
+ * in step with {@code player_mob_stats}. Each metric is indexed, so a player's rank is a
+ * single index range count instead of an aggregate over every stats row.
+ */
+final class PlayerTotals {
+
+    // Per-player totals computed from the stats rows; callers add a WHERE clause and GROUP BY
+    static final String AGGREGATE_SQL = "SELECT player_uuid, SUM(kills_count), SUM(deaths_count), " +
+            "SUM(max_damage_dealt), SUM(total_damage_dealt) FROM player_mob_stats";
+
+    // Players per IN (...) list
+    private static final int PLAYERS_PER_STATEMENT = 500;
+
+    private PlayerTotals() {
+    }
+
+    /**
+     * Recomputes the totals of some players, as part of the caller's transaction
+     *
+     * @param conn    The connection running the transaction
+     * @param players The players whose stats rows changed
+     */
+    static void refresh(Connection conn, Collection<UUID> players) throws SQLException {
+        if (players.isEmpty()) return;
+
+        List<UUID> pending = new ArrayList<>(players);
+        for (int from = 0; from < pending.size(); from += PLAYERS_PER_STATEMENT) {
+            List<UUID> chunk = pending.subList(from, Math.min(pending.size(), from + PLAYERS_PER_STATEMENT));
+            String in = " IN (" + "?, ".repeat(chunk.size() - 1) + "?)";
+
+            // Players left without any stats rows lose their totals row too
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM player_totals WHERE player_uuid" + in)) {
+                bind(ps, chunk);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO player_totals (player_uuid, total_kills, total_deaths, max_damage, total_damage) "
+                    + AGGREGATE_SQL + " WHERE player_uuid" + in + " GROUP BY player_uuid")) {
+                bind(ps, chunk);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Recomputes the totals of every player, after a change that touched many players at once
+     *
+     * @param conn An open connection
+     */
+    static void rebuild(Connection conn) throws SQLException {
+        try (Statement s = conn.createStatement()) {
+            s.execute("DELETE FROM player_totals");
+            s.execute("INSERT INTO player_totals (player_uuid, total_kills, total_deaths, max_damage, total_damage) "
+                    + AGGREGATE_SQL + " GROUP BY player_uuid");
+        }
+    }
+
+    private static void bind(PreparedStatement ps, List<UUID> players) throws SQLException {
+        for (int i = 0; i < players.size(); i++) {
+            ps.setBytes(i + 1, UuidBytes.toBytes(players.get(i)));
+        }
+    }
+}
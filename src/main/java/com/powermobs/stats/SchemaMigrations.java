@@ -0,0 +1,183 @@
+package com.powermobs.stats;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Versioned schema changes for the stats database.
+ * <p>
+ * Applied versions are recorded in a {@code schema_version} table, and on startup every
+ * newer migration runs in order. Each step checks what already exists before changing it,
+ * so a migration interrupted part way (MySQL commits DDL immediately) can simply run again.
+ */
+final class SchemaMigrations {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create stats tables", (conn, sqlite) -> {
+                try (Statement s = conn.createStatement()) {
+                    s.execute("CREATE TABLE IF NOT EXISTS player_mob_stats (" +
+                            "player_uuid VARCHAR(36), " +
+                            "mob_id VARCHAR(64), " +
+                            "kills_count INT DEFAULT 0, " +
+                            "deaths_count INT DEFAULT 0, " +
+                            "max_damage_dealt DOUBLE DEFAULT 0.0, " +
+                            "total_damage_dealt DOUBLE DEFAULT 0.0, " +
+                            "PRIMARY KEY (player_uuid, mob_id));");
+
+                    // Last delta log segment whose changes are in player_mob_stats
+                    s.execute("CREATE TABLE IF NOT EXISTS stats_delta_checkpoint (" +
+                            "id INT PRIMARY KEY, " +
+                            "segment BIGINT NOT NULL);");
+                }
+            }),
+            new Migration(2, "Add leaderboard and rank indexes", (conn, sqlite) -> {
+                // Per-mob leaderboards: WHERE mob_id = ? ORDER BY <metric> DESC, reading player_uuid
+                createIndex(conn, "player_mob_stats", "idx_pms_mob_kills", "mob_id, kills_count, player_uuid");
+                createIndex(conn, "player_mob_stats", "idx_pms_mob_deaths", "mob_id, deaths_count, player_uuid");
+                createIndex(conn, "player_mob_stats", "idx_pms_mob_max_damage", "mob_id, max_damage_dealt, player_uuid");
+                createIndex(conn, "player_mob_stats", "idx_pms_mob_total_damage", "mob_id, total_damage_dealt, player_uuid");
+                // Per-player totals (global leaderboards, ranks, leaderboard refresh): GROUP BY or WHERE player_uuid
+                createIndex(conn, "player_mob_stats", "idx_pms_player_totals",
+                        "player_uuid, kills_count, deaths_count, max_damage_dealt, total_damage_dealt");
+            }),
+            // Only prepares the new table; KeyConversion copies the rows in the background
+            new Migration(3, "Store player UUIDs as binary and mob IDs in a mobs table", KeyConversion::prepare),
+            new Migration(4, "Add per-player totals for ranks", (conn, sqlite) -> {
+                try (Statement s = conn.createStatement()) {
+                    s.execute("CREATE TABLE IF NOT EXISTS player_totals (" +
+                            "player_uuid " + (sqlite ? "BLOB" : "BINARY(16)") + " NOT NULL PRIMARY KEY, " +
+                            "total_kills INT DEFAULT 0, " +
+                            "total_deaths INT DEFAULT 0, " +
+                            "max_damage DOUBLE DEFAULT 0.0, " +
+                            "total_damage DOUBLE DEFAULT 0.0);");
+                }
+                // Filled by the key conversion instead while the stats table still has text keys
+                if (!KeyConversion.isPending(conn)) {
+                    PlayerTotals.rebuild(conn);
+                }
+                // Rank is a count of players on one side of a value, and global leaderboards read the top of each
+                createIndex(conn, "player_totals", "idx_pt_kills", "total_kills");
+                createIndex(conn, "player_totals", "idx_pt_deaths", "total_deaths");
+                createIndex(conn, "player_totals", "idx_pt_max_damage", "max_damage");
+                createIndex(conn, "player_totals", "idx_pt_total_damage", "total_damage");
+            })
+    );
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Brings the database schema up to the latest version
+     *
+     * @param conn   An open connection
+     * @param sqlite Whether the database is SQLite rather than MySQL
+     * @param logger The logger for applied migrations
+     */
+    static void migrate(Connection conn, boolean sqlite, Logger logger) throws SQLException {
+        migrate(conn, sqlite, logger, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Brings the database schema up to the given version, for tests that start from an older layout
+     *
+     * @param conn          An open connection
+     * @param sqlite        Whether the database is SQLite rather than MySQL
+     * @param logger        The logger for applied migrations
+     * @param targetVersion The last migration to apply
+     */
+    static void migrate(Connection conn, boolean sqlite, Logger logger, int targetVersion) throws SQLException {
+        try (Statement s = conn.createStatement()) {
+            s.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(255), " +
+                    "applied_at BIGINT);");
+        }
+
+        int current = 0;
+        try (Statement s = conn.createStatement();
+             ResultSet rs = s.executeQuery("SELECT MAX(version) AS version FROM schema_version")) {
+            if (rs.next()) current = rs.getInt("version");
+        }
+
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() <= current) continue;
+            if (migration.version() > targetVersion) break;
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                migration.step().apply(conn, sqlite);
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+                    ps.setInt(1, migration.version());
+                    ps.setString(2, migration.description());
+                    ps.setLong(3, System.currentTimeMillis());
+                    ps.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("Schema migration " + migration.version() + " (" + migration.description() + ") failed", e);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            logger.info("Applied stats schema migration " + migration.version() + ": " + migration.description());
+        }
+    }
+
+    static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, table, null)) {
+            return rs.next();
+        }
+    }
+
+    static void dropIndex(Connection conn, String table, String name, boolean sqlite) throws SQLException {
+        if (!hasIndex(conn, table, name)) return;
+        try (Statement s = conn.createStatement()) {
+            s.execute(sqlite ? "DROP INDEX " + name : "DROP INDEX " + name + " ON " + table);
+        }
+    }
+
+    /**
+     * Creates an index unless the table already has one with that name
+     */
+    static void createIndex(Connection conn, String table, String name, String columns) throws SQLException {
+        if (hasIndex(conn, table, name)) return;
+        try (Statement s = conn.createStatement()) {
+            s.execute("CREATE INDEX " + name + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    private static boolean hasIndex(Connection conn, String table, String name) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, table, false, false)) {
+            while (rs.next()) {
+                if (name.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One schema change
+     */
+    @FunctionalInterface
+    interface Step {
+        void apply(Connection conn, boolean sqlite) throws SQLException;
+    }
+
+    /**
+     * A numbered schema change
+     *
+     * @param version     The schema version it brings the database to
+     * @param description A short description for the log and the version table
+     * @param step        The change
+     */
+    record Migration(int version, String description, Step step) {
+    }
+}
@@ -0,0 +1,376 @@
+package com.powermobs.stats;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of stats changes not yet written to the database.
+ * <p>
+ * Every change is appended as a fixed-size record to a memory-mapped segment file, so the
+ * operating system keeps it even if the JVM crashes. Segments are forced to disk in groups
+ * rather than per record. Each database flush starts a new segment; once the flush commits,
+ * the older segments are covered by the database and deleted. The next segment is mapped
+ * ahead of time, so starting one inside the journal lock only switches buffers. On startup,
+ * segments left behind are replayed into the database as increments. Deleting a player's
+ * stats logs a wipe record, so the replay drops their earlier changes instead of restoring them.
+ */
+final class StatsDeltaLog {
+
+    private static final String PREFIX = "stats-delta-";
+    private static final String SUFFIX = ".log";
+
+    // magic, crc, uuid, kills, deaths, damage, max damage, mob id length, mob id, type, padding
+    static final int RECORD_BYTES = 128;
+    static final int MAX_MOB_ID_BYTES = 64;
+    private static final int MAGIC = 0x504D5344;
+    private static final int PAYLOAD_OFFSET = 8;
+    // Follows the mob id; zero in records written before wipes existed, which are all changes
+    private static final int TYPE_OFFSET = 16 + 24 + 2 + MAX_MOB_ID_BYTES;
+    private static final byte TYPE_CHANGE = 0;
+    private static final byte TYPE_WIPE_PLAYER = 1;
+    private static final int SEGMENT_BYTES = RECORD_BYTES * 32_768;
+
+    private final File directory;
+    private final Logger logger;
+
+    // The highest segment number handed out, whether appended to or kept as the spare
+    private final AtomicLong lastNumber = new AtomicLong(-1);
+    // Mapped ahead of time outside the journal lock, so switching segments never waits on file I/O
+    private final AtomicReference<Segment> spare = new AtomicReference<>();
+    // Segments switched away from, forced and closed by the next sync
+    private final Queue<Segment> retired = new ConcurrentLinkedQueue<>();
+
+    private volatile Segment current;
+    private long segment = -1;
+    private int position = 0;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new delta log
+     *
+     * @param directory The folder holding the segment files
+     * @param logger    The logger for failures
+     */
+    StatsDeltaLog(File directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+    }
+
+    /**
+     * Lists the segments on disk, oldest first
+     *
+     * @return The segment numbers
+     */
+    List<Long> listSegments() {
+        List<Long> segments = new ArrayList<>();
+        File[] files = this.directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files == null) return segments;
+
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * Reads every intact record of a segment
+     *
+     * @param segment The segment number
+     * @param visitor Receives each record
+     */
+    void read(long segment, DeltaVisitor visitor) throws IOException {
+        File file = segmentFile(segment);
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer records = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            byte[] payload = new byte[RECORD_BYTES - PAYLOAD_OFFSET];
+            CRC32 check = new CRC32();
+
+            for (int offset = 0; offset + RECORD_BYTES <= records.limit(); offset += RECORD_BYTES) {
+                if (records.getInt(offset) != MAGIC) break; // End of the written part
+                records.get(offset + PAYLOAD_OFFSET, payload);
+                check.reset();
+                check.update(payload);
+                if ((int) check.getValue() != records.getInt(offset + 4)) {
+                    this.logger.warning("Stopped reading stats delta log " + file.getName() + " at a damaged record");
+                    break;
+                }
+
+                ByteBuffer p = ByteBuffer.wrap(payload);
+                UUID playerUuid = new UUID(p.getLong(), p.getLong());
+                if (payload[TYPE_OFFSET] == TYPE_WIPE_PLAYER) {
+                    visitor.wipePlayer(playerUuid);
+                    continue;
+                }
+                int kills = p.getInt();
+                int deaths = p.getInt();
+                double damage = p.getDouble();
+                double maxDamage = p.getDouble();
+                int length = p.getShort();
+                String mobId = new String(payload, p.position(), length, StandardCharsets.UTF_8);
+                visitor.accept(playerUuid, mobId, kills, deaths, damage, maxDamage);
+            }
+        }
+    }
+
+    /**
+     * Starts appending to a new segment
+     *
+     * @param segment The segment number, higher than any segment already on disk
+     */
+    void open(long segment) throws IOException {
+        Segment opened = map(segment);
+        this.lastNumber.set(segment);
+        switchTo(opened);
+        prepareNext();
+    }
+
+    /**
+     * Encodes a change as a record, without touching the log. Done before taking the journal lock.
+     *
+     * @return The record, or null if the mob id is too long to log
+     */
+    static byte[] encode(UUID playerUuid, String mobId, int kills, int deaths, double damage, double maxDamage) {
+        return encode(TYPE_CHANGE, playerUuid, mobId, kills, deaths, damage, maxDamage);
+    }
+
+    /**
+     * Encodes the deletion of all of a player's stats as a record
+     *
+     * @param playerUuid The player UUID
+     * @return The record
+     */
+    static byte[] encodeWipe(UUID playerUuid) {
+        return encode(TYPE_WIPE_PLAYER, playerUuid, "", 0, 0, 0.0, 0.0);
+    }
+
+    private static byte[] encode(byte type, UUID playerUuid, String mobId, int kills, int deaths, double damage, double maxDamage) {
+        byte[] mob = mobId.getBytes(StandardCharsets.UTF_8);
+        if (mob.length > MAX_MOB_ID_BYTES) return null;
+
+        byte[] record = new byte[RECORD_BYTES];
+        ByteBuffer p = ByteBuffer.wrap(record, PAYLOAD_OFFSET, RECORD_BYTES - PAYLOAD_OFFSET);
+        p.putLong(playerUuid.getMostSignificantBits());
+        p.putLong(playerUuid.getLeastSignificantBits());
+        p.putInt(kills);
+        p.putInt(deaths);
+        p.putDouble(damage);
+        p.putDouble(maxDamage);
+        p.putShort((short) mob.length);
+        p.put(mob);
+        record[PAYLOAD_OFFSET + TYPE_OFFSET] = type;
+
+        CRC32 crc = new CRC32();
+        crc.update(record, PAYLOAD_OFFSET, RECORD_BYTES - PAYLOAD_OFFSET);
+        ByteBuffer.wrap(record).putInt(4, (int) crc.getValue());
+        return record;
+    }
+
+    /**
+     * Appends an encoded change. Callers serialize appends with the flush that rotates the log.
+     *
+     * @param record A record from {@link #encode}
+     * @return False if the change could not be logged
+     */
+    boolean append(byte[] record) {
+        if (this.current == null) return false;
+        if (this.position + RECORD_BYTES > SEGMENT_BYTES && !advance()) return false;
+
+        Segment target = this.current;
+        target.buffer.put(this.position + 4, record, 4, RECORD_BYTES - 4);
+        // Written last, so a record is only read back once it is complete
+        target.buffer.putInt(this.position, MAGIC);
+        this.position += RECORD_BYTES;
+        target.unsynced = true;
+        return true;
+    }
+
+    /**
+     * Starts a new segment for the changes that follow a flush snapshot.
+     * Callers serialize this with appends; it only switches to the spare segment.
+     *
+     * @return The last segment the snapshot covers
+     */
+    long rotate() {
+        long covered = this.segment;
+        advance();
+        return covered;
+    }
+
+    /**
+     * Maps the segment the next rotation switches to, unless one is already waiting.
+     * Runs outside the journal lock.
+     */
+    void prepareNext() {
+        if (this.closed || this.spare.get() != null || this.lastNumber.get() < 0) return;
+
+        Segment next;
+        try {
+            next = map(this.lastNumber.incrementAndGet());
+        } catch (IOException e) {
+            this.logger.warning("Could not prepare the next stats delta log segment: " + e.getMessage());
+            return;
+        }
+        if (this.closed || !this.spare.compareAndSet(null, next)) {
+            discard(next);
+        }
+    }
+
+    /**
+     * Forces appended records to disk, if any were appended since the last call,
+     * and prepares the next segment if a rotation used it up
+     */
+    void sync() {
+        force();
+        prepareNext();
+    }
+
+    /**
+     * Deletes the segments a committed flush covers
+     *
+     * @param covered The last covered segment
+     */
+    void deleteThrough(long covered) {
+        for (long segment : listSegments()) {
+            if (segment > covered || segment == this.segment) continue;
+            if (!segmentFile(segment).delete()) {
+                // Still mapped on some platforms; the checkpoint keeps it from being replayed
+                segmentFile(segment).deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Forces the current segment to disk and stops appending
+     */
+    void close() {
+        this.closed = true;
+        Segment last = this.current;
+        this.current = null;
+        if (last != null) {
+            this.retired.add(last);
+        }
+        force();
+
+        Segment unused = this.spare.getAndSet(null);
+        if (unused != null) {
+            discard(unused);
+        }
+    }
+
+    /**
+     * Switches to the spare segment, mapping one inline only if none was prepared
+     *
+     * @return False if no segment could be opened
+     */
+    private boolean advance() {
+        Segment next = this.spare.getAndSet(null);
+        if (next == null) {
+            try {
+                next = map(this.lastNumber.incrementAndGet());
+            } catch (IOException e) {
+                this.logger.severe("Could not start a new stats delta log segment: " + e.getMessage());
+                Segment previous = this.current;
+                this.current = null;
+                if (previous != null) this.retired.add(previous);
+                return false;
+            }
+        }
+        switchTo(next);
+        return true;
+    }
+
+    private void switchTo(Segment next) {
+        Segment previous = this.current;
+        this.current = next;
+        this.segment = next.number;
+        this.position = 0;
+        // Forced and closed by the next sync rather than here, which runs while appends wait
+        if (previous != null) this.retired.add(previous);
+    }
+
+    private void force() {
+        Segment previous;
+        while ((previous = this.retired.poll()) != null) {
+            if (previous.unsynced) {
+                previous.unsynced = false;
+                previous.buffer.force();
+            }
+            try {
+                previous.channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        Segment active = this.current;
+        if (active == null || !active.unsynced) return;
+        active.unsynced = false;
+        active.buffer.force();
+    }
+
+    private Segment map(long number) throws IOException {
+        FileChannel channel = FileChannel.open(segmentFile(number).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new Segment(number, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void discard(Segment unused) {
+        try {
+            unused.channel.close();
+        } catch (IOException ignored) {
+        }
+        if (!segmentFile(unused.number).delete()) {
+            segmentFile(unused.number).deleteOnExit();
+        }
+    }
+
+    private File segmentFile(long segment) {
+        return new File(this.directory, PREFIX + segment + SUFFIX);
+    }
+
+    /**
+     * A mapped segment file
+     */
+    private static final class Segment {
+        private final long number;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private volatile boolean unsynced = false;
+
+        private Segment(long number, FileChannel channel, MappedByteBuffer buffer) {
+            this.number = number;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Receives the logged changes and wipes, in the order they were logged
+     */
+    interface DeltaVisitor {
+        void accept(UUID playerUuid, String mobId, int kills, int deaths, double damage, double maxDamage);
+
+        void wipePlayer(UUID playerUuid);
+    }
+}
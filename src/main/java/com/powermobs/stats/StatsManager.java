@@ -6,17 +6,36 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.bukkit.Bukkit;
 import java.io.File;
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 public class StatsManager {
     private final PowerMobsPlugin plugin;
     private HikariDataSource dataSource;
+    private StatsWriter statsWriter;
+    private StatsDeltaLog deltaLog;
+    private MobIds mobIds;
+    private KeyConversion keyConversion;
+    // Set while the stats table still has text keys: reads use them, and writes wait for the conversion
+    private volatile boolean legacyKeys = false;
+    private volatile boolean holdWrites = false;
+    private final List<Runnable> afterConversion = new ArrayList<>();
+
+    private final Leaderboards leaderboards = new Leaderboards(this);
+
+    // Stands in for player_totals while the stats table still has text keys
+    private static final String LEGACY_TOTALS = "(SELECT player_uuid, SUM(kills_count) AS total_kills, SUM(deaths_count) AS total_deaths, " +
+            "SUM(max_damage_dealt) AS max_damage, SUM(total_damage_dealt) AS total_damage FROM player_mob_stats GROUP BY player_uuid) AS player_totals";
 
     public StatsManager(PowerMobsPlugin plugin) {
         this.plugin = plugin;
@@ -65,155 +84,326 @@ public class StatsManager {
                 s.execute("PRAGMA foreign_keys = ON;");
             }
 
-            s.execute("CREATE TABLE IF NOT EXISTS player_mob_stats (" +
-                    "player_uuid VARCHAR(36), " +
-                    "mob_id VARCHAR(64), " +
-                    "kills_count INT DEFAULT 0, " +
-                    "deaths_count INT DEFAULT 0, " +
-                    "max_damage_dealt DOUBLE DEFAULT 0.0, " +
-                    "total_damage_dealt DOUBLE DEFAULT 0.0, " +
-                    "PRIMARY KEY (player_uuid, mob_id));");
+            SchemaMigrations.migrate(conn, type.equalsIgnoreCase("SQLITE"), plugin.getLogger());
+            this.mobIds = new MobIds(type.equalsIgnoreCase("SQLITE"));
+            this.mobIds.load(conn);
+            this.legacyKeys = KeyConversion.isPending(conn);
+            this.holdWrites = this.legacyKeys;
 
         } catch (SQLException e) {
             plugin.getLogger().severe("Database initialization failed!");
             e.printStackTrace();
+            return;
         }
-    }
 
-    private Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
-    }
+        openDeltaLog();
 
-    public void closeConnection() {
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
+        if (legacyKeys) {
+            plugin.getLogger().info("Converting the stats table to binary keys in the background; stats are saved to the database once it finishes.");
+            this.keyConversion = new KeyConversion(this, type.equalsIgnoreCase("SQLITE"), plugin.getLogger());
+            this.keyConversion.start();
         }
     }
 
-    /** Starts the background repeating scheduler task for active gameplay saves */
-    public void startSaveTask() {
-        // Runs asynchronously every 60 seconds (1200 ticks) while players are active
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
-            saveAllActiveCaches(true);
-        }, 1200L, 1200L);
-    }
-
     /**
-     * Scans all active player memory profiles and forces a unified batch save to disk.
-     * @param runAsynchronously Set to TRUE for live gameplay timers, FALSE for server shutdowns.
+     * Replays any stats changes left in the delta log by a crash, then starts a new log segment.
+     * If the replay fails the old segments are kept for the next startup and logging stays off.
      */
-    public void saveAllActiveCaches(boolean runAsynchronously) {
-        var cachedData = CachedStats.getAllPlayerMobStats();
-        if (cachedData.isEmpty()) return;
+    private void openDeltaLog() {
+        StatsDeltaLog log = new StatsDeltaLog(plugin.getDataFolder(), plugin.getLogger());
+        List<Long> segments = log.listSegments();
+        long checkpoint = -1;
+        long last = -1;
+
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT segment FROM stats_delta_checkpoint WHERE id = 1");
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) checkpoint = rs.getLong("segment");
+            }
+            last = checkpoint;
+
+            // player -> mob -> kills, deaths, damage, max damage
+            Map<CachedStats.StatsKey, double[]> deltas = new HashMap<>();
+            // Players whose stats were deleted after the checkpoint; only changes logged after the wipe survive
+            Set<UUID> wiped = new HashSet<>();
+            StatsDeltaLog.DeltaVisitor visitor = new StatsDeltaLog.DeltaVisitor() {
+                @Override
+                public void accept(UUID playerUuid, String mobId, int kills, int deaths, double damage, double maxDamage) {
+                    double[] delta = deltas.computeIfAbsent(new CachedStats.StatsKey(playerUuid, mobId), k -> new double[4]);
+                    delta[0] += kills;
+                    delta[1] += deaths;
+                    delta[2] += damage;
+                    delta[3] = Math.max(delta[3], maxDamage);
+                }
 
+                @Override
+                public void wipePlayer(UUID playerUuid) {
+                    deltas.keySet().removeIf(key -> key.playerUuid().equals(playerUuid));
+                    wiped.add(playerUuid);
+                }
+            };
+            for (long segment : segments) {
+                last = Math.max(last, segment);
+                if (segment <= checkpoint) continue;
+                log.read(segment, visitor);
+            }
+
+            if (!deltas.isEmpty() || !wiped.isEmpty()) {
+                replayDeltas(conn, deltas, wiped, last);
+                plugin.getLogger().info("Recovered " + deltas.size() + " unsaved stats entries and " + wiped.size()
+                        + " stats deletions from the delta log.");
+            }
+        } catch (SQLException | IOException e) {
+            plugin.getLogger().severe("Failed to replay the stats delta log; it will be retried on the next startup.");
+            e.printStackTrace();
+            return;
+        }
+
+        log.deleteThrough(last);
+        try {
+            log.open(last + 1);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to open the stats delta log: " + e.getMessage());
+            return;
+        }
+        this.deltaLog = log;
+        CachedStats.setDeltaLog(log);
+    }
+
+    private void replayDeltas(Connection conn, Map<CachedStats.StatsKey, double[]> deltas, Set<UUID> wiped, long lastSegment) throws SQLException {
         String type = plugin.getConfig().getString("database.type", "SQLite");
         String sql = type.equalsIgnoreCase("SQLITE") ?
                 "INSERT INTO player_mob_stats (player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES (?, ?, ?, ?, ?, ?) " +
-                "ON CONFLICT(player_uuid, mob_id) DO UPDATE SET kills_count = EXCLUDED.kills_count, deaths_count = EXCLUDED.deaths_count, max_damage_dealt = MAX(max_damage_dealt, EXCLUDED.max_damage_dealt), total_damage_dealt = EXCLUDED.total_damage_dealt;" :
+                "ON CONFLICT(player_uuid, mob_id) DO UPDATE SET kills_count = kills_count + EXCLUDED.kills_count, deaths_count = deaths_count + EXCLUDED.deaths_count, max_damage_dealt = MAX(max_damage_dealt, EXCLUDED.max_damage_dealt), total_damage_dealt = total_damage_dealt + EXCLUDED.total_damage_dealt;" :
                 "INSERT INTO player_mob_stats (player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES (?, ?, ?, ?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE kills_count = VALUES(kills_count), deaths_count = VALUES(deaths_count), max_damage_dealt = GREATEST(max_damage_dealt, VALUES(max_damage_dealt)), total_damage_dealt = VALUES(total_damage_dealt);";
+                "ON DUPLICATE KEY UPDATE kills_count = kills_count + VALUES(kills_count), deaths_count = deaths_count + VALUES(deaths_count), max_damage_dealt = GREATEST(max_damage_dealt, VALUES(max_damage_dealt)), total_damage_dealt = total_damage_dealt + VALUES(total_damage_dealt);";
 
-        Runnable saveLogic = () -> {
-            try (Connection conn = getConnection()) {
-                conn.setAutoCommit(false);
+        // Registered before the transaction, so a rollback cannot leave stale keys in the mob id cache
+        for (CachedStats.StatsKey key : deltas.keySet()) {
+            mobIds.resolve(conn, key.mobId());
+        }
 
-                try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                    boolean hasUpdates = false;
-
-                    for (Map.Entry<UUID, Map<String, CachedStats.MobStats>> playerEntry : cachedData.entrySet()) {
-                        String uuidStr = playerEntry.getKey().toString();
-
-                        for (Map.Entry<String, CachedStats.MobStats> mobEntry : playerEntry.getValue().entrySet()) {
-                            CachedStats.MobStats stats = mobEntry.getValue();
-
-                            if (stats.isDirty()) {
-                                ps.setString(1, uuidStr);
-                                ps.setString(2, mobEntry.getKey());
-                                ps.setInt(3, stats.kills);
-                                ps.setInt(4, stats.deaths);
-                                ps.setDouble(5, stats.maxDamage);
-                                ps.setDouble(6, stats.totalDamage);
-                                ps.addBatch();
-
-                                stats.markClean();
-                                hasUpdates = true;
-                            }
-                        }
-                    }
+        conn.setAutoCommit(false);
+        try {
+            if (legacyKeys) {
+                KeyConversion.replayDeltas(conn, type.equalsIgnoreCase("SQLITE"), mobIds, deltas, wiped);
+            } else {
+                applyDeltas(conn, sql, deltas, wiped);
+            }
+            writeDeltaCheckpoint(conn, lastSegment);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
 
-                    if (hasUpdates) {
-                        ps.executeBatch();
-                        conn.commit();
+    private void applyDeltas(Connection conn, String sql, Map<CachedStats.StatsKey, double[]> deltas, Set<UUID> wiped) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            // The deletion may not have reached the database before the crash; the changes left apply after it
+            if (!wiped.isEmpty()) {
+                try (PreparedStatement psDelete = conn.prepareStatement("DELETE FROM player_mob_stats WHERE player_uuid = ?")) {
+                    for (UUID playerUuid : wiped) {
+                        psDelete.setBytes(1, UuidBytes.toBytes(playerUuid));
+                        psDelete.addBatch();
                     }
-                } catch (SQLException e) {
-                    conn.rollback();
-                    throw e;
-                } finally {
-                    conn.setAutoCommit(true);
+                    psDelete.executeBatch();
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("Error executing unified statistics database flush!");
-                e.printStackTrace();
             }
-        };
-
-        if (runAsynchronously) {
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, saveLogic);
-        } else {
-            saveLogic.run(); // Runs instantly right here on the main thread (Crucial for shutdown)
+            for (Map.Entry<CachedStats.StatsKey, double[]> entry : deltas.entrySet()) {
+                double[] delta = entry.getValue();
+                ps.setBytes(1, UuidBytes.toBytes(entry.getKey().playerUuid()));
+                ps.setInt(2, mobIds.idOf(entry.getKey().mobId()));
+                ps.setInt(3, (int) delta[0]);
+                ps.setInt(4, (int) delta[1]);
+                ps.setDouble(5, delta[3]);
+                ps.setDouble(6, delta[2]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            Set<UUID> players = deltas.keySet().stream().map(CachedStats.StatsKey::playerUuid).collect(Collectors.toCollection(HashSet::new));
+            players.addAll(wiped);
+            PlayerTotals.refresh(conn, players);
         }
     }
 
     /**
-     * Safely flushes any unsaved (dirty) data for a single disconnecting player
-     * down to the database before their session cache is entirely removed.
+     * Records, as part of the caller's transaction, that every delta log segment up to one is in the database
+     *
+     * @param conn    The connection running the transaction
+     * @param segment The last covered segment
      */
-    public void flushSinglePlayerStats(UUID playerUuid) {
-        Map<String, CachedStats.MobStats> playerMobMap = CachedStats.getPlayerMobStats(playerUuid);
-        if (playerMobMap == null || playerMobMap.isEmpty()) return;
-
+    void writeDeltaCheckpoint(Connection conn, long segment) throws SQLException {
         String type = plugin.getConfig().getString("database.type", "SQLite");
         String sql = type.equalsIgnoreCase("SQLITE") ?
-                "INSERT INTO player_mob_stats (player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES (?, ?, ?, ?, ?, ?) " +
-                "ON CONFLICT(player_uuid, mob_id) DO UPDATE SET kills_count = EXCLUDED.kills_count, deaths_count = EXCLUDED.deaths_count, max_damage_dealt = MAX(max_damage_dealt, EXCLUDED.max_damage_dealt), total_damage_dealt = EXCLUDED.total_damage_dealt;" :
-                "INSERT INTO player_mob_stats (player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES (?, ?, ?, ?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE kills_count = VALUES(kills_count), deaths_count = VALUES(deaths_count), max_damage_dealt = GREATEST(max_damage_dealt, VALUES(max_damage_dealt)), total_damage_dealt = VALUES(total_damage_dealt);";
+                "INSERT INTO stats_delta_checkpoint (id, segment) VALUES (1, ?) ON CONFLICT(id) DO UPDATE SET segment = EXCLUDED.segment;" :
+                "INSERT INTO stats_delta_checkpoint (id, segment) VALUES (1, ?) ON DUPLICATE KEY UPDATE segment = VALUES(segment);";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, segment);
+            ps.executeUpdate();
+        }
+    }
 
-        String uuidStr = playerUuid.toString();
+    MobIds getMobIds() {
+        return mobIds;
+    }
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try (Connection conn = getConnection()) {
-                conn.setAutoCommit(false);
-                try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                    boolean hasUpdates = false;
-                    for (Map.Entry<String, CachedStats.MobStats> entry : playerMobMap.entrySet()) {
-                        CachedStats.MobStats stats = entry.getValue();
-                        if (stats.isDirty()) {
-                            ps.setString(1, uuidStr);
-                            ps.setString(2, entry.getKey());
-                            ps.setInt(3, stats.kills);
-                            ps.setInt(4, stats.deaths);
-                            ps.setDouble(5, stats.maxDamage);
-                            ps.setDouble(6, stats.totalDamage);
-                            ps.addBatch();
-                            hasUpdates = true;
-                        }
-                    }
-                    if (hasUpdates) {
-                        ps.executeBatch();
-                        conn.commit();
-                    }
-                } catch (SQLException e) {
-                    conn.rollback();
-                    throw e;
-                } finally {
-                    conn.setAutoCommit(true);
+    /**
+     * Checks if stats writes are held back until the key conversion finishes
+     *
+     * @return True while the stats table is being converted
+     */
+    boolean isHoldingWrites() {
+        return holdWrites;
+    }
+
+    /**
+     * Switches reads to the binary keys; called by the key conversion right after the new table is swapped in
+     */
+    void useBinaryKeys() {
+        legacyKeys = false;
+    }
+
+    /**
+     * Called by the key conversion once it finished: runs the stats deletions that waited for it,
+     * then lets the stats writer save again and builds the leaderboards
+     */
+    void onKeysConverted() {
+        while (true) {
+            List<Runnable> waiting;
+            synchronized (afterConversion) {
+                if (afterConversion.isEmpty()) {
+                    holdWrites = false;
+                    break;
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("Failed to execute data flush for disconnecting player: " + uuidStr);
-                e.printStackTrace();
+                waiting = new ArrayList<>(afterConversion);
+                afterConversion.clear();
             }
-        });
+            waiting.forEach(Runnable::run);
+        }
+
+        rebuildLeaderboards();
+        if (statsWriter != null) {
+            statsWriter.requestFlush();
+        }
+    }
+
+    /**
+     * Runs a database write in the background, or once the key conversion finishes if it is still running
+     */
+    private void whenKeysConverted(Runnable task) {
+        synchronized (afterConversion) {
+            if (holdWrites) {
+                afterConversion.add(task);
+                return;
+            }
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    private void bindPlayer(PreparedStatement ps, int index, UUID playerUuid) throws SQLException {
+        if (legacyKeys) {
+            ps.setString(index, playerUuid.toString());
+        } else {
+            ps.setBytes(index, UuidBytes.toBytes(playerUuid));
+        }
+    }
+
+    private void bindMob(PreparedStatement ps, int index, String mobId) throws SQLException {
+        if (legacyKeys) {
+            ps.setString(index, mobId);
+        } else {
+            ps.setInt(index, mobIds.idOf(mobId));
+        }
+    }
+
+    private UUID readPlayer(ResultSet rs) throws SQLException {
+        return legacyKeys ? UUID.fromString(rs.getString("player_uuid")) : UuidBytes.fromBytes(rs.getBytes("player_uuid"));
+    }
+
+    private String readMob(ResultSet rs) throws SQLException {
+        return legacyKeys ? rs.getString("mob_id") : mobIds.nameOf(rs.getInt("mob_id"));
+    }
+
+    /**
+     * Gets the source of per-player totals: the player_totals table, or an aggregate over the
+     * text-keyed stats table while the key conversion has not built it yet
+     */
+    private String totalsTable() {
+        return legacyKeys ? LEGACY_TOTALS : "player_totals";
+    }
+
+    Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    public void closeConnection() {
+        if (keyConversion != null) {
+            keyConversion.stop();
+        }
+        synchronized (afterConversion) {
+            if (!afterConversion.isEmpty()) {
+                plugin.getLogger().warning(afterConversion.size() + " stats deletions were waiting for the key conversion and were not applied.");
+                afterConversion.clear();
+            }
+        }
+        if (statsWriter != null) {
+            statsWriter.stop();
+        }
+        if (deltaLog != null) {
+            CachedStats.setDeltaLog(null);
+            deltaLog.close();
+        }
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+        }
+    }
+
+    /** Starts the background writer thread for active gameplay saves */
+    public void startSaveTask() {
+        // Flushes every 60 seconds while players are active, sooner when players log out
+        boolean sqlite = plugin.getConfig().getString("database.type", "SQLite").equalsIgnoreCase("SQLITE");
+        this.statsWriter = new StatsWriter(plugin, this, 60_000L, sqlite, deltaLog);
+        this.statsWriter.start();
+
+        if (deltaLog != null) {
+            // Logged changes reach the disk once per second rather than on every hit
+            Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, deltaLog::sync, 20L, 20L);
+        }
+    }
+
+    /**
+     * Writes every dirty player memory profile entry to disk as one unified batch.
+     * @param runAsynchronously Set to TRUE for live gameplay timers, FALSE for server shutdowns.
+     */
+    public void saveAllActiveCaches(boolean runAsynchronously) {
+        if (statsWriter == null) return;
+
+        if (runAsynchronously) {
+            statsWriter.requestFlush();
+        } else {
+            statsWriter.flush(); // Runs instantly right here on the main thread (Crucial for shutdown)
+        }
+    }
+
+    /**
+     * Safely hands any unsaved (dirty) data for a single disconnecting player
+     * to the stats writer before their session cache is entirely removed.
+     * Players leaving close together are written in the same commit.
+     */
+    public void flushSinglePlayerStats(UUID playerUuid) {
+        if (statsWriter == null) return; // Not started yet; the keys stay dirty for the first flush
+
+        // Taken now, while the session cache still holds the player, and before a flush can rotate the delta log
+        synchronized (CachedStats.JOURNAL_LOCK) {
+            Map<String, CachedStats.MobStats> playerMobMap = CachedStats.getPlayerMobStats(playerUuid);
+            List<CachedStats.StatsKey> dirtyKeys = CachedStats.drainDirty(playerUuid);
+            if (dirtyKeys.isEmpty() || playerMobMap.isEmpty()) return;
+
+            statsWriter.enqueueDeparted(playerMobMap, dirtyKeys);
+        }
     }
 
 
@@ -233,10 +423,11 @@ public class StatsManager {
 
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                bindPlayer(ps, 1, playerUuid);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
-                        String mobId = rs.getString("mob_id");
+                        String mobId = readMob(rs);
+                        if (mobId == null) continue;
                         CachedStats.MobStats stats = new CachedStats.MobStats(
                                 rs.getInt("kills_count"),
                                 rs.getInt("deaths_count"),
@@ -275,7 +466,8 @@ public class StatsManager {
                  ResultSet rs = ps.executeQuery()) {
 
                 while (rs.next()) {
-                    String mobId = rs.getString("mob_id");
+                    String mobId = readMob(rs);
+                    if (mobId == null) continue;
 
                     CachedStats.GlobalStats compiledTotals = new CachedStats.GlobalStats(
                             rs.getInt("total_k"),
@@ -295,6 +487,41 @@ public class StatsManager {
         });
     }
 
+    /**
+     * Builds the in-memory leaderboards from the stats table in the background.
+     * Leaderboard queries fall back to the database until this finishes.
+     */
+    public void loadLeaderboards() {
+        // Built by the key conversion once it finishes
+        if (legacyKeys) return;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::rebuildLeaderboards);
+    }
+
+    private void rebuildLeaderboards() {
+        try {
+            long start = System.nanoTime();
+            leaderboards.rebuild();
+            plugin.debug("Rebuilt leaderboards in " + (System.nanoTime() - start) / 1_000_000 + "ms", "save_and_load");
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to build the stats leaderboards!");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Updates the in-memory leaderboards with rows a stats flush just committed
+     *
+     * @param rows The committed rows
+     */
+    void updateLeaderboards(List<StatsWriter.StatsRow> rows) {
+        try {
+            leaderboards.apply(rows);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to update the stats leaderboards!");
+            e.printStackTrace();
+        }
+    }
+
     /** Get how many times a specific player has killed a specific mob */
     public CompletableFuture<Integer> getPlayerKillsForMob(UUID playerUuid, String mobId) {
         CompletableFuture<Integer> future = new CompletableFuture<>();
@@ -304,8 +531,8 @@ public class StatsManager {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, playerUuid.toString());
-                ps.setString(2, mobId);
+                bindPlayer(ps, 1, playerUuid);
+                bindMob(ps, 2, mobId);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         future.complete(rs.getInt("kills_count"));
@@ -331,8 +558,8 @@ public class StatsManager {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, playerUuid.toString());
-                ps.setString(2, mobId);
+                bindPlayer(ps, 1, playerUuid);
+                bindMob(ps, 2, mobId);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         future.complete(rs.getInt("max_damage_dealt"));
@@ -358,8 +585,8 @@ public class StatsManager {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, playerUuid.toString());
-                ps.setString(2, mobId);
+                bindPlayer(ps, 1, playerUuid);
+                bindMob(ps, 2, mobId);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         future.complete(rs.getInt("total_damage_dealt"));
@@ -385,8 +612,8 @@ public class StatsManager {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, playerUuid.toString());
-                ps.setString(2, mobId);
+                bindPlayer(ps, 1, playerUuid);
+                bindMob(ps, 2, mobId);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         future.complete(rs.getInt("deaths_count"));
@@ -408,6 +635,9 @@ public class StatsManager {
 
     /** Top players who have killed the most of a specific power mob */
     public CompletableFuture<List<LeaderboardEntry>> getTopKillerToMob(String mobId, int limit) {
+        if (leaderboards.isReady() && limit <= Leaderboards.CAPACITY) {
+            return CompletableFuture.completedFuture(leaderboards.top(mobId, Leaderboards.Metric.KILLS, limit));
+        }
         CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
         String sql = "SELECT player_uuid, kills_count FROM player_mob_stats WHERE mob_id = ? ORDER BY kills_count DESC LIMIT ?";
 
@@ -416,12 +646,12 @@ public class StatsManager {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, mobId);
+                bindMob(ps, 1, mobId);
                 ps.setInt(2, limit);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         le.add(new LeaderboardEntry(
-                                UUID.fromString(rs.getString("player_uuid")),
+                                readPlayer(rs),
                                 rs.getInt("kills_count")
                         ));
                     }
@@ -438,8 +668,11 @@ public class StatsManager {
 
     /** Top players who have killed the most power mobs */
     public CompletableFuture<List<LeaderboardEntry>> getTopKillerAcrossAllMobs(int limit) {
+        if (leaderboards.isReady() && limit <= Leaderboards.CAPACITY) {
+            return CompletableFuture.completedFuture(leaderboards.topGlobal(Leaderboards.Metric.KILLS, limit));
+        }
         CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
-        String sql = "SELECT player_uuid, SUM(kills_count) AS total_kills FROM player_mob_stats GROUP BY player_uuid ORDER BY total_kills DESC LIMIT ?";
+        String sql = "SELECT player_uuid, total_kills FROM " + totalsTable() + " ORDER BY total_kills DESC LIMIT ?";
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             List<LeaderboardEntry> le = new ArrayList<>();
@@ -450,7 +683,7 @@ public class StatsManager {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         le.add(new LeaderboardEntry(
-                                UUID.fromString(rs.getString("player_uuid")),
+                                readPlayer(rs),
                                 rs.getDouble("total_kills")
                         ));
                     }
@@ -467,6 +700,9 @@ public class StatsManager {
 
     /** Top players who have dealt the highest single-fight damage to a specific power mob */
     public CompletableFuture<List<LeaderboardEntry>> getTopMaxDamageToMob(String mobId, int limit) {
+        if (leaderboards.isReady() && limit <= Leaderboards.CAPACITY) {
+            return CompletableFuture.completedFuture(leaderboards.top(mobId, Leaderboards.Metric.MAX_DAMAGE, limit));
+        }
         CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
         String sql = "SELECT player_uuid, max_damage_dealt FROM player_mob_stats WHERE mob_id = ? ORDER BY max_damage_dealt DESC LIMIT ?";
 
@@ -475,12 +711,12 @@ public class StatsManager {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, mobId);
+                bindMob(ps, 1, mobId);
                 ps.setInt(2, limit);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         le.add(new LeaderboardEntry(
-                                UUID.fromString(rs.getString("player_uuid")),
+                                readPlayer(rs),
                                 rs.getDouble("max_damage_dealt")
                         ));
                     }
@@ -497,8 +733,11 @@ public class StatsManager {
 
     /** Top players who have killed the most power mobs */
     public CompletableFuture<List<LeaderboardEntry>> getTopMaxDamageAcrossAllMobs(int limit) {
+        if (leaderboards.isReady() && limit <= Leaderboards.CAPACITY) {
+            return CompletableFuture.completedFuture(leaderboards.topGlobal(Leaderboards.Metric.MAX_DAMAGE, limit));
+        }
         CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
-        String sql = "SELECT player_uuid, SUM(max_damage_dealt) AS max_damage FROM player_mob_stats GROUP BY player_uuid ORDER BY max_damage DESC LIMIT ?";
+        String sql = "SELECT player_uuid, max_damage FROM " + totalsTable() + " ORDER BY max_damage DESC LIMIT ?";
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             List<LeaderboardEntry> le = new ArrayList<>();
@@ -509,7 +748,7 @@ public class StatsManager {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         le.add(new LeaderboardEntry(
-                                UUID.fromString(rs.getString("player_uuid")),
+                                readPlayer(rs),
                                 rs.getDouble("max_damage")
                         ));
                     }
@@ -526,6 +765,9 @@ public class StatsManager {
 
     /** Top players who have dealt the most damage to a specific power mob */
     public CompletableFuture<List<LeaderboardEntry>> getTopDamageToMob(String mobId, int limit) {
+        if (leaderboards.isReady() && limit <= Leaderboards.CAPACITY) {
+            return CompletableFuture.completedFuture(leaderboards.top(mobId, Leaderboards.Metric.TOTAL_DAMAGE, limit));
+        }
         CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
         String sql = "SELECT player_uuid, total_damage_dealt FROM player_mob_stats WHERE mob_id = ? ORDER BY total_damage_dealt DESC LIMIT ?";
 
@@ -534,12 +776,12 @@ public class StatsManager {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, mobId);
+                bindMob(ps, 1, mobId);
                 ps.setInt(2, limit);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         le.add(new LeaderboardEntry(
-                                UUID.fromString(rs.getString("player_uuid")),
+                                readPlayer(rs),
                                 rs.getInt("total_damage_dealt")
                         ));
                     }
@@ -556,8 +798,11 @@ public class StatsManager {
 
     /** Top players who have dealt the most damage across ALL power mobs combined */
     public CompletableFuture<List<LeaderboardEntry>> getTopDamageAcrossAllMobs(int limit) {
+        if (leaderboards.isReady() && limit <= Leaderboards.CAPACITY) {
+            return CompletableFuture.completedFuture(leaderboards.topGlobal(Leaderboards.Metric.TOTAL_DAMAGE, limit));
+        }
         CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
-        String sql = "SELECT player_uuid, SUM(total_damage_dealt) AS total_damage FROM player_mob_stats GROUP BY player_uuid ORDER BY total_damage DESC LIMIT ?";
+        String sql = "SELECT player_uuid, total_damage FROM " + totalsTable() + " ORDER BY total_damage DESC LIMIT ?";
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             List<LeaderboardEntry> le = new ArrayList<>();
@@ -568,7 +813,7 @@ public class StatsManager {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         le.add(new LeaderboardEntry(
-                                UUID.fromString(rs.getString("player_uuid")),
+                                readPlayer(rs),
                                 rs.getDouble("total_damage")
                         ));
                     }
@@ -585,6 +830,9 @@ public class StatsManager {
 
     /** Top players who have died the most to a specific power mob */
     public CompletableFuture<List<LeaderboardEntry>> getTopDeathsToMob(String mobId, int limit) {
+        if (leaderboards.isReady() && limit <= Leaderboards.CAPACITY) {
+            return CompletableFuture.completedFuture(leaderboards.top(mobId, Leaderboards.Metric.DEATHS, limit));
+        }
         CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
         String sql = "SELECT player_uuid, deaths_count FROM player_mob_stats WHERE mob_id = ? ORDER BY deaths_count DESC LIMIT ?";
 
@@ -593,12 +841,12 @@ public class StatsManager {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, mobId);
+                bindMob(ps, 1, mobId);
                 ps.setInt(2, limit);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         le.add(new LeaderboardEntry(
-                                UUID.fromString(rs.getString("player_uuid")),
+                                readPlayer(rs),
                                 rs.getInt("deaths_count")
                         ));
                     }
@@ -615,10 +863,12 @@ public class StatsManager {
 
     /** Top players who have died the least across all power mobs combined */
     public CompletableFuture<List<LeaderboardEntry>> getTopDeathsAcrossAllMobs(int limit) {
+        if (leaderboards.isReady() && limit <= Leaderboards.CAPACITY) {
+            return CompletableFuture.completedFuture(leaderboards.topGlobal(Leaderboards.Metric.DEATHS, limit));
+        }
         CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
 
-        String sql = "SELECT player_uuid, SUM(deaths_count) AS total_deaths " +
-                "FROM player_mob_stats GROUP BY player_uuid ORDER BY total_deaths DESC LIMIT ?";
+        String sql = "SELECT player_uuid, total_deaths FROM " + totalsTable() + " ORDER BY total_deaths DESC LIMIT ?";
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             List<LeaderboardEntry> le = new ArrayList<>();
@@ -629,7 +879,7 @@ public class StatsManager {
                 try (ResultSet rs = s.executeQuery()) {
                     while (rs.next()) {
                         le.add(new LeaderboardEntry(
-                                UUID.fromString(rs.getString("player_uuid")),
+                                readPlayer(rs),
                                 rs.getInt("total_deaths")
                         ));
                     }
@@ -647,16 +897,26 @@ public class StatsManager {
     public void clearAllPlayerData(UUID player) {
         String sql = "DELETE FROM player_mob_stats WHERE player_uuid = ?";
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try (Connection conn = getConnection();
-                 PreparedStatement ps = conn.prepareStatement(sql)) {
-
-                ps.setString(1, player.toString());
-                ps.executeUpdate();
-
+        whenKeysConverted(() -> {
+            try (Connection conn = getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setBytes(1, UuidBytes.toBytes(player));
+                    ps.executeUpdate();
+                    PlayerTotals.refresh(conn, List.of(player));
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
             } catch (SQLException e) {
                 e.printStackTrace();
+                return;
             }
+            // After the connection is returned, the rebuild takes its own and the pool may hold only one
+            rebuildLeaderboards();
         });
     }
 
@@ -672,13 +932,14 @@ public class StatsManager {
                     "ON DUPLICATE KEY UPDATE kills_count = kills_count + 1";
         }
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        whenKeysConverted(() -> {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(mobQuery)) {
 
-                ps.setString(1, playerUuid.toString());
-                ps.setString(2, mobId);
+                ps.setBytes(1, UuidBytes.toBytes(playerUuid));
+                ps.setInt(2, mobIds.resolve(conn, mobId));
                 ps.executeUpdate();
+                PlayerTotals.refresh(conn, List.of(playerUuid));
 
             } catch (SQLException e) {
                 e.printStackTrace();
@@ -687,7 +948,6 @@ public class StatsManager {
     }
 
     public void recordDamage(UUID playerUuid, String mobId, double damage) {
-        String uuidStr = playerUuid.toString();
         String dbType = plugin.getConfig().getString("database.type", "SQLite");
 
         String mobQuery;
@@ -700,16 +960,24 @@ public class StatsManager {
                     "ON DUPLICATE KEY UPDATE max_damage_dealt = GREATEST(max_damage_dealt, VALUES(max_damage_dealt)), total_damage_dealt = total_damage_dealt + VALUES(total_damage_dealt)";
         }
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        whenKeysConverted(() -> {
             try (Connection conn = getConnection()) {
-                PreparedStatement ps1 = conn.prepareStatement(mobQuery);
-                    ps1.setString(1, uuidStr);
-                    ps1.setString(2, mobId);
+                int mob = mobIds.resolve(conn, mobId);
+                conn.setAutoCommit(false);
+                try (PreparedStatement ps1 = conn.prepareStatement(mobQuery)) {
+                    ps1.setBytes(1, UuidBytes.toBytes(playerUuid));
+                    ps1.setInt(2, mob);
                     ps1.setDouble(3, damage);
                     ps1.setDouble(4, damage);
                     ps1.executeUpdate();
-
+                    PlayerTotals.refresh(conn, List.of(playerUuid));
                     conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
             } catch (SQLException e) {
                 e.printStackTrace();
             }
@@ -721,21 +989,29 @@ public class StatsManager {
      * Deletes a player's history for a specific power mob and recalculates their global totals.
      */
     public void clearSpecificMobData(UUID playerUuid, String mobId) {
-        String uuidStr = playerUuid.toString();
 
         String deleteMobSql = "DELETE FROM player_mob_stats WHERE player_uuid = ? AND mob_id = ?;";
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        whenKeysConverted(() -> {
             try (Connection conn = getConnection()) {
-                PreparedStatement psDelete = conn.prepareStatement(deleteMobSql);
-                    psDelete.setString(1, uuidStr);
-                    psDelete.setString(2, mobId);
+                conn.setAutoCommit(false);
+                try (PreparedStatement psDelete = conn.prepareStatement(deleteMobSql)) {
+                    psDelete.setBytes(1, UuidBytes.toBytes(playerUuid));
+                    psDelete.setInt(2, mobIds.idOf(mobId));
                     psDelete.executeUpdate();
+                    PlayerTotals.refresh(conn, List.of(playerUuid));
                     conn.commit();
-
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
             } catch (SQLException e) {
                 e.printStackTrace();
+                return;
             }
+            rebuildLeaderboards();
         });
     }
 
@@ -744,14 +1020,25 @@ public class StatsManager {
     public void clearAllSpecificMobData(String mobId) {
         String sql = "DELETE FROM player_mob_stats WHERE mob_id = ?";
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try (Connection conn = getConnection();
-                 PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, mobId);
-                ps.executeUpdate();
+        whenKeysConverted(() -> {
+            try (Connection conn = getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, mobIds.idOf(mobId));
+                    ps.executeUpdate();
+                    PlayerTotals.rebuild(conn);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
             } catch (SQLException e) {
                 e.printStackTrace();
+                return;
             }
+            rebuildLeaderboards();
         });
     }
 
@@ -761,20 +1048,15 @@ public class StatsManager {
      */
     public CompletableFuture<Integer> getPlayerDamageRank(UUID playerUuid) {
         CompletableFuture<Integer> future = new CompletableFuture<>();
-        String sql = "SELECT COUNT(*) + 1 AS rank FROM (" +
-                "  SELECT player_uuid, SUM(total_damage_dealt) AS total " +
-                "  FROM player_mob_stats " +
-                "  GROUP BY player_uuid" +
-                ") t1 WHERE total > (" +
-                "  SELECT COALESCE(SUM(total_damage_dealt), 0) " +
-                "  FROM player_mob_stats WHERE player_uuid = ?" +
-                ");";
+        String sql = "SELECT COUNT(*) + 1 AS rank FROM " + totalsTable() + " WHERE total_damage > COALESCE((" +
+                "  SELECT total_damage FROM " + totalsTable() + " WHERE player_uuid = ?" +
+                "), 0);";
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, playerUuid.toString());
+                bindPlayer(ps, 1, playerUuid);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         future.complete(rs.getInt("rank"));
@@ -797,20 +1079,15 @@ public class StatsManager {
      */
     public CompletableFuture<Integer> getPlayerMaxDamageRank(UUID playerUuid) {
         CompletableFuture<Integer> future = new CompletableFuture<>();
-        String sql = "SELECT COUNT(*) + 1 AS rank FROM (" +
-                "  SELECT player_uuid, SUM(max_damage_dealt) AS total " +
-                "  FROM player_mob_stats " +
-                "  GROUP BY player_uuid" +
-                ") t1 WHERE total > (" +
-                "  SELECT COALESCE(SUM(max_damage_dealt), 0) " +
-                "  FROM player_mob_stats WHERE player_uuid = ?" +
-                ");";
+        String sql = "SELECT COUNT(*) + 1 AS rank FROM " + totalsTable() + " WHERE max_damage > COALESCE((" +
+                "  SELECT max_damage FROM " + totalsTable() + " WHERE player_uuid = ?" +
+                "), 0);";
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, playerUuid.toString());
+                bindPlayer(ps, 1, playerUuid);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         future.complete(rs.getInt("rank"));
@@ -833,20 +1110,15 @@ public class StatsManager {
      */
     public CompletableFuture<Integer> getPlayerKillsRank(UUID playerUuid) {
         CompletableFuture<Integer> future = new CompletableFuture<>();
-        String sql = "SELECT COUNT(*) + 1 AS rank FROM (" +
-                "  SELECT player_uuid, SUM(kills_count) AS total " +
-                "  FROM player_mob_stats " +
-                "  GROUP BY player_uuid" +
-                ") t1 WHERE total > (" +
-                "  SELECT COALESCE(SUM(kills_count), 0) " +
-                "  FROM player_mob_stats WHERE player_uuid = ?" +
-                ");";
+        String sql = "SELECT COUNT(*) + 1 AS rank FROM " + totalsTable() + " WHERE total_kills > COALESCE((" +
+                "  SELECT total_kills FROM " + totalsTable() + " WHERE player_uuid = ?" +
+                "), 0);";
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, playerUuid.toString());
+                bindPlayer(ps, 1, playerUuid);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         future.complete(rs.getInt("rank"));
@@ -872,20 +1144,15 @@ public class StatsManager {
      */
     public CompletableFuture<Integer> getPlayerDeathsRank(UUID playerUuid) {
         CompletableFuture<Integer> future = new CompletableFuture<>();
-        String sql = "SELECT COUNT(*) + 1 AS rank FROM (" +
-                "  SELECT player_uuid, SUM(deaths_count) AS total " +
-                "  FROM player_mob_stats " +
-                "  GROUP BY player_uuid" +
-                ") t1 WHERE total < (" +
-                "  SELECT COALESCE(SUM(deaths_count), 0) " +
-                "  FROM player_mob_stats WHERE player_uuid = ?" +
-                ");";
+        String sql = "SELECT COUNT(*) + 1 AS rank FROM " + totalsTable() + " WHERE total_deaths < COALESCE((" +
+                "  SELECT total_deaths FROM " + totalsTable() + " WHERE player_uuid = ?" +
+                "), 0);";
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try (Connection conn = getConnection();
                  PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                ps.setString(1, playerUuid.toString());
+                bindPlayer(ps, 1, playerUuid);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         future.complete(rs.getInt("rank"));
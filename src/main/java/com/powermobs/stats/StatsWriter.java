@@ -0,0 +1,278 @@
+package com.powermobs.stats;
+
+import com.powermobs.PowerMobsPlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind journal for player stats.
+ * <p>
+ * Updates only mark (player, mob) keys dirty in {@link CachedStats}. A single writer thread
+ * drains the dirty keys, together with the final values of players who logged out, and writes
+ * them as multi-row upserts in one transaction. Periodic saves and logouts that happen close
+ * together share a commit, so the work done is proportional to what changed.
+ */
+final class StatsWriter {
+
+    // Rows per INSERT statement; 6 parameters each stays under SQLite's variable limit
+    private static final int ROWS_PER_STATEMENT = 100;
+    // How long the writer waits after a logout for other logouts to join the same commit
+    private static final long GROUP_COMMIT_DELAY_MS = 250L;
+
+    private final PowerMobsPlugin plugin;
+    private final StatsManager statsManager;
+    private final long intervalMillis;
+    private final boolean sqlite;
+    private final StatsDeltaLog deltaLog;
+
+    // Final values of logged out players, waiting for the next commit
+    private final Map<CachedStats.StatsKey, StatsRow> departed = new ConcurrentHashMap<>();
+    private final Object signal = new Object();
+    private volatile boolean running = false;
+    private boolean flushRequested = false;
+    private Thread thread;
+
+    /**
+     * Creates a new stats writer
+     *
+     * @param plugin         The plugin instance
+     * @param statsManager   The stats manager providing connections
+     * @param intervalMillis The time between periodic flushes
+     * @param sqlite         Whether the database is SQLite rather than MySQL
+     * @param deltaLog       The log of changes not yet written, or null
+     */
+    StatsWriter(PowerMobsPlugin plugin, StatsManager statsManager, long intervalMillis, boolean sqlite, StatsDeltaLog deltaLog) {
+        this.plugin = plugin;
+        this.statsManager = statsManager;
+        this.intervalMillis = intervalMillis;
+        this.sqlite = sqlite;
+        this.deltaLog = deltaLog;
+    }
+
+    /**
+     * Starts the writer thread
+     */
+    void start() {
+        if (this.running) return;
+        this.running = true;
+        this.thread = new Thread(this::run, "PowerMobs-StatsWriter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops the writer thread and writes everything still pending on the calling thread
+     */
+    void stop() {
+        this.running = false;
+        if (this.thread != null) {
+            synchronized (this.signal) {
+                this.signal.notifyAll();
+            }
+            try {
+                this.thread.join(10_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.thread = null;
+        }
+        flush();
+    }
+
+    /**
+     * Asks the writer thread to flush soon, grouping with any other request that arrives meanwhile
+     */
+    void requestFlush() {
+        synchronized (this.signal) {
+            this.flushRequested = true;
+            this.signal.notifyAll();
+        }
+    }
+
+    /**
+     * Takes the dirty stats of a player who is leaving, so they are written with the next commit
+     *
+     * @param playerMobMap The player's cached stats
+     * @param dirtyKeys    The player's dirty keys
+     */
+    void enqueueDeparted(Map<String, CachedStats.MobStats> playerMobMap, List<CachedStats.StatsKey> dirtyKeys) {
+        for (CachedStats.StatsKey key : dirtyKeys) {
+            CachedStats.MobStats stats = playerMobMap.get(key.mobId());
+            if (stats != null) {
+                this.departed.put(key, StatsRow.of(key, stats));
+            }
+        }
+        requestFlush();
+    }
+
+    private void run() {
+        while (this.running) {
+            boolean grouped;
+            synchronized (this.signal) {
+                long deadline = System.currentTimeMillis() + this.intervalMillis;
+                long remaining;
+                while (this.running && !this.flushRequested && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        this.signal.wait(remaining);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                grouped = this.flushRequested;
+                this.flushRequested = false;
+            }
+            if (!this.running) return;
+
+            if (grouped) {
+                try {
+                    Thread.sleep(GROUP_COMMIT_DELAY_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Writes every pending row in a single transaction
+     */
+    synchronized void flush() {
+        // Rows stay dirty and in the delta log until the new stats table is swapped in
+        if (this.statsManager.isHoldingWrites()) return;
+        Map<CachedStats.StatsKey, StatsRow> rows = new HashMap<>();
+        long covered = -1;
+        synchronized (CachedStats.JOURNAL_LOCK) {
+            for (CachedStats.StatsKey key : this.departed.keySet()) {
+                StatsRow row = this.departed.remove(key);
+                if (row != null) rows.put(key, row);
+            }
+            for (CachedStats.StatsKey key : CachedStats.drainDirty()) {
+                CachedStats.MobStats stats = CachedStats.getPlayerMobStats(key.playerUuid()).get(key.mobId());
+                // A player who logged back in has newer values than their departure snapshot
+                if (stats != null) rows.put(key, StatsRow.of(key, stats));
+            }
+            if (rows.isEmpty()) return;
+
+            // Every change logged so far is part of this snapshot
+            if (this.deltaLog != null) {
+                covered = this.deltaLog.rotate();
+            }
+        }
+        if (this.deltaLog != null) {
+            // Maps the segment the next rotation switches to, while appends carry on
+            this.deltaLog.prepareNext();
+        }
+
+        List<StatsRow> batch = new ArrayList<>(rows.values());
+        long start = System.nanoTime();
+        try {
+            write(batch, covered);
+            if (covered >= 0) {
+                this.deltaLog.deleteThrough(covered);
+            }
+            this.statsManager.updateLeaderboards(batch);
+            this.plugin.debug("Stats writer committed " + batch.size() + " rows in "
+                    + (System.nanoTime() - start) / 1_000_000 + "ms", "save_and_load");
+        } catch (SQLException e) {
+            // Keep the rows for the next attempt; newer values, if any, are already queued or dirty again
+            for (StatsRow row : batch) {
+                this.departed.putIfAbsent(row.key(), row);
+            }
+            this.plugin.getLogger().severe("Error executing unified statistics database flush!");
+            e.printStackTrace();
+        }
+    }
+
+    private void write(List<StatsRow> batch, long coveredSegment) throws SQLException {
+        MobIds mobIds = this.statsManager.getMobIds();
+        try (Connection conn = this.statsManager.getConnection()) {
+            // Registered before the transaction, so a rollback cannot leave stale keys in the mob id cache
+            for (StatsRow row : batch) {
+                mobIds.resolve(conn, row.key().mobId());
+            }
+
+            conn.setAutoCommit(false);
+            try {
+                int fullStatements = batch.size() / ROWS_PER_STATEMENT;
+                if (fullStatements > 0) {
+                    try (PreparedStatement ps = conn.prepareStatement(upsertSql(ROWS_PER_STATEMENT))) {
+                        for (int s = 0; s < fullStatements; s++) {
+                            bind(ps, mobIds, batch, s * ROWS_PER_STATEMENT, ROWS_PER_STATEMENT);
+                            ps.executeUpdate();
+                        }
+                    }
+                }
+                int rest = batch.size() - fullStatements * ROWS_PER_STATEMENT;
+                if (rest > 0) {
+                    try (PreparedStatement ps = conn.prepareStatement(upsertSql(rest))) {
+                        bind(ps, mobIds, batch, fullStatements * ROWS_PER_STATEMENT, rest);
+                        ps.executeUpdate();
+                    }
+                }
+                Set<UUID> players = new HashSet<>();
+                for (StatsRow row : batch) {
+                    players.add(row.key().playerUuid());
+                }
+                PlayerTotals.refresh(conn, players);
+
+                if (coveredSegment >= 0) {
+                    // Committed with the rows, so the covered log segments are never replayed on top of them
+                    this.statsManager.writeDeltaCheckpoint(conn, coveredSegment);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, MobIds mobIds, List<StatsRow> batch, int from, int count) throws SQLException {
+        int p = 1;
+        for (int i = from; i < from + count; i++) {
+            StatsRow row = batch.get(i);
+            ps.setBytes(p++, UuidBytes.toBytes(row.key().playerUuid()));
+            ps.setInt(p++, mobIds.idOf(row.key().mobId()));
+            ps.setInt(p++, row.kills());
+            ps.setInt(p++, row.deaths());
+            ps.setDouble(p++, row.maxDamage());
+            ps.setDouble(p++, row.totalDamage());
+        }
+    }
+
+    private String upsertSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO player_mob_stats (player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(?, ?, ?, ?, ?, ?)");
+        }
+        if (this.sqlite) {
+            sql.append(" ON CONFLICT(player_uuid, mob_id) DO UPDATE SET kills_count = EXCLUDED.kills_count, deaths_count = EXCLUDED.deaths_count, max_damage_dealt = MAX(max_damage_dealt, EXCLUDED.max_damage_dealt), total_damage_dealt = EXCLUDED.total_damage_dealt;");
+        } else {
+            sql.append(" ON DUPLICATE KEY UPDATE kills_count = VALUES(kills_count), deaths_count = VALUES(deaths_count), max_damage_dealt = GREATEST(max_damage_dealt, VALUES(max_damage_dealt)), total_damage_dealt = VALUES(total_damage_dealt);");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * The values of one (player, mob) pair at the time they were taken for writing
+     */
+    record StatsRow(CachedStats.StatsKey key, int kills, int deaths, double maxDamage, double totalDamage) {
+        static StatsRow of(CachedStats.StatsKey key, CachedStats.MobStats stats) {
+            return new StatsRow(key, stats.getKills(), stats.getDeaths(), stats.getMaxDamage(), stats.getTotalDamage());
+        }
+    }
+}
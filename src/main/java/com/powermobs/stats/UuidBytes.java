@@ -0,0 +1,25 @@
+package com.powermobs.stats;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Converts player UUIDs to and from the 16-byte form stored in the stats tables.
+ */
+final class UuidBytes {
+
+    private UuidBytes() {
+    }
+
+    static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
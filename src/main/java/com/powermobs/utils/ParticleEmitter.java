@@ -0,0 +1,258 @@
+package com.powermobs.utils;
+
+import com.powermobs.PowerMobsPlugin;
+import com.powermobs.config.ParticleEffectConfig;
+import com.powermobs.mobs.equipment.items.Shape;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends every particle the plugin shows: ability visuals, item effects and spawn effects.
+ * <p>
+ * Particles are only sent to players within view range, and each player receives at most
+ * a configured number of particles per tick; anything over the budget is dropped for that tick.
+ * Configured shapes are sampled once into cached point clouds instead of on every burst.
+ */
+public class ParticleEmitter {
+
+    // Players further away than this do not see non-forced particles anyway
+    private static final double VIEW_RANGE = 32.0;
+    private static final double VIEW_RANGE_SQUARED = VIEW_RANGE * VIEW_RANGE;
+
+    private static final int MAX_CACHED_CLOUDS = 64;
+    // Pre-sampled variants per cloud, picked at random so repeated bursts do not look identical
+    private static final int CLOUD_VARIANTS = 4;
+
+    private final PowerMobsPlugin plugin;
+    // Least recently used clouds are evicted first once the cap is reached
+    private final Map<CloudKey, double[][]> clouds = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CloudKey, double[][]> eldest) {
+            return size() > MAX_CACHED_CLOUDS;
+        }
+    };
+    // Player UUID -> particles sent in the current tick
+    private final Map<UUID, int[]> sentThisTick = new HashMap<>();
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private int budgetTick = -1;
+
+    /**
+     * Creates a new particle emitter
+     *
+     * @param plugin The plugin instance
+     */
+    public ParticleEmitter(PowerMobsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Spawns particles the way {@link World#spawnParticle} does, limited to nearby players and their budget
+     *
+     * @param location The center of the particles
+     * @param particle The particle
+     * @param count    The number of particles
+     * @param offsetX  The random spread on the X axis
+     * @param offsetY  The random spread on the Y axis
+     * @param offsetZ  The random spread on the Z axis
+     * @param extra    The particle speed
+     */
+    public void spawn(Location location, Particle particle, int count, double offsetX, double offsetY, double offsetZ, double extra) {
+        spawn(location, particle, count, offsetX, offsetY, offsetZ, extra, null);
+    }
+
+    /**
+     * Spawns particles with data the way {@link World#spawnParticle} does, limited to nearby players and their budget
+     *
+     * @param location The center of the particles
+     * @param particle The particle
+     * @param count    The number of particles
+     * @param offsetX  The random spread on the X axis
+     * @param offsetY  The random spread on the Y axis
+     * @param offsetZ  The random spread on the Z axis
+     * @param extra    The particle speed
+     * @param data     The particle data, such as block data, or null
+     * @param <T>      The particle data type
+     */
+    public <T> void spawn(Location location, Particle particle, int count, double offsetX, double offsetY, double offsetZ,
+                          double extra, T data) {
+        if (location == null || location.getWorld() == null || count <= 0) return;
+
+        for (Player viewer : collectViewers(location)) {
+            int allowed = take(viewer, count);
+            if (allowed <= 0) continue;
+            viewer.spawnParticle(particle, location.getX(), location.getY(), location.getZ(), allowed,
+                    offsetX, offsetY, offsetZ, extra, data);
+        }
+    }
+
+    /**
+     * Plays a configured particle effect, repeating it over the configured duration
+     *
+     * @param config   The particle effect config
+     * @param location The center of the effect
+     * @return False if the configured particle type does not exist
+     */
+    public boolean playEffect(ParticleEffectConfig config, Location location) {
+        final Particle particle;
+        try {
+            particle = Particle.valueOf(config.getParticleType().toUpperCase());
+        } catch (Exception e) {
+            return false;
+        }
+
+        final int perTickCount = config.getParticleCount();
+        if (perTickCount <= 0 || location == null || location.getWorld() == null) return true;
+
+        final double radius = config.getParticleRadius();
+        final Shape shape = config.getParticleShape();
+
+        int durationSeconds = config.getParticleDurationSeconds();
+        if (durationSeconds <= 0) {
+            spawnShape(location, particle, shape, radius, perTickCount);
+            return true;
+        }
+
+        int interval = Math.max(1, config.getParticleIntervalTicks());
+        int runs = Math.max(1, (durationSeconds * 20) / interval);
+        new BukkitRunnable() {
+            private int remaining = runs;
+
+            @Override
+            public void run() {
+                if (this.remaining-- <= 0) {
+                    cancel();
+                    return;
+                }
+                spawnShape(location, particle, shape, radius, perTickCount);
+            }
+        }.runTaskTimer(this.plugin, 0L, interval);
+        return true;
+    }
+
+    /**
+     * Spawns one particle at each point of a shape's cached point cloud
+     *
+     * @param location The center of the shape
+     * @param particle The particle
+     * @param shape    The shape
+     * @param radius   The shape radius
+     * @param count    The number of points
+     */
+    public void spawnShape(Location location, Particle particle, Shape shape, double radius, int count) {
+        if (location.getWorld() == null || count <= 0) return;
+
+        List<Player> targets = collectViewers(location);
+        if (targets.isEmpty()) return;
+
+        double[][] variants = getCloud(shape, radius, count);
+        double[] points = variants[ThreadLocalRandom.current().nextInt(variants.length)];
+        double x = location.getX();
+        double y = location.getY();
+        double z = location.getZ();
+
+        for (Player viewer : targets) {
+            int allowed = take(viewer, count);
+            for (int i = 0; i < allowed; i++) {
+                int p = i * 3;
+                viewer.spawnParticle(particle, x + points[p], y + points[p + 1], z + points[p + 2], 1, 0, 0, 0, 0);
+            }
+        }
+    }
+
+    /**
+     * Gets the players close enough to see particles at a location
+     *
+     * @param location The center of the particles
+     * @return A new list the caller owns, so a nested spawn cannot change it during iteration
+     */
+    private List<Player> collectViewers(Location location) {
+        List<Player> viewers = new ArrayList<>();
+        for (Player player : location.getWorld().getPlayers()) {
+            if (player.getLocation(this.scratch).distanceSquared(location) <= VIEW_RANGE_SQUARED) {
+                viewers.add(player);
+            }
+        }
+        return viewers;
+    }
+
+    /**
+     * Takes particles from a player's budget for the current tick
+     *
+     * @return How many of the requested particles may be sent
+     */
+    private int take(Player player, int requested) {
+        int tick = Bukkit.getCurrentTick();
+        if (tick != this.budgetTick) {
+            this.sentThisTick.clear();
+            this.budgetTick = tick;
+        }
+
+        int[] sent = this.sentThisTick.computeIfAbsent(player.getUniqueId(), k -> new int[1]);
+        int allowed = Math.min(requested, this.plugin.getConfigManager().getMaxParticlesPerPlayerPerTick() - sent[0]);
+        if (allowed <= 0) return 0;
+        sent[0] += allowed;
+        return allowed;
+    }
+
+    private double[][] getCloud(Shape shape, double radius, int count) {
+        CloudKey key = new CloudKey(shape, radius, count);
+        double[][] variants = this.clouds.get(key);
+        if (variants == null) {
+            variants = new double[CLOUD_VARIANTS][];
+            for (int v = 0; v < CLOUD_VARIANTS; v++) {
+                variants[v] = sample(shape, radius, count);
+            }
+            this.clouds.put(key, variants);
+        }
+        return variants;
+    }
+
+    private static double[] sample(Shape shape, double radius, int count) {
+        double[] points = new double[count * 3];
+        if (radius <= 0) return points;
+
+        Random random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            int p = i * 3;
+            switch (shape) {
+                case SQUARE -> {
+                    points[p] = random.nextDouble() * radius * 2 - radius;
+                    points[p + 2] = random.nextDouble() * radius * 2 - radius;
+                }
+                case CUBE -> {
+                    points[p] = random.nextDouble() * radius * 2 - radius;
+                    points[p + 1] = random.nextDouble() * radius * 2 - radius;
+                    points[p + 2] = random.nextDouble() * radius * 2 - radius;
+                }
+                case CIRCLE -> {
+                    double t = random.nextDouble() * (Math.PI * 2);
+                    double r = Math.sqrt(random.nextDouble()) * radius;
+                    points[p] = Math.cos(t) * r;
+                    points[p + 2] = Math.sin(t) * r;
+                }
+                case ORB -> {
+                    double x, y, z;
+                    do {
+                        x = (random.nextDouble() * 2 - 1) * radius;
+                        y = (random.nextDouble() * 2 - 1) * radius;
+                        z = (random.nextDouble() * 2 - 1) * radius;
+                    } while ((x * x + y * y + z * z) > (radius * radius));
+                    points[p] = x;
+                    points[p + 1] = y;
+                    points[p + 2] = z;
+                }
+            }
+        }
+        return points;
+    }
+
+    private record CloudKey(Shape shape, double radius, int count) {
+    }
+}
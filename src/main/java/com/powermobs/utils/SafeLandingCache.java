@@ -0,0 +1,238 @@
+package com.powermobs.utils;
+
+import com.powermobs.PowerMobsPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+import java.util.*;
+
+/**
+ * Caches safe landing spots per chunk for teleporting mobs.
+ * A safe spot is a solid block with two non-solid blocks above it.
+ * <p>
+ * Chunks are sampled from a {@link ChunkSnapshot} off the main thread, using the
+ * heightmap to skip the open sky above each column. Any block change in a cached
+ * chunk drops its entry so the next lookup resamples it.
+ */
+public class SafeLandingCache implements Listener {
+
+    private static final int MAX_CACHED_CHUNKS = 256;
+    private static final int[] NO_SPOTS = new int[0];
+
+    private final PowerMobsPlugin plugin;
+    // Least recently used chunks are evicted first once the cap is reached
+    private final Map<ChunkKey, int[][]> safeSpots = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ChunkKey, int[][]> eldest) {
+            return size() > MAX_CACHED_CHUNKS;
+        }
+    };
+    // Chunks being sampled; an invalidation removes the key so a stale result is discarded
+    private final Set<ChunkKey> pendingSamples = new HashSet<>();
+
+    /**
+     * Creates a new safe landing cache
+     *
+     * @param plugin The plugin instance
+     */
+    public SafeLandingCache(PowerMobsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Gets the cached safe Y values of a block column, sorted ascending.
+     * Returns null and schedules sampling when the chunk has not been sampled yet.
+     *
+     * @param world  The world
+     * @param blockX The block X coordinate
+     * @param blockZ The block Z coordinate
+     * @return The Y values of the safe standing blocks, or null if the chunk is not cached
+     */
+    public int[] getSafeYs(World world, int blockX, int blockZ) {
+        ChunkKey key = new ChunkKey(world.getUID(), blockX >> 4, blockZ >> 4);
+        int[][] columns = this.safeSpots.get(key);
+        if (columns == null) {
+            requestSample(world, key);
+            return null;
+        }
+        return columns[columnIndex(blockX, blockZ)];
+    }
+
+    /**
+     * Drops the cached spots of the chunk containing the given block
+     *
+     * @param block The changed block
+     */
+    public void invalidate(Block block) {
+        ChunkKey key = new ChunkKey(block.getWorld().getUID(), block.getX() >> 4, block.getZ() >> 4);
+        this.safeSpots.remove(key);
+        this.pendingSamples.remove(key);
+    }
+
+    /**
+     * Clears all cached chunks
+     */
+    public void clear() {
+        this.safeSpots.clear();
+        this.pendingSamples.clear();
+    }
+
+    private void requestSample(World world, ChunkKey key) {
+        // Never load chunks just to sample them
+        if (!world.isChunkLoaded(key.x(), key.z()) || !this.pendingSamples.add(key)) {
+            return;
+        }
+
+        ChunkSnapshot snapshot = world.getChunkAt(key.x(), key.z()).getChunkSnapshot(true, false, false);
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> {
+            int[][] columns = sampleSnapshot(snapshot, minY, maxY);
+            Bukkit.getScheduler().runTask(this.plugin, () -> {
+                if (this.pendingSamples.remove(key)) {
+                    this.safeSpots.put(key, columns);
+                }
+            });
+        });
+    }
+
+    /**
+     * Finds every safe standing block in a chunk snapshot. Runs off the main thread.
+     */
+    private static int[][] sampleSnapshot(ChunkSnapshot snapshot, int minY, int maxY) {
+        int[][] columns = new int[256][];
+        int[] buffer = new int[maxY - minY];
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                // Nothing above the highest block can be stood on
+                int topY = Math.min(snapshot.getHighestBlockYAt(x, z), maxY - 1);
+                int count = 0;
+
+                boolean aboveSolid1 = false;
+                boolean aboveSolid2 = false;
+                for (int y = topY; y >= minY; y--) {
+                    boolean solid = snapshot.getBlockType(x, y, z).isSolid();
+                    if (solid && !aboveSolid1 && !aboveSolid2 && y + 2 < maxY) {
+                        buffer[count++] = y;
+                    }
+                    aboveSolid2 = aboveSolid1;
+                    aboveSolid1 = solid;
+                }
+
+                if (count == 0) {
+                    columns[(x << 4) | z] = NO_SPOTS;
+                    continue;
+                }
+
+                int[] ys = new int[count];
+                for (int i = 0; i < count; i++) {
+                    ys[i] = buffer[count - 1 - i];
+                }
+                columns[(x << 4) | z] = ys;
+            }
+        }
+
+        return columns;
+    }
+
+    private static int columnIndex(int blockX, int blockZ) {
+        return ((blockX & 15) << 4) | (blockZ & 15);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        invalidate(event.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        invalidate(event.getBlock());
+        for (Block block : event.blockList()) {
+            invalidate(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            invalidate(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        invalidate(event.getBlock());
+        for (Block block : event.getBlocks()) {
+            invalidate(block);
+            invalidate(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        invalidate(event.getBlock());
+        for (Block block : event.getBlocks()) {
+            invalidate(block);
+            invalidate(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        ChunkKey key = new ChunkKey(event.getWorld().getUID(), event.getChunk().getX(), event.getChunk().getZ());
+        this.safeSpots.remove(key);
+        this.pendingSamples.remove(key);
+    }
+
+    /**
+     * Identifies a cached chunk
+     */
+    private record ChunkKey(UUID worldId, int x, int z) {
+    }
+}
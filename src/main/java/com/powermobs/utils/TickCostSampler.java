@@ -0,0 +1,74 @@
+package com.powermobs.utils;
+
+import java.util.Arrays;
+
+/**
+ * Records how long a per-tick task takes and summarizes the distribution over a window of ticks.
+ */
+public class TickCostSampler {
+
+    private final long[] samples;
+    private int count = 0;
+
+    /**
+     * Creates a new sampler
+     *
+     * @param windowTicks The number of ticks summarized together
+     */
+    public TickCostSampler(int windowTicks) {
+        this.samples = new long[Math.max(1, windowTicks)];
+    }
+
+    /**
+     * Records the cost of one tick
+     *
+     * @param nanos The time the task took in nanoseconds
+     */
+    public void record(long nanos) {
+        if (this.count < this.samples.length) {
+            this.samples[this.count++] = nanos;
+        }
+    }
+
+    /**
+     * Checks if a full window has been recorded
+     *
+     * @return True if the window is full and ready to be summarized
+     */
+    public boolean isWindowFull() {
+        return this.count == this.samples.length;
+    }
+
+    /**
+     * Summarizes the recorded ticks and starts a new window
+     *
+     * @return The tick count, average, percentiles and maximum in microseconds
+     */
+    public String summarizeAndReset() {
+        if (this.count == 0) {
+            return "no ticks recorded";
+        }
+
+        long[] sorted = Arrays.copyOf(this.samples, this.count);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long sample : sorted) {
+            total += sample;
+        }
+
+        String summary = String.format("ticks=%d avg=%.1fus p50=%.1fus p95=%.1fus p99=%.1fus max=%.1fus",
+                this.count,
+                total / (double) this.count / 1000.0,
+                percentile(sorted, 0.50) / 1000.0,
+                percentile(sorted, 0.95) / 1000.0,
+                percentile(sorted, 0.99) / 1000.0,
+                sorted[sorted.length - 1] / 1000.0);
+        this.count = 0;
+        return summary;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -0,0 +1,109 @@
+package com.powermobs.mobs.tracking;
+
+import com.powermobs.PowerMobsPlugin;
+import com.powermobs.mobs.PowerMob;
+import com.powermobs.stats.CachedStats;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks how hits buffered within a tick reach the damage ledgers and the death payout
+ */
+class DamageTrackerTest {
+
+    private PowerMobsPlugin plugin;
+    private DamageTracker tracker;
+    private PowerMob mob;
+    private UUID powerMobUuid;
+    private Player player;
+    private String mobId;
+
+    @BeforeEach
+    void setUp() {
+        this.plugin = mock(PowerMobsPlugin.class, RETURNS_DEEP_STUBS);
+        when(this.plugin.getConfigManager().getPlayerInvolvementCount()).thenReturn(3);
+        when(this.plugin.getConfigManager().isDebugEnabled()).thenReturn(false);
+        this.tracker = new DamageTracker(this.plugin);
+
+        // Fresh IDs per test, since the stats cache is static
+        this.mobId = "boss_" + UUID.randomUUID();
+        this.powerMobUuid = UUID.randomUUID();
+        this.mob = mock(PowerMob.class);
+        when(this.mob.getEntityUuid()).thenReturn(UUID.randomUUID());
+        when(this.mob.getPowerMobUuid()).thenReturn(this.powerMobUuid);
+        when(this.mob.getId()).thenReturn(this.mobId);
+        setRegistered(true);
+
+        this.player = mock(Player.class);
+        when(this.player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(this.player.getName()).thenReturn("Killer");
+    }
+
+    @Test
+    void killingBlowInTheDeathTickCountsTheKill() {
+        // The only hit is the killing blow, still buffered when the death is processed
+        this.tracker.registerSpecialDamage(this.player, this.mob, 20.0);
+        this.tracker.calculateMobDeathInvolvement(this.mob, 1, 50.0);
+
+        CachedStats.MobStats stats = CachedStats.getPlayerMobStats(this.player.getUniqueId()).get(this.mobId);
+        assertEquals(1, stats.getKills());
+        assertEquals(20.0, stats.getTotalDamage());
+    }
+
+    @Test
+    void killingBlowAfterUnregisterReachesTheExistingLedger() {
+        Player other = mock(Player.class);
+        when(other.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(other.getName()).thenReturn("Other");
+        this.tracker.registerSpecialDamage(other, this.mob, 10.0);
+        this.tracker.flush();
+
+        // The mob is unregistered before the buffered killing blow is applied
+        setRegistered(false);
+        this.tracker.registerSpecialDamage(this.player, this.mob, 30.0);
+        this.tracker.calculateMobDeathInvolvement(this.mob, 1, 50.0);
+
+        assertEquals(1, CachedStats.getPlayerMobStats(this.player.getUniqueId()).get(this.mobId).getKills());
+        assertEquals(0, CachedStats.getPlayerMobStats(other.getUniqueId()).get(this.mobId).getKills());
+    }
+
+    @Test
+    void lateHitAfterCleanupStartsNoLedger() {
+        this.tracker.registerSpecialDamage(this.player, this.mob, 20.0);
+        this.tracker.calculateMobDeathInvolvement(this.mob, 1, 50.0);
+        setRegistered(false);
+        this.tracker.cleanupMob(this.mob.getEntityUuid());
+
+        this.tracker.registerSpecialDamage(this.player, this.mob, 5.0);
+        this.tracker.flush();
+
+        assertEquals(0, this.tracker.getLedgerCount());
+        assertEquals(1, CachedStats.getPlayerMobStats(this.player.getUniqueId()).get(this.mobId).getKills());
+    }
+
+    @Test
+    void hitsInOneTickMergePerPlayer() {
+        Player other = mock(Player.class);
+        when(other.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(other.getName()).thenReturn("Other");
+        this.tracker.registerSpecialDamage(this.player, this.mob, 4.0);
+        this.tracker.registerSpecialDamage(other, this.mob, 6.0);
+        this.tracker.registerSpecialDamage(this.player, this.mob, 5.0);
+        this.tracker.calculateMobDeathInvolvement(this.mob, 2, 0.0);
+
+        assertEquals(9.0, CachedStats.getPlayerMobStats(this.player.getUniqueId()).get(this.mobId).getTotalDamage());
+        assertEquals(6.0, CachedStats.getPlayerMobStats(other.getUniqueId()).get(this.mobId).getTotalDamage());
+    }
+
+    private void setRegistered(boolean registered) {
+        when(this.plugin.getPowerMobManager().getPowerMob(this.powerMobUuid)).thenReturn(registered ? this.mob : null);
+    }
+}
@@ -0,0 +1,148 @@
+package com.powermobs.stats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the migrated schema serves the leaderboard and rank queries from indexes
+ */
+class SchemaMigrationsTest {
+
+    private static final Logger LOGGER = Logger.getLogger("SchemaMigrationsTest");
+
+    // The queries StatsManager runs once the stats table has binary keys
+    private static final String[] MOB_TOP_QUERIES = {
+            "SELECT player_uuid, kills_count FROM player_mob_stats WHERE mob_id = ? ORDER BY kills_count DESC LIMIT ?",
+            "SELECT player_uuid, max_damage_dealt FROM player_mob_stats WHERE mob_id = ? ORDER BY max_damage_dealt DESC LIMIT ?",
+            "SELECT player_uuid, total_damage_dealt FROM player_mob_stats WHERE mob_id = ? ORDER BY total_damage_dealt DESC LIMIT ?",
+            "SELECT player_uuid, deaths_count FROM player_mob_stats WHERE mob_id = ? ORDER BY deaths_count DESC LIMIT ?"
+    };
+    private static final String[] TOTALS_QUERIES = {
+            "SELECT player_uuid, total_kills FROM player_totals ORDER BY total_kills DESC LIMIT ?",
+            "SELECT player_uuid, max_damage FROM player_totals ORDER BY max_damage DESC LIMIT ?",
+            "SELECT player_uuid, total_damage FROM player_totals ORDER BY total_damage DESC LIMIT ?",
+            "SELECT player_uuid, total_deaths FROM player_totals ORDER BY total_deaths DESC LIMIT ?",
+            "SELECT COUNT(*) + 1 AS rank FROM player_totals WHERE total_damage > COALESCE((SELECT total_damage FROM player_totals WHERE player_uuid = ?), 0)",
+            "SELECT COUNT(*) + 1 AS rank FROM player_totals WHERE max_damage > COALESCE((SELECT max_damage FROM player_totals WHERE player_uuid = ?), 0)",
+            "SELECT COUNT(*) + 1 AS rank FROM player_totals WHERE total_kills > COALESCE((SELECT total_kills FROM player_totals WHERE player_uuid = ?), 0)",
+            "SELECT COUNT(*) + 1 AS rank FROM player_totals WHERE total_deaths < COALESCE((SELECT total_deaths FROM player_totals WHERE player_uuid = ?), 0)"
+    };
+
+    @TempDir
+    Path dir;
+
+    private Connection conn;
+
+    @BeforeEach
+    void open() throws SQLException {
+        this.conn = DriverManager.getConnection("jdbc:sqlite:" + this.dir.resolve("stats.db"));
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        this.conn.close();
+    }
+
+    @Test
+    void freshDatabaseUsesIndexes() throws SQLException {
+        SchemaMigrations.migrate(this.conn, true, LOGGER);
+
+        assertFalse(KeyConversion.isPending(this.conn));
+        assertIndexedPlans();
+    }
+
+    @Test
+    void convertedDatabaseUsesIndexes() throws SQLException {
+        // A database from before the migrations, with text keys
+        try (Statement s = this.conn.createStatement()) {
+            s.execute("CREATE TABLE player_mob_stats (player_uuid VARCHAR(36), mob_id VARCHAR(64), kills_count INT DEFAULT 0, " +
+                    "deaths_count INT DEFAULT 0, max_damage_dealt DOUBLE DEFAULT 0.0, total_damage_dealt DOUBLE DEFAULT 0.0, " +
+                    "PRIMARY KEY (player_uuid, mob_id));");
+        }
+        try (PreparedStatement ps = this.conn.prepareStatement("INSERT INTO player_mob_stats VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < 250; i++) {
+                ps.setString(1, UUID.randomUUID().toString());
+                ps.setString(2, "mob_" + (i % 7));
+                ps.setInt(3, i);
+                ps.setInt(4, i % 5);
+                ps.setDouble(5, i * 1.5);
+                ps.setDouble(6, i * 10.0);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        SchemaMigrations.migrate(this.conn, true, LOGGER);
+        assertTrue(KeyConversion.isPending(this.conn));
+
+        MobIds mobIds = new MobIds(true);
+        mobIds.load(this.conn);
+        int copied = 0;
+        int batch;
+        // Small batches, so the copy has to resume from the stored position
+        while ((batch = KeyConversion.copyBatch(this.conn, mobIds, 40)) >= 0) {
+            copied += batch;
+        }
+        KeyConversion.finish(this.conn, true);
+
+        assertEquals(250, copied);
+        assertFalse(KeyConversion.isPending(this.conn));
+        assertEquals(250, count("SELECT COUNT(*) FROM player_mob_stats"));
+        assertEquals(250, count("SELECT COUNT(*) FROM player_totals"));
+        assertIndexedPlans();
+    }
+
+    private void assertIndexedPlans() throws SQLException {
+        for (String sql : MOB_TOP_QUERIES) {
+            assertIndexedPlan(sql);
+        }
+        for (String sql : TOTALS_QUERIES) {
+            assertIndexedPlan(sql);
+        }
+    }
+
+    private void assertIndexedPlan(String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement ps = this.conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            for (int i = 1; i <= ps.getParameterMetaData().getParameterCount(); i++) {
+                ps.setObject(i, null);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString("detail"));
+                }
+            }
+        }
+
+        assertTrue(plan.stream().anyMatch(line -> line.matches(".*USING (COVERING )?INDEX idx_.*")), () -> sql + " does not use a stats index: " + plan);
+        for (String line : plan) {
+            assertFalse(line.matches("SCAN (player_mob_stats|player_totals)"), () -> sql + " scans the table: " + plan);
+            assertFalse(line.contains("USE TEMP B-TREE FOR ORDER BY"), () -> sql + " sorts its rows: " + plan);
+        }
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement s = this.conn.createStatement();
+             ResultSet rs = s.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
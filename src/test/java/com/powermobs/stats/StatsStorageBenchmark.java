@@ -0,0 +1,169 @@
+package com.powermobs.stats;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Compares the text-keyed stats layout with the binary-keyed one on a generated SQLite database:
+ * file size, per-mob top-N latency and rank latency, before and after the key conversion.
+ * <p>
+ * Not a unit test; run it by hand after {@code mvn test-compile}, with sqlite-jdbc on the class path:
+ * <pre>
+ * java -cp target/classes:target/test-classes:sqlite-jdbc.jar com.powermobs.stats.StatsStorageBenchmark [rows] [players]
+ * </pre>
+ */
+public final class StatsStorageBenchmark {
+
+    private static final int MOBS = 40;
+    private static final int TOP_N = 10;
+    private static final int TOP_QUERIES = 200;
+    // Ranks over the text-keyed table aggregate every row, so fewer of them are timed
+    private static final int RANK_QUERIES = 20;
+
+    private static final String LEGACY_TOTALS = "(SELECT player_uuid, SUM(kills_count) AS total_kills, SUM(deaths_count) AS total_deaths, " +
+            "SUM(max_damage_dealt) AS max_damage, SUM(total_damage_dealt) AS total_damage FROM player_mob_stats GROUP BY player_uuid) AS player_totals";
+
+    private StatsStorageBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : rows / 20;
+        Logger logger = Logger.getLogger("StatsStorageBenchmark");
+
+        Path dir = Files.createTempDirectory("powermobs-stats");
+        Path db = dir.resolve("stats.db");
+        UUID[] playerUuids = new UUID[players];
+        Random random = new Random(42);
+        for (int i = 0; i < players; i++) {
+            playerUuids[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + db)) {
+            // The layout before the key conversion: text keys, with the leaderboard indexes
+            SchemaMigrations.migrate(conn, true, logger, 2);
+            long start = System.nanoTime();
+            generate(conn, playerUuids, rows, random);
+            System.out.printf("Generated %,d rows for %,d players in %,d ms%n", rows, players, (System.nanoTime() - start) / 1_000_000);
+            vacuum(conn);
+            report("text keys", conn, db, playerUuids, true, null);
+
+            start = System.nanoTime();
+            SchemaMigrations.migrate(conn, true, logger);
+            MobIds mobIds = new MobIds(true);
+            mobIds.load(conn);
+            while (KeyConversion.copyBatch(conn, mobIds, KeyConversion.BATCH_SIZE) >= 0) {
+                // Copies until every row is in the new table
+            }
+            KeyConversion.finish(conn, true);
+            System.out.printf("Converted in %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+            vacuum(conn);
+            report("binary keys", conn, db, playerUuids, false, mobIds);
+        } finally {
+            Files.deleteIfExists(db);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void generate(Connection conn, UUID[] playerUuids, int rows, Random random) throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement("INSERT OR IGNORE INTO player_mob_stats " +
+                "(player_uuid, mob_id, kills_count, deaths_count, max_damage_dealt, total_damage_dealt) VALUES (?, ?, ?, ?, ?, ?)")) {
+            // Each player fights the same spread of mobs, so rows are unique per (player, mob)
+            int perPlayer = Math.max(1, Math.min(MOBS, (rows + playerUuids.length - 1) / playerUuids.length));
+            int written = 0;
+            for (int p = 0; p < playerUuids.length && written < rows; p++) {
+                for (int m = 0; m < perPlayer && written < rows; m++) {
+                    int kills = random.nextInt(500);
+                    ps.setString(1, playerUuids[p].toString());
+                    ps.setString(2, "mob_" + (p + m) % MOBS);
+                    ps.setInt(3, kills);
+                    ps.setInt(4, random.nextInt(50));
+                    ps.setDouble(5, random.nextDouble() * 100.0);
+                    ps.setDouble(6, kills * random.nextDouble() * 40.0);
+                    ps.addBatch();
+                    if (++written % 10_000 == 0) {
+                        ps.executeBatch();
+                    }
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static void report(String layout, Connection conn, Path db, UUID[] playerUuids, boolean legacy, MobIds mobIds) throws Exception {
+        String topSql = "SELECT player_uuid, kills_count FROM player_mob_stats WHERE mob_id = ? ORDER BY kills_count DESC LIMIT ?";
+        String totals = legacy ? LEGACY_TOTALS : "player_totals";
+        String rankSql = "SELECT COUNT(*) + 1 AS rank FROM " + totals + " WHERE total_kills > COALESCE((" +
+                "SELECT total_kills FROM " + totals + " WHERE player_uuid = ?), 0)";
+        Random random = new Random(7);
+
+        double topMicros = time(conn, topSql, TOP_QUERIES, ps -> {
+            String mob = "mob_" + random.nextInt(MOBS);
+            if (legacy) {
+                ps.setString(1, mob);
+            } else {
+                ps.setInt(1, mobIds.idOf(mob));
+            }
+            ps.setInt(2, TOP_N);
+        });
+        double rankMicros = time(conn, rankSql, RANK_QUERIES, ps -> {
+            UUID player = playerUuids[random.nextInt(playerUuids.length)];
+            if (legacy) {
+                ps.setString(1, player.toString());
+            } else {
+                ps.setBytes(1, UuidBytes.toBytes(player));
+            }
+        });
+
+        System.out.printf("%-12s stats.db %,12d bytes | top-%d %,10.1f us | rank %,12.1f us%n",
+                layout, Files.size(db), TOP_N, topMicros, rankMicros);
+    }
+
+    /**
+     * Runs a query repeatedly with fresh parameters
+     *
+     * @return The mean latency in microseconds, after as many warm-up runs as timed ones
+     */
+    private static double time(Connection conn, String sql, int queries, Binder binder) throws SQLException {
+        long total = 0;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < queries * 2; i++) {
+                binder.bind(ps);
+                long start = System.nanoTime();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getObject(1);
+                    }
+                }
+                if (i >= queries) {
+                    total += System.nanoTime() - start;
+                }
+            }
+        }
+        return total / 1_000.0 / queries;
+    }
+
+    private static void vacuum(Connection conn) throws SQLException {
+        try (Statement s = conn.createStatement()) {
+            s.execute("VACUUM");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+}